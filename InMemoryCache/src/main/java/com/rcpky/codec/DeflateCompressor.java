@@ -0,0 +1,62 @@
+package com.rcpky.codec;
+
+import com.rcpky.interfaces.Compressor;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JDK Deflater based compressor. Slower than LzCompressor but noticeably smaller output.
+ */
+public class DeflateCompressor implements Compressor {
+    private final int level;
+
+    public DeflateCompressor() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    public DeflateCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte[] compress(byte[] input) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] buffer = new byte[input.length + input.length / 1000 + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] compressed, int originalLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] output = new byte[originalLength];
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int read = inflater.inflate(output, length, originalLength - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += read;
+            }
+            if (length != originalLength) throw new IllegalStateException("Corrupt compressed value");
+            return output;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
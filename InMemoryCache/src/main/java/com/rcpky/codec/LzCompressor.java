@@ -0,0 +1,121 @@
+package com.rcpky.codec;
+
+import com.rcpky.interfaces.Compressor;
+
+import java.util.Arrays;
+
+/**
+ * Small LZ77 compressor using the LZ4 block layout: each sequence is a token (literal length,
+ * match length), the literals, a 2-byte little-endian back-reference offset and length extensions.
+ * Matches are found through a single-probe hash table of 4-byte prefixes, trading ratio for speed.
+ */
+public class LzCompressor implements Compressor {
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_BITS = 12;
+    private static final int MAX_OFFSET = 65535;
+
+    @Override
+    public byte[] compress(byte[] src) {
+        int n = src.length;
+        byte[] dst = new byte[n + n / 255 + 16];
+        int[] table = new int[1 << HASH_BITS];
+        int op = 0;
+        int anchor = 0;
+        int i = 0;
+
+        while (i <= n - MIN_MATCH) {
+            int sequence = readInt(src, i);
+            int hash = (sequence * -1640531535) >>> (32 - HASH_BITS);
+            // Table stores position + 1 so that 0 means empty
+            int ref = table[hash] - 1;
+            table[hash] = i + 1;
+
+            if (ref >= 0 && i - ref <= MAX_OFFSET && readInt(src, ref) == sequence) {
+                int matchLength = MIN_MATCH;
+                while (i + matchLength < n && src[ref + matchLength] == src[i + matchLength]) matchLength++;
+                op = writeSequence(src, anchor, i - anchor, dst, op, i - ref, matchLength);
+                i += matchLength;
+                anchor = i;
+            } else {
+                i++;
+            }
+        }
+        op = writeSequence(src, anchor, n - anchor, dst, op, 0, 0);
+        return Arrays.copyOf(dst, op);
+    }
+
+    @Override
+    public byte[] decompress(byte[] src, int originalLength) {
+        byte[] dst = new byte[originalLength];
+        int ip = 0;
+        int op = 0;
+        while (ip < src.length) {
+            int token = src[ip++] & 0xff;
+
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    b = src[ip++] & 0xff;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+            // The last sequence carries literals only
+            if (ip >= src.length) break;
+
+            int offset = (src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8;
+            ip += 2;
+            int matchLength = token & 0x0f;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    b = src[ip++] & 0xff;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+
+            // Byte-wise copy because the match may overlap the bytes it produces
+            int from = op - offset;
+            for (int k = 0; k < matchLength; k++) dst[op + k] = dst[from + k];
+            op += matchLength;
+        }
+        if (op != originalLength) throw new IllegalStateException("Corrupt compressed value");
+        return dst;
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength,
+                                     byte[] dst, int op, int offset, int matchLength) {
+        int extraMatch = matchLength == 0 ? 0 : matchLength - MIN_MATCH;
+        int tokenPos = op++;
+        int token = Math.min(literalLength, 15) << 4 | Math.min(extraMatch, 15);
+        dst[tokenPos] = (byte) token;
+
+        if (literalLength >= 15) op = writeLength(dst, op, literalLength - 15);
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        op += literalLength;
+
+        if (matchLength > 0) {
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> 8);
+            if (extraMatch >= 15) op = writeLength(dst, op, extraMatch - 15);
+        }
+        return op;
+    }
+
+    private static int writeLength(byte[] dst, int op, int length) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+    }
+}
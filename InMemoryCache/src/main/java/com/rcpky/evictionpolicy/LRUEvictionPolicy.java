@@ -30,4 +30,10 @@ public class LRUEvictionPolicy<K> implements EvictionPolicy<K> {
             keyMap.put(key, node);
         }
     }
+
+    @Override
+    public void removeKey(K key) {
+        Node<K> node = keyMap.remove(key);
+        if (node != null) dll.remove(node);
+    }
 }
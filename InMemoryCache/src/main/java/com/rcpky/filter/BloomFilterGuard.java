@@ -0,0 +1,78 @@
+package com.rcpky.filter;
+
+import com.rcpky.interfaces.NegativeLookupGuard;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Negative lookup guard combining a counting Bloom filter of keys known to exist in the
+ * backing store with a short-lived cache of keys the loader confirmed absent.
+ *
+ * Before the Bloom filter is enabled, every key that already exists in the backing store must be
+ * passed to {@link #keyCreated}; a key missing from the filter is treated as absent without a
+ * backend call. Without seeding, pass useBloomFilter = false and only the negative cache is consulted.
+ */
+public class BloomFilterGuard<K> implements NegativeLookupGuard<K> {
+    private final CountingBloomFilter<K> knownKeys;
+    private final boolean useBloomFilter;
+    private final Map<K, Long> absentUntil = new ConcurrentHashMap<>();
+    private final long negativeTtlNanos;
+    private final int maxNegativeEntries;
+
+    public BloomFilterGuard(long expectedKeys, double falsePositiveRate, Duration negativeTtl, int maxNegativeEntries) {
+        this(CountingBloomFilter.create(expectedKeys, falsePositiveRate), true, negativeTtl, maxNegativeEntries);
+    }
+
+    public BloomFilterGuard(CountingBloomFilter<K> knownKeys, boolean useBloomFilter, Duration negativeTtl, int maxNegativeEntries) {
+        this.knownKeys = knownKeys;
+        this.useBloomFilter = useBloomFilter;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxNegativeEntries = maxNegativeEntries;
+    }
+
+    @Override
+    public boolean mightExist(K key) {
+        Long until = absentUntil.get(key);
+        if (until != null) {
+            if (System.nanoTime() - until < 0) return false;
+            absentUntil.remove(key, until);
+        }
+        return !useBloomFilter || knownKeys.mightContain(key);
+    }
+
+    @Override
+    public void recordAbsent(K key) {
+        if (absentUntil.size() >= maxNegativeEntries) {
+            purgeExpired();
+            if (absentUntil.size() >= maxNegativeEntries) return;
+        }
+        absentUntil.put(key, System.nanoTime() + negativeTtlNanos);
+    }
+
+    @Override
+    public void recordPresent(K key) {
+        absentUntil.remove(key);
+    }
+
+    @Override
+    public void keyCreated(K key) {
+        absentUntil.remove(key);
+        knownKeys.add(key);
+    }
+
+    @Override
+    public void keyDeleted(K key) {
+        knownKeys.remove(key);
+    }
+
+    public long memoryBytes() {
+        return knownKeys.memoryBytes();
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        absentUntil.entrySet().removeIf(e -> now - e.getValue() >= 0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.rcpky.filter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter with 4-bit counters packed sixteen to a long.
+ * Unlike a plain Bloom filter it supports removal; counters saturate at 15 and are never
+ * decremented afterwards, so an overflowed slot can only cause false positives, never false negatives.
+ * All operations are lock-free.
+ *
+ * Counter positions are derived from the key's 32-bit hashCode() alone, mixed into 64 bits. Keys
+ * with equal hash codes therefore share all their counters: the false-positive rate can never drop
+ * below the hashCode() collision rate of the key type, and a type with a weak hashCode() does worse
+ * than the configured rate.
+ */
+public class CountingBloomFilter<K> {
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLongArray words;
+    private final int counters;
+    private final int hashes;
+
+    public CountingBloomFilter(int counters, int hashes) {
+        if (counters <= 0 || hashes <= 0) throw new IllegalArgumentException("counters and hashes must be positive");
+        this.counters = counters;
+        this.hashes = hashes;
+        this.words = new AtomicLongArray((counters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    /**
+     * Sizes the filter for the expected number of keys and target false-positive rate.
+     */
+    public static <K> CountingBloomFilter<K> create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        double ln2 = Math.log(2);
+        long counters = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        if (counters > Integer.MAX_VALUE) throw new IllegalArgumentException("Filter too large, lower expectedInsertions or raise falsePositiveRate");
+        int hashes = Math.max(1, (int) Math.round((double) counters / expectedInsertions * ln2));
+        return new CountingBloomFilter<>((int) counters, hashes);
+    }
+
+    public void add(K key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            increment(index(hash, i));
+        }
+    }
+
+    /**
+     * Removes a key that was previously added. Removing a key that was never added corrupts the filter.
+     */
+    public void remove(K key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            decrement(index(hash, i));
+        }
+    }
+
+    public boolean mightContain(K key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashes; i++) {
+            if (counter(index(hash, i)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    private void increment(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & COUNTER_MAX;
+            if (count == COUNTER_MAX) return;
+            if (words.compareAndSet(word, current, current + (1L << shift))) return;
+        }
+    }
+
+    private void decrement(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & COUNTER_MAX;
+            // Saturated counters have lost their exact count and must stay set
+            if (count == 0 || count == COUNTER_MAX) return;
+            if (words.compareAndSet(word, current, current - (1L << shift))) return;
+        }
+    }
+
+    private long counter(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        return (words.get(word) >>> shift) & COUNTER_MAX;
+    }
+
+    // Kirsch-Mitzenmacher double hashing: index_i = h1 + i * h2
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + i * h2, counters);
+    }
+
+    // 64-bit finalizer from MurmurHash3 to spread hashCode() over both halves. It decorrelates h1 and
+    // h2 but adds no entropy, so hashCode() collisions stay collisions.
+    private static long hash(Object key) {
+        long h = key.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,8 +1,104 @@
 package com.rcpky.interfaces;
 
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Objects;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Key-value cache. Keys must not be null: the bundled implementations keep their entries in
+ * concurrent maps and throw NullPointerException for a null key.
+ */
 public interface Cache<K, V> {
     V get(K key);
     void put(K key, V value);
     void remove(K key);
     int size();
+
+    /**
+     * Weakly consistent, splittable view of the live entries. Traversal does not block writers,
+     * never throws ConcurrentModificationException, skips expired entries and may or may not
+     * reflect changes made after it was created. Caches that cannot enumerate their entries keep
+     * this default, and every scan on them throws UnsupportedOperationException.
+     */
+    default Spliterator<Map.Entry<K, V>> spliterator() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support scans");
+    }
+
+    /*
+     * Conditional and remapping operations with java.util.Map semantics: a null result removes the key.
+     * The defaults are built on get/put and are NOT atomic; implementations such as InMemoryCache
+     * override them to run as a single operation under their lock.
+     */
+
+    default V putIfAbsent(K key, V value) {
+        V current = get(key);
+        if (current == null) put(key, value);
+        return current;
+    }
+
+    default V replace(K key, V value) {
+        V current = get(key);
+        if (current != null) put(key, value);
+        return current;
+    }
+
+    default boolean replace(K key, V oldValue, V newValue) {
+        V current = get(key);
+        if (current == null || !Objects.equals(current, oldValue)) return false;
+        put(key, newValue);
+        return true;
+    }
+
+    default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V current = get(key);
+        if (current != null) return current;
+        V value = mappingFunction.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    default V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V current = get(key);
+        if (current == null) return null;
+        V value = remappingFunction.apply(key, current);
+        if (value == null) remove(key);
+        else put(key, value);
+        return value;
+    }
+
+    default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V value = remappingFunction.apply(key, get(key));
+        if (value == null) remove(key);
+        else put(key, value);
+        return value;
+    }
+
+    default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        V current = get(key);
+        V merged = current == null ? value : remappingFunction.apply(current, value);
+        if (merged == null) remove(key);
+        else put(key, merged);
+        return merged;
+    }
+
+    default Iterable<K> keys() {
+        return () -> stream().map(Map.Entry::getKey).iterator();
+    }
+
+    default Iterable<Map.Entry<K, V>> entries() {
+        return () -> Spliterators.iterator(spliterator());
+    }
+
+    default Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
@@ -0,0 +1,8 @@
+package com.rcpky.interfaces;
+
+public interface CacheLoader<K, V> {
+    /**
+     * @return the value from the backing store, or null if the key does not exist there
+     */
+    V load(K key);
+}
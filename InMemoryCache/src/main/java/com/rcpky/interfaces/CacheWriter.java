@@ -0,0 +1,21 @@
+package com.rcpky.interfaces;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * SPI for persisting cache writes to a backing store.
+ * Batch methods default to per-key calls; stores that support bulk writes should override them.
+ */
+public interface CacheWriter<K, V> {
+    void write(K key, V value);
+    void delete(K key);
+
+    default void writeAll(Map<K, V> entries) {
+        entries.forEach(this::write);
+    }
+
+    default void deleteAll(Collection<K> keys) {
+        keys.forEach(this::delete);
+    }
+}
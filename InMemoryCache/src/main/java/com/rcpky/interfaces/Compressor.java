@@ -0,0 +1,10 @@
+package com.rcpky.interfaces;
+
+public interface Compressor {
+    byte[] compress(byte[] input);
+
+    /**
+     * @param originalLength length of the input that was compressed, recorded by the caller
+     */
+    byte[] decompress(byte[] compressed, int originalLength);
+}
@@ -5,4 +5,11 @@ import com.rcpky.model.Node;
 public interface EvictionPolicy<K> {
     K evictKey();
     void keyAccessed(K key);
+
+    /**
+     * Drops a key that left the cache other than by eviction (remove, expiry, GC).
+     * Optional: a policy that keeps the key may name it from evictKey() later, which the cache skips.
+     */
+    default void removeKey(K key) {
+    }
 }
@@ -0,0 +1,25 @@
+package com.rcpky.interfaces;
+
+/**
+ * Decides whether a cache miss is worth sending to the loader.
+ * Implementations track which keys exist in the backing store, so lookups for keys that
+ * are known to be absent can be answered without a backend call.
+ */
+public interface NegativeLookupGuard<K> {
+    /**
+     * @return false only if the key is known not to exist in the backing store
+     */
+    boolean mightExist(K key);
+
+    /** The loader confirmed the key is absent. */
+    void recordAbsent(K key);
+
+    /** A value for the key was loaded or written, so any remembered absence is stale. */
+    void recordPresent(K key);
+
+    /** The key was created in the backing store. Called once per key, including when seeding at startup. */
+    void keyCreated(K key);
+
+    /** The key was deleted from the backing store. */
+    void keyDeleted(K key);
+}
@@ -0,0 +1,14 @@
+package com.rcpky.interfaces;
+
+import com.rcpky.model.RemovalCause;
+
+/**
+ * Callback for entries leaving the cache.
+ * Invoked while the cache lock is held, so implementations must be quick and must not call back into the cache.
+ */
+public interface RemovalListener<K, V> {
+    /**
+     * @param value the removed value, or null if it was already garbage collected
+     */
+    void onRemoval(K key, V value, RemovalCause cause);
+}
@@ -0,0 +1,9 @@
+package com.rcpky.interfaces;
+
+/**
+ * Converts cache keys or values to and from bytes, for caches that store them off-heap or compressed.
+ */
+public interface Serializer<T> {
+    byte[] serialize(T value);
+    T deserialize(byte[] bytes);
+}
@@ -0,0 +1,21 @@
+package com.rcpky.interfaces;
+
+import java.util.Set;
+
+/**
+ * Cache whose entries can be labelled with tags and invalidated in bulk by tag.
+ */
+public interface TaggedCache<K, V> extends Cache<K, V> {
+    /**
+     * Stores the value and replaces any tags the key had before.
+     */
+    void put(K key, V value, String... tags);
+
+    /**
+     * Removes every entry carrying the tag.
+     * @return number of live entries removed; entries that had already expired are purged but not counted
+     */
+    int invalidateTag(String tag);
+
+    Set<K> keysForTag(String tag);
+}
@@ -0,0 +1,116 @@
+package com.rcpky.memory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Heap watermark backed by MemoryMXBean notifications.
+ * Arms a usage threshold on every heap pool that supports one; once a pool crosses it the
+ * monitor reports pressure until usage drops back below the watermark, and caches shrink
+ * their effective capacity by the configured factor in the meantime.
+ *
+ * Pool usage thresholds are JVM-wide and another monitor or library may overwrite them, so the
+ * monitor keeps its own threshold per pool: notifications from other pools or below its own
+ * threshold are ignored, recovery is checked against its own value, and close() puts back the
+ * threshold it replaced unless someone else has changed it since. If another party raises a
+ * pool's threshold above this monitor's, crossings in between go unnoticed until the higher one.
+ */
+public final class MemoryPressureMonitor implements NotificationListener, AutoCloseable {
+    private final double shrinkFactor;
+    // Pools this monitor armed, with the threshold it set and the one it replaced
+    private final Map<String, PoolThreshold> pools = new LinkedHashMap<>();
+    private final NotificationEmitter emitter;
+    private volatile boolean underPressure;
+
+    /**
+     * @param usageThreshold fraction of a pool's max size (0..1) that counts as pressure
+     * @param shrinkFactor   fraction of the configured capacity (0..1) to keep while under pressure
+     */
+    public MemoryPressureMonitor(double usageThreshold, double shrinkFactor) {
+        if (usageThreshold <= 0 || usageThreshold > 1) throw new IllegalArgumentException("usageThreshold must be in (0, 1]");
+        if (shrinkFactor <= 0 || shrinkFactor > 1) throw new IllegalArgumentException("shrinkFactor must be in (0, 1]");
+        this.shrinkFactor = shrinkFactor;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && max > 0) {
+                // Zero would disable the threshold
+                long threshold = Math.max(1, (long) (max * usageThreshold));
+                long previous = pool.getUsageThreshold();
+                pool.setUsageThreshold(threshold);
+                pools.put(pool.getName(), new PoolThreshold(pool, threshold, previous));
+            }
+        }
+        this.emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+        // Registered last, once every field is set; the class is final so no subclass is half-built here
+        emitter.addNotificationListener(this, null, null);
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(notification.getType())) return;
+        if (!(notification.getUserData() instanceof CompositeData)) return;
+        MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+        PoolThreshold own = pools.get(info.getPoolName());
+        // Fired by a threshold someone else set on a pool we do not watch, or below ours
+        if (own == null || info.getUsage().getUsed() < own.threshold) return;
+        underPressure = true;
+    }
+
+    /**
+     * Notifications only fire when a threshold is crossed upwards, so recovery is detected
+     * by re-checking the pools here.
+     */
+    public boolean isUnderPressure() {
+        if (underPressure && pools.values().stream().noneMatch(PoolThreshold::exceeded)) {
+            underPressure = false;
+        }
+        return underPressure;
+    }
+
+    public int effectiveCapacity(int capacity) {
+        if (!isUnderPressure()) return capacity;
+        return Math.max(1, (int) (capacity * shrinkFactor));
+    }
+
+    /**
+     * Stops listening and restores the thresholds this monitor replaced, leaving alone any pool
+     * whose threshold has been changed by someone else since.
+     */
+    @Override
+    public void close() {
+        try {
+            emitter.removeNotificationListener(this);
+        } catch (ListenerNotFoundException ignored) {
+            // already removed
+        }
+        for (PoolThreshold own : pools.values()) {
+            if (own.pool.getUsageThreshold() == own.threshold) own.pool.setUsageThreshold(own.previous);
+        }
+    }
+
+    private static final class PoolThreshold {
+        final MemoryPoolMXBean pool;
+        final long threshold;
+        final long previous;
+
+        PoolThreshold(MemoryPoolMXBean pool, long threshold, long previous) {
+            this.pool = pool;
+            this.threshold = threshold;
+            this.previous = previous;
+        }
+
+        boolean exceeded() {
+            return pool.getUsage().getUsed() >= threshold;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.rcpky.metrics;
+
+import lombok.Getter;
+
+/**
+ * A heavy hitter reported by the profiler. Over the operations the profiler sampled, the true
+ * count lies between estimatedCount - error and estimatedCount. Both are scaled by the sampling
+ * rate, so with sampling on they are estimates of the full count with no hard bound.
+ */
+@Getter
+public class HotKey<K> {
+    private final K key;
+    private final long estimatedCount;
+    private final long error;
+
+    public HotKey(K key, long estimatedCount, long error) {
+        this.key = key;
+        this.estimatedCount = estimatedCount;
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + estimatedCount + " (±" + error + ")";
+    }
+}
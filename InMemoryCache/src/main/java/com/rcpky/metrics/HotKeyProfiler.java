@@ -0,0 +1,165 @@
+package com.rcpky.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling hot-key profiler.
+ * Roughly one in sampleRate operations is recorded into a Space-Saving sketch; the sliding
+ * window is split into buckets, each with its own sketch, and the oldest bucket is recycled
+ * as time moves on. Sampled operations are spread over stripes by thread, each stripe with
+ * its own window and lock, so recording threads do not share a monitor; topKeys merges all
+ * stripes. Memory is bounded by stripes * buckets * k counters regardless of key cardinality,
+ * and unsampled operations only pay for a thread-local random draw. A merged key is charged, in
+ * count and error alike, the smallest count of every full sketch that does not track it, since
+ * it may have been seen and evicted there.
+ */
+public class HotKeyProfiler<K> implements HotKeyProfilerMXBean {
+    private final int k;
+    private final int sampleRate;
+    private final List<Stripe<K>> stripes;
+    private final LongAdder sampled = new LongAdder();
+
+    /**
+     * @param k          number of heavy hitters to track per bucket of each stripe
+     * @param sampleRate record one in sampleRate operations on average (1 records everything)
+     * @param windowMillis length of the sliding window
+     * @param buckets    number of sub-windows the window is split into
+     */
+    public HotKeyProfiler(int k, int sampleRate, long windowMillis, int buckets) {
+        if (k <= 0 || sampleRate <= 0 || windowMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("All profiler settings must be positive");
+        }
+        this.k = k;
+        this.sampleRate = sampleRate;
+        long bucketNanos = windowMillis * 1_000_000L / buckets;
+        long start = System.nanoTime();
+        // Power of two at or above the core count, so a stripe is picked with a mask
+        int count = Math.max(1, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() - 1) << 1);
+        this.stripes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) stripes.add(new Stripe<>(k, buckets, bucketNanos, start));
+    }
+
+    public void record(K key) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) return;
+        sampled.increment();
+        // Identity hash of the thread keeps a thread on one stripe; spread it before masking
+        int h = Thread.currentThread().hashCode() * 0x9E3779B9;
+        stripes.get((h ^ (h >>> 16)) & (stripes.size() - 1)).offer(key, System.nanoTime());
+    }
+
+    /**
+     * @return up to n hot keys over the sliding window, hottest first
+     */
+    public List<HotKey<K>> topKeys(int n) {
+        Map<K, long[]> merged = new HashMap<>();
+        long now = System.nanoTime();
+        long untracked = 0;
+        for (Stripe<K> stripe : stripes) untracked += stripe.mergeInto(merged, now);
+        List<HotKey<K>> result = new ArrayList<>(merged.size());
+        for (Map.Entry<K, long[]> e : merged.entrySet()) {
+            long[] acc = e.getValue();
+            // Bounds of the sketches that lacked this key
+            long missed = untracked - acc[2];
+            result.add(new HotKey<>(e.getKey(), (acc[0] + missed) * sampleRate, (acc[1] + missed) * sampleRate));
+        }
+        result.sort(Comparator.comparingLong(HotKey<K>::getEstimatedCount).reversed());
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    @Override
+    public List<String> getTopKeys() {
+        List<String> keys = new ArrayList<>();
+        for (HotKey<K> hotKey : topKeys(k)) keys.add(hotKey.toString());
+        return keys;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public long getSampledOperations() {
+        return sampled.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (Stripe<K> stripe : stripes) stripe.clear();
+        sampled.reset();
+    }
+
+    /**
+     * Registers this profiler with the platform MBean server under com.rcpky:type=HotKeyProfiler,name=...
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("com.rcpky:type=HotKeyProfiler,name=" + ObjectName.quote(name));
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register hot key profiler MBean", e);
+        }
+    }
+
+    /**
+     * One sliding window of bucket sketches, guarded by its own monitor.
+     */
+    private static final class Stripe<K> {
+        private final long bucketNanos;
+        private final List<SpaceSaving<K>> buckets;
+        private long currentBucketStart;
+        private int currentBucket;
+
+        Stripe(int k, int buckets, long bucketNanos, long start) {
+            this.bucketNanos = bucketNanos;
+            this.buckets = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) this.buckets.add(new SpaceSaving<>(k));
+            this.currentBucketStart = start;
+        }
+
+        synchronized void offer(K key, long now) {
+            advance(now);
+            buckets.get(currentBucket).offer(key);
+        }
+
+        // Returns the summed untracked bounds of the stripe's sketches
+        synchronized long mergeInto(Map<K, long[]> accumulator, long now) {
+            advance(now);
+            long untracked = 0;
+            for (SpaceSaving<K> bucket : buckets) untracked += bucket.mergeInto(accumulator);
+            return untracked;
+        }
+
+        synchronized void clear() {
+            for (SpaceSaving<K> bucket : buckets) bucket.clear();
+        }
+
+        // Recycles buckets that fell out of the window. Must be called while holding the monitor
+        private void advance(long now) {
+            long elapsed = (now - currentBucketStart) / bucketNanos;
+            if (elapsed <= 0) return;
+            int steps = (int) Math.min(elapsed, buckets.size());
+            for (int i = 0; i < steps; i++) {
+                currentBucket = (currentBucket + 1) % buckets.size();
+                buckets.get(currentBucket).clear();
+            }
+            currentBucketStart += elapsed * bucketNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.rcpky.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of a HotKeyProfiler, e.g. for jconsole or a JMX exporter.
+ */
+public interface HotKeyProfilerMXBean {
+    List<String> getTopKeys();
+    int getSampleRate();
+    long getSampledOperations();
+    void reset();
+}
@@ -0,0 +1,129 @@
+package com.rcpky.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.) tracking at most capacity keys.
+ * When full, a new key replaces the key with the smallest count and inherits that count
+ * as its error bound. Counters are kept in a Stream-Summary: a list of buckets in ascending
+ * count order, each linking the counters that share its count, so an offer is O(1) whether
+ * it increments a tracked key or replaces the minimum. Not thread-safe.
+ */
+class SpaceSaving<K> {
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    // Bucket with the smallest count; buckets are linked in ascending count order
+    private Bucket<K> min;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(K key) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            increment(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter<>(key, 0);
+            counters.put(key, counter);
+            // Every tracked count is at least 1, so a count-1 bucket can only be the head
+            if (min == null || min.count != 1) {
+                Bucket<K> head = new Bucket<>(1);
+                head.next = min;
+                if (min != null) min.prev = head;
+                min = head;
+            }
+            attach(counter, min);
+            return;
+        }
+        // Reuse any counter with the smallest count for the new key
+        counter = min.first;
+        counters.remove(counter.key);
+        counter.key = key;
+        counter.error = min.count;
+        counters.put(key, counter);
+        increment(counter);
+    }
+
+    /**
+     * Adds this sketch's counts (count, error, untracked bound) into the accumulator and returns
+     * the most a key it does not track can have been seen: the smallest count once the sketch is
+     * full, as any such key was evicted at or below it, and 0 before then. The same bound is added
+     * to the third slot of every key it does track, so a merge can tell which sketches lacked a key.
+     */
+    long mergeInto(Map<K, long[]> accumulator) {
+        long untracked = counters.size() < capacity ? 0 : min.count;
+        for (Counter<K> c : counters.values()) {
+            long[] acc = accumulator.computeIfAbsent(c.key, k -> new long[3]);
+            acc[0] += c.bucket.count;
+            acc[1] += c.error;
+            acc[2] += untracked;
+        }
+        return untracked;
+    }
+
+    void clear() {
+        counters.clear();
+        min = null;
+    }
+
+    // Moves the counter to the bucket one count higher, creating it if needed
+    private void increment(Counter<K> counter) {
+        Bucket<K> from = counter.bucket;
+        Bucket<K> to = from.next;
+        if (to == null || to.count != from.count + 1) {
+            to = new Bucket<>(from.count + 1);
+            to.prev = from;
+            to.next = from.next;
+            if (from.next != null) from.next.prev = to;
+            from.next = to;
+        }
+        detach(counter);
+        attach(counter, to);
+    }
+
+    private void attach(Counter<K> counter, Bucket<K> bucket) {
+        counter.bucket = bucket;
+        counter.prev = null;
+        counter.next = bucket.first;
+        if (bucket.first != null) bucket.first.prev = counter;
+        bucket.first = counter;
+    }
+
+    // Unlinks the counter from its bucket and drops the bucket once it is empty
+    private void detach(Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+        if (counter.prev != null) counter.prev.next = counter.next;
+        else bucket.first = counter.next;
+        if (counter.next != null) counter.next.prev = counter.prev;
+        if (bucket.first != null) return;
+        if (bucket.prev != null) bucket.prev.next = bucket.next;
+        else min = bucket.next;
+        if (bucket.next != null) bucket.next.prev = bucket.prev;
+    }
+
+    private static final class Bucket<K> {
+        final long count;
+        Bucket<K> prev, next;
+        Counter<K> first;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    private static final class Counter<K> {
+        K key;
+        long error;
+        Bucket<K> bucket;
+        Counter<K> prev, next;
+
+        Counter(K key, long error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 public class CacheEntry<V> {
     V value;
     LocalDateTime expires;
+    String[] tags;
 
     public CacheEntry(V value, LocalDateTime expires) {
         this.value = value;
@@ -47,4 +47,15 @@ public class DoublyLinkedList<K> {
         else head.prev = null;
         return node;
     }
+
+    public void remove(Node<K> node) {
+        if (node.prev != null) node.prev.next = node.next;
+        else head = node.next;
+
+        if (node.next != null) node.next.prev = node.prev;
+        else tail = node.prev;
+
+        node.prev = null;
+        node.next = null;
+    }
 }
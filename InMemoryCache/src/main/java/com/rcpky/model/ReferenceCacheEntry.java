@@ -0,0 +1,103 @@
+package com.rcpky.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+
+/**
+ * Cache entry whose value is held through a soft or weak reference.
+ * Once the GC clears the value, the reference is enqueued so the cache can purge the key.
+ * Setting a new value replaces the reference; the old one may still be enqueued afterwards,
+ * so the cache only purges for references that are still current.
+ */
+public class ReferenceCacheEntry<K, V> extends CacheEntry<V> {
+    private final K key;
+    private final ReferenceStrength strength;
+    private final ReferenceQueue<? super V> queue;
+    private volatile Reference<V> reference;
+
+    public ReferenceCacheEntry(K key, V value, LocalDateTime expires,
+                               ReferenceStrength strength, ReferenceQueue<? super V> queue) {
+        super(null, expires);
+        this.key = key;
+        this.strength = strength;
+        this.queue = queue;
+        this.reference = newReference(value);
+    }
+
+    private Reference<V> newReference(V value) {
+        if (strength == ReferenceStrength.WEAK) {
+            return new WeakValue<>(key, value, queue, this);
+        }
+        return new SoftValue<>(key, value, queue, this);
+    }
+
+    @Override
+    public V getValue() {
+        return reference.get();
+    }
+
+    @Override
+    public void setValue(V value) {
+        Reference<V> old = reference;
+        reference = newReference(value);
+        // A cleared reference is not enqueued, so the old value can no longer purge this entry
+        old.clear();
+    }
+
+    /**
+     * Reference that remembers which key and entry it belongs to, so a dequeued
+     * reference can be mapped back to the cache slot it has to be purged from.
+     */
+    public interface ValueReference<K> {
+        K getKey();
+        CacheEntry<?> getEntry();
+
+        /**
+         * False once the entry's value has been replaced, so the entry must not be purged for it.
+         */
+        boolean isCurrent();
+    }
+
+    private static class SoftValue<K, V> extends SoftReference<V> implements ValueReference<K> {
+        private final K key;
+        private final ReferenceCacheEntry<?, ?> entry;
+
+        SoftValue(K key, V value, ReferenceQueue<? super V> queue, ReferenceCacheEntry<?, ?> entry) {
+            super(value, queue);
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() { return key; }
+
+        @Override
+        public CacheEntry<?> getEntry() { return entry; }
+
+        @Override
+        public boolean isCurrent() { return entry.reference == this; }
+    }
+
+    private static class WeakValue<K, V> extends WeakReference<V> implements ValueReference<K> {
+        private final K key;
+        private final ReferenceCacheEntry<?, ?> entry;
+
+        WeakValue(K key, V value, ReferenceQueue<? super V> queue, ReferenceCacheEntry<?, ?> entry) {
+            super(value, queue);
+            this.key = key;
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() { return key; }
+
+        @Override
+        public CacheEntry<?> getEntry() { return entry; }
+
+        @Override
+        public boolean isCurrent() { return entry.reference == this; }
+    }
+}
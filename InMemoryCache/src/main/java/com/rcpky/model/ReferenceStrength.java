@@ -0,0 +1,12 @@
+package com.rcpky.model;
+
+/**
+ * How strongly the cache holds on to its values.
+ * SOFT values are reclaimed by the GC when the heap runs low, WEAK values as soon as
+ * nothing outside the cache references them.
+ */
+public enum ReferenceStrength {
+    STRONG,
+    SOFT,
+    WEAK
+}
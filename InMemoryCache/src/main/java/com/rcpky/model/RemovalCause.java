@@ -0,0 +1,11 @@
+package com.rcpky.model;
+
+/**
+ * Why an entry left the cache.
+ */
+public enum RemovalCause {
+    EXPLICIT,
+    EVICTED,
+    EXPIRED,
+    COLLECTED
+}
@@ -0,0 +1,141 @@
+package com.rcpky.service;
+
+import com.rcpky.interfaces.Cache;
+import com.rcpky.interfaces.Compressor;
+import com.rcpky.interfaces.Serializer;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Value codec layer that stores values as compact byte[] in the underlying cache.
+ * Serialized values of at least thresholdBytes are compressed; values that are smaller,
+ * or that do not shrink, are stored as-is. Each stored array starts with a one-byte header:
+ * RAW, or COMPRESSED followed by the 4-byte original length.
+ */
+public class CompressingCache<K, V> implements Cache<K, V> {
+    private static final byte RAW = 0;
+    private static final byte COMPRESSED = 1;
+    private static final int COMPRESSED_HEADER = 5;
+
+    private final Cache<K, byte[]> cache;
+    private final Serializer<V> serializer;
+    private final Compressor compressor;
+    private final int thresholdBytes;
+
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder compressedValues = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    public CompressingCache(Cache<K, byte[]> cache, Serializer<V> serializer, Compressor compressor, int thresholdBytes) {
+        this.cache = cache;
+        this.serializer = serializer;
+        this.compressor = compressor;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    public V get(K key) {
+        byte[] stored = cache.get(key);
+        return stored == null ? null : decode(stored);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, encode(value));
+    }
+
+    @Override
+    public void remove(K key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        Spliterator<Map.Entry<K, byte[]>> source = cache.spliterator();
+        return new Spliterators.AbstractSpliterator<>(source.estimateSize(), source.characteristics()) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+                return source.tryAdvance(e -> action.accept(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), decode(e.getValue()))));
+            }
+        };
+    }
+
+    /**
+     * Bytes stored divided by bytes serialized, over all puts so far (lower is better).
+     */
+    public double compressionRatio() {
+        long serialized = serializedBytes.sum();
+        return serialized == 0 ? 1.0 : (double) storedBytes.sum() / serialized;
+    }
+
+    public long compressedValues() {
+        return compressedValues.sum();
+    }
+
+    public long compressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long decompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    private byte[] encode(V value) {
+        byte[] raw = serializer.serialize(value);
+        byte[] stored = null;
+        if (raw.length >= thresholdBytes) {
+            long start = System.nanoTime();
+            byte[] compressed = compressor.compress(raw);
+            compressNanos.add(System.nanoTime() - start);
+            if (compressed.length + COMPRESSED_HEADER < raw.length + 1) {
+                stored = new byte[compressed.length + COMPRESSED_HEADER];
+                stored[0] = COMPRESSED;
+                writeInt(stored, 1, raw.length);
+                System.arraycopy(compressed, 0, stored, COMPRESSED_HEADER, compressed.length);
+                compressedValues.increment();
+            }
+        }
+        if (stored == null) {
+            stored = new byte[raw.length + 1];
+            stored[0] = RAW;
+            System.arraycopy(raw, 0, stored, 1, raw.length);
+        }
+        serializedBytes.add(raw.length);
+        storedBytes.add(stored.length);
+        return stored;
+    }
+
+    private V decode(byte[] stored) {
+        if (stored[0] == RAW) {
+            return serializer.deserialize(Arrays.copyOfRange(stored, 1, stored.length));
+        }
+        long start = System.nanoTime();
+        byte[] raw = compressor.decompress(Arrays.copyOfRange(stored, COMPRESSED_HEADER, stored.length), readInt(stored, 1));
+        decompressNanos.add(System.nanoTime() - start);
+        return serializer.deserialize(raw);
+    }
+
+    private static void writeInt(byte[] b, int i, int v) {
+        b[i] = (byte) (v >>> 24);
+        b[i + 1] = (byte) (v >>> 16);
+        b[i + 2] = (byte) (v >>> 8);
+        b[i + 3] = (byte) v;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) << 24 | (b[i + 1] & 0xff) << 16 | (b[i + 2] & 0xff) << 8 | (b[i + 3] & 0xff);
+    }
+}
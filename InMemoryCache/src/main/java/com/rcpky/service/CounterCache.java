@@ -0,0 +1,98 @@
+package com.rcpky.service;
+
+import com.rcpky.interfaces.EvictionPolicy;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of primitive long counters, e.g. for rate limiting.
+ * Each key owns a mutable cell that is updated in place, so incrementing an existing counter
+ * neither boxes nor allocates. Counters expire ttl after they were created, which gives
+ * fixed-window semantics: the first increment after expiry starts again from zero.
+ */
+public class CounterCache<K> {
+    private final Map<K, Cell> cells = new HashMap<>();
+    private final EvictionPolicy<K> evictionPolicy;
+    private final int capacity;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CounterCache(EvictionPolicy<K> evictionPolicy, int capacity, Duration ttl) {
+        this.evictionPolicy = evictionPolicy;
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long incrementAndGet(K key, long delta) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                evictIfFull();
+                cell = new Cell(now + ttlNanos);
+                cells.put(key, cell);
+            } else if (now - cell.expiresAt >= 0) {
+                cell.value = 0;
+                cell.expiresAt = now + ttlNanos;
+            }
+            cell.value += delta;
+            evictionPolicy.keyAccessed(key);
+            return cell.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current count, or 0 if the key is absent or expired
+     */
+    public long get(K key) {
+        lock.lock();
+        try {
+            Cell cell = cells.get(key);
+            if (cell == null || System.nanoTime() - cell.expiresAt >= 0) return 0;
+            return cell.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            if (cells.remove(key) != null) evictionPolicy.removeKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return cells.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIfFull() {
+        while (cells.size() >= capacity) {
+            K evict = evictionPolicy.evictKey();
+            if (evict == null) break;
+            cells.remove(evict);
+        }
+    }
+
+    private static class Cell {
+        long value;
+        long expiresAt;
+
+        Cell(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
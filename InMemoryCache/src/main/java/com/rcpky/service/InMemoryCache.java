@@ -2,37 +2,93 @@ package com.rcpky.service;
 
 import com.rcpky.interfaces.Cache;
 import com.rcpky.interfaces.EvictionPolicy;
+import com.rcpky.interfaces.RemovalListener;
+import com.rcpky.interfaces.TaggedCache;
+import com.rcpky.memory.MemoryPressureMonitor;
+import com.rcpky.metrics.HotKeyProfiler;
 import com.rcpky.model.CacheEntry;
+import com.rcpky.model.ReferenceCacheEntry;
+import com.rcpky.model.ReferenceStrength;
+import com.rcpky.model.RemovalCause;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.concurrent.locks.ReentrantLock;
 
-public class InMemoryCache<K, V> implements Cache<K, V> {
-    private final Map<K, CacheEntry<V>> cacheEntryMap = new HashMap<>();
+public class InMemoryCache<K, V> implements TaggedCache<K, V> {
+    // The concurrent map has no room for a null key, so reject one up front rather than inside the lock
+    private static final String NULL_KEY = "Cache keys must not be null";
+    // Mutations happen under the lock to keep the eviction policy in sync;
+    // the concurrent map lets scans run without it
+    private final Map<K, CacheEntry<V>> cacheEntryMap = new ConcurrentHashMap<>();
     private final EvictionPolicy<K> evictionPolicy;
     private final int capacity;
+    private final ReferenceStrength valueStrength;
+    private final ReferenceQueue<V> referenceQueue = new ReferenceQueue<>();
+    // tag -> keys, updated under the lock alongside cacheEntryMap, readable without it
+    private final Map<String, Set<K>> tagIndex = new ConcurrentHashMap<>();
+    private final List<RemovalListener<K, V>> removalListeners = new CopyOnWriteArrayList<>();
+    private volatile MemoryPressureMonitor memoryPressureMonitor;
+    private volatile HotKeyProfiler<K> hotKeyProfiler;
     ReentrantLock lock = new ReentrantLock();
 
     public InMemoryCache(EvictionPolicy<K> evictionPolicy, int capacity) {
+        this(evictionPolicy, capacity, ReferenceStrength.STRONG);
+    }
+
+    public InMemoryCache(EvictionPolicy<K> evictionPolicy, int capacity, ReferenceStrength valueStrength) {
         this.evictionPolicy = evictionPolicy;
         this.capacity = capacity;
+        this.valueStrength = valueStrength;
     }
 
+    /**
+     * Shrinks the effective capacity while the monitor reports heap pressure.
+     * Excess entries are evicted on the next put.
+     */
+    public void setMemoryPressureMonitor(MemoryPressureMonitor memoryPressureMonitor) {
+        this.memoryPressureMonitor = memoryPressureMonitor;
+    }
+
+    /**
+     * Samples get/put keys into the profiler before the lock is taken, so a key hammering
+     * the lock shows up even while threads are queueing on it.
+     */
+    public void setHotKeyProfiler(HotKeyProfiler<K> hotKeyProfiler) {
+        this.hotKeyProfiler = hotKeyProfiler;
+    }
+
+    public void addRemovalListener(RemovalListener<K, V> listener) {
+        removalListeners.add(listener);
+    }
+
+    public void removeRemovalListener(RemovalListener<K, V> listener) {
+        removalListeners.remove(listener);
+    }
 
     @Override
     public V get(K key) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
         lock.lock();
 
         try {
-            CacheEntry<V> cacheEntry = cacheEntryMap.get(key);
-            if (cacheEntry==null || cacheEntry.isExpired()) {
-                cacheEntryMap.remove(key);
-                return null;
-            }
-            evictionPolicy.keyAccessed(key);
-            return cacheEntry.getValue();
+            V value = liveValue(key);
+            if (value != null) evictionPolicy.keyAccessed(key);
+            return value;
         }finally {
             lock.unlock();
         }
@@ -40,37 +96,352 @@ public class InMemoryCache<K, V> implements Cache<K, V> {
 
     @Override
     public void put(K key, V value) {
+        put(key, value, (String[]) null);
+    }
+
+    @Override
+    public void put(K key, V value, String... tags) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
         lock.lock();
         try {
-            if (cacheEntryMap.size() >= capacity) {
-                K evict = evictionPolicy.evictKey();
-                if (evict != null) cacheEntryMap.remove(evict);
-            }
-            cacheEntryMap.put(key, new CacheEntry<>(value, LocalDateTime.now().plusMinutes(1)));
-            evictionPolicy.keyAccessed(key);
+            drainReferenceQueue();
+            store(key, value, tags);
         }finally {
             lock.unlock();
         }
 
     }
 
+    /*
+     * Atomic overrides of the Cache defaults: each runs as one operation under the lock with the
+     * same eviction and expiry bookkeeping as put. Mapping functions run while the lock is held,
+     * so they must be quick.
+     */
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            if (current != null) {
+                evictionPolicy.keyAccessed(key);
+                return current;
+            }
+            store(key, value, null);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            if (current != null) store(key, value, currentTags(key));
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            if (current == null || !current.equals(oldValue)) return false;
+            store(key, newValue, currentTags(key));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            if (current != null) {
+                evictionPolicy.keyAccessed(key);
+                return current;
+            }
+            V value = mappingFunction.apply(key);
+            if (value != null) store(key, value, null);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            if (current == null) return null;
+            return applyRemapping(key, remappingFunction.apply(key, current));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            return applyRemapping(key, remappingFunction.apply(key, current));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, NULL_KEY);
+        profile(key);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            V current = liveValue(key);
+            return applyRemapping(key, current == null ? value : remappingFunction.apply(current, value));
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void remove(K key) {
+        Objects.requireNonNull(key, NULL_KEY);
+        lock.lock();
+        try {
+            drainReferenceQueue();
+            removeEntry(key, RemovalCause.EXPLICIT);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int invalidateTag(String tag) {
         lock.lock();
         try {
-            cacheEntryMap.remove(key);
+            Set<K> keys = tagIndex.remove(tag);
+            if (keys == null) return 0;
+            int removed = 0;
+            for (K key : keys) {
+                // Expired and collected entries go with their own cause and are not counted
+                if (liveValue(key) != null) {
+                    removeEntry(key, RemovalCause.EXPLICIT);
+                    removed++;
+                }
+            }
+            return removed;
         } finally {
             lock.unlock();
         }
     }
 
+    @Override
+    public Set<K> keysForTag(String tag) {
+        Set<K> keys = tagIndex.get(tag);
+        return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
     @Override
     public int size() {
         lock.lock();
         try {
+            drainReferenceQueue();
             return cacheEntryMap.size();
         } finally {
             lock.unlock();
         }
     }
+
+    /**
+     * Scans the backing map directly without taking the lock and without touching the eviction policy.
+     */
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return new LiveEntrySpliterator<>(cacheEntryMap.entrySet().spliterator());
+    }
+
+    // Returns the live value, purging the entry if it expired or was collected. Must be called with the lock held
+    private V liveValue(K key) {
+        CacheEntry<V> cacheEntry = cacheEntryMap.get(key);
+        if (cacheEntry == null) return null;
+        V value = cacheEntry.getValue();
+        if (value == null || cacheEntry.isExpired()) {
+            removeEntry(key, value == null ? RemovalCause.COLLECTED : RemovalCause.EXPIRED);
+            return null;
+        }
+        return value;
+    }
+
+    // Inserts or overwrites an entry with a fresh expiry, evicting first if needed. Must be called with the lock held
+    private void store(K key, V value, String[] tags) {
+        if (!cacheEntryMap.containsKey(key)) {
+            int limit = effectiveCapacity();
+            while (cacheEntryMap.size() >= limit) {
+                K evict = evictionPolicy.evictKey();
+                if (evict == null) break;
+                CacheEntry<V> evicted = cacheEntryMap.remove(evict);
+                if (evicted != null) detach(evict, evicted, RemovalCause.EVICTED);
+            }
+        }
+        CacheEntry<V> entry = newEntry(key, value);
+        if (tags != null && tags.length > 0) entry.setTags(tags.clone());
+        CacheEntry<V> replaced = cacheEntryMap.put(key, entry);
+        if (replaced != null) unindexTags(key, replaced);
+        indexTags(key, entry);
+        evictionPolicy.keyAccessed(key);
+    }
+
+    // Stores the remapped value, or removes the key when it is null. Must be called with the lock held
+    private V applyRemapping(K key, V newValue) {
+        if (newValue == null) {
+            removeEntry(key, RemovalCause.EXPLICIT);
+        } else {
+            store(key, newValue, currentTags(key));
+        }
+        return newValue;
+    }
+
+    private String[] currentTags(K key) {
+        CacheEntry<V> entry = cacheEntryMap.get(key);
+        return entry == null ? null : entry.getTags();
+    }
+
+    private CacheEntry<V> newEntry(K key, V value) {
+        LocalDateTime expires = LocalDateTime.now().plusMinutes(1);
+        if (valueStrength == ReferenceStrength.STRONG || value == null) {
+            return new CacheEntry<>(value, expires);
+        }
+        return new ReferenceCacheEntry<>(key, value, expires, valueStrength, referenceQueue);
+    }
+
+    private void profile(K key) {
+        HotKeyProfiler<K> profiler = hotKeyProfiler;
+        if (profiler != null) profiler.record(key);
+    }
+
+    private int effectiveCapacity() {
+        MemoryPressureMonitor monitor = memoryPressureMonitor;
+        return monitor == null ? capacity : monitor.effectiveCapacity(capacity);
+    }
+
+    // Must be called with the lock held
+    private void removeEntry(K key, RemovalCause cause) {
+        CacheEntry<V> removed = cacheEntryMap.remove(key);
+        if (removed != null) {
+            evictionPolicy.removeKey(key);
+            detach(key, removed, cause);
+        }
+    }
+
+    // Cleans up after an entry left the map. Must be called with the lock held
+    private void detach(K key, CacheEntry<V> entry, RemovalCause cause) {
+        unindexTags(key, entry);
+        for (RemovalListener<K, V> listener : removalListeners) {
+            listener.onRemoval(key, entry.getValue(), cause);
+        }
+    }
+
+    private void indexTags(K key, CacheEntry<V> entry) {
+        if (entry.getTags() == null) return;
+        for (String tag : entry.getTags()) {
+            tagIndex.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindexTags(K key, CacheEntry<V> entry) {
+        if (entry.getTags() == null) return;
+        for (String tag : entry.getTags()) {
+            Set<K> keys = tagIndex.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                tagIndex.remove(tag);
+            }
+        }
+    }
+
+    // Purges entries whose soft/weak value has been collected. Must be called with the lock held
+    @SuppressWarnings("unchecked")
+    private void drainReferenceQueue() {
+        Reference<? extends V> reference;
+        while ((reference = referenceQueue.poll()) != null) {
+            ReferenceCacheEntry.ValueReference<K> valueReference = (ReferenceCacheEntry.ValueReference<K>) reference;
+            K key = valueReference.getKey();
+            // The key or the entry's value may have been overwritten since, only purge for the current value
+            if (valueReference.isCurrent() && cacheEntryMap.get(key) == valueReference.getEntry()) {
+                removeEntry(key, RemovalCause.COLLECTED);
+            }
+        }
+    }
+
+    /**
+     * Wraps the map's concurrent spliterator, skipping expired and collected entries and
+     * exposing immutable key/value snapshots.
+     */
+    private static class LiveEntrySpliterator<K, V> implements Spliterator<Map.Entry<K, V>> {
+        private final Spliterator<Map.Entry<K, CacheEntry<V>>> source;
+
+        LiveEntrySpliterator(Spliterator<Map.Entry<K, CacheEntry<V>>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            boolean[] found = new boolean[1];
+            while (!found[0] && source.tryAdvance(e -> {
+                CacheEntry<V> cacheEntry = e.getValue();
+                V value = cacheEntry.getValue();
+                if (value != null && !cacheEntry.isExpired()) {
+                    action.accept(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), value));
+                    found[0] = true;
+                }
+            })) {
+                // keep advancing past dead entries
+            }
+            return found[0];
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            Spliterator<Map.Entry<K, CacheEntry<V>>> split = source.trySplit();
+            return split == null ? null : new LiveEntrySpliterator<>(split);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | DISTINCT | NONNULL;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.rcpky.service;
+
+import com.rcpky.interfaces.Cache;
+import com.rcpky.interfaces.CacheLoader;
+import com.rcpky.interfaces.NegativeLookupGuard;
+
+import java.util.Map;
+import java.util.Spliterator;
+
+/**
+ * Read-through decorator: misses are loaded from the backing store and cached.
+ * An optional NegativeLookupGuard is consulted before the loader runs so lookups for keys
+ * that do not exist in the store never reach it.
+ */
+public class ReadThroughCache<K, V> implements Cache<K, V> {
+    private final Cache<K, V> cache;
+    private final CacheLoader<K, V> loader;
+    private final NegativeLookupGuard<K> guard;
+
+    public ReadThroughCache(Cache<K, V> cache, CacheLoader<K, V> loader) {
+        this(cache, loader, null);
+    }
+
+    public ReadThroughCache(Cache<K, V> cache, CacheLoader<K, V> loader, NegativeLookupGuard<K> guard) {
+        this.cache = cache;
+        this.loader = loader;
+        this.guard = guard;
+    }
+
+    @Override
+    public V get(K key) {
+        V value = cache.get(key);
+        if (value != null) return value;
+        if (guard != null && !guard.mightExist(key)) return null;
+
+        value = loader.load(key);
+        if (value == null) {
+            if (guard != null) guard.recordAbsent(key);
+            return null;
+        }
+        cache.put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+        if (guard != null) guard.recordPresent(key);
+    }
+
+    @Override
+    public void remove(K key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return cache.spliterator();
+    }
+}
@@ -0,0 +1,492 @@
+package com.rcpky.service;
+
+import com.rcpky.interfaces.Cache;
+import com.rcpky.interfaces.Serializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Cache whose table lives in a memory-mapped file (e.g. under /dev/shm), so several JVMs on the
+ * same host share one copy of the data.
+ *
+ * Layout: a 64-byte header followed by slotCount fixed-size slots forming an open-addressing
+ * table with linear probing. Each slot holds a sequence number, hash, lengths, expiry and the
+ * serialized key and value back to back; key + value must fit in slotSize - 32 bytes.
+ *
+ * Concurrency:
+ * - Writers (any thread in any process) serialize on a CAS spin lock in the header. The lock
+ *   word holds the owner's pid, so a lock left behind by a crashed process is reclaimed. The
+ *   crashed writer may have stopped halfway through a slot write, a backward shift or a size
+ *   update, so the process that reclaims the lock rebuilds the table from its intact entries.
+ * - Readers never lock. Every slot is a seqlock: writers make the sequence odd before touching
+ *   the slot and even afterwards, readers copy the slot and retry if the sequence moved.
+ * - Deletes use backward-shift instead of tombstones, so probe chains stay short; a reader racing
+ *   with a shift can see a transient miss, which is acceptable for a cache.
+ * When the table holds maxEntries entries the writer evicts the next occupied slot after a
+ * clock hand stored in the header (approximately FIFO).
+ */
+public class SharedMemoryCache<K, V> implements Cache<K, V>, AutoCloseable {
+    private static final int MAGIC = 0x53484d43; // "SHMC"
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_SLOT_COUNT = 4;
+    private static final int H_SLOT_SIZE = 8;
+    private static final int H_LOCK = 16;
+    private static final int H_SIZE = 24;
+    private static final int H_CLOCK = 32;
+
+    private static final int SLOT_HEADER = 32;
+    private static final int S_SEQ = 0;
+    private static final int S_STATE = 8;
+    private static final int S_HASH = 12;
+    private static final int S_KEY_LENGTH = 16;
+    private static final int S_VALUE_LENGTH = 20;
+    private static final int S_EXPIRES = 24;
+
+    private static final int EMPTY = 0;
+    private static final int FULL = 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final long PID = ProcessHandle.current().pid();
+    private static final int READ_RETRIES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int slotCount;
+    private final int slotSize;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    /**
+     * Opens the shared table at file, creating it if this is the first process to do so.
+     * Every process must pass the same slotCount and slotSize.
+     */
+    public SharedMemoryCache(Path file, int slotCount, int slotSize, Serializer<K> keySerializer,
+                             Serializer<V> valueSerializer, Duration ttl) {
+        if (slotCount <= 0) throw new IllegalArgumentException("slotCount must be positive");
+        if (slotSize <= SLOT_HEADER || slotSize % Long.BYTES != 0) {
+            throw new IllegalArgumentException("slotSize must be a multiple of 8 larger than " + SLOT_HEADER);
+        }
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.maxEntries = Math.max(1, (int) (slotCount * 0.75));
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.ttlMillis = ttl.toMillis();
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long length = HEADER_SIZE + (long) slotCount * slotSize;
+            if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Table larger than 2 GB");
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            this.buffer.order(ByteOrder.nativeOrder());
+            initializeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map shared cache file " + file, e);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        if (keyBytes.length > slotSize - SLOT_HEADER) return null;
+        int hash = hash(keyBytes);
+        for (int attempt = 0; attempt < READ_RETRIES; attempt++) {
+            int result = probe(keyBytes, hash);
+            if (result == MISS) return null;
+            if (result == RETRY) continue;
+            byte[] value = readValue(result, keyBytes, hash);
+            if (value == RETRY_VALUE) continue;
+            return value == null ? null : valueSerializer.deserialize(value);
+        }
+        // Constant writer churn on this key, fall back to reading under the writer lock
+        lockWriter();
+        try {
+            int slot = findSlot(keyBytes, hash);
+            if (slot < 0) return null;
+            byte[] value = readValue(slot, keyBytes, hash);
+            return value == null || value == RETRY_VALUE ? null : valueSerializer.deserialize(value);
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        byte[] valueBytes = valueSerializer.serialize(value);
+        if (keyBytes.length + valueBytes.length > slotSize - SLOT_HEADER) {
+            throw new IllegalArgumentException("Entry of " + (keyBytes.length + valueBytes.length)
+                    + " bytes does not fit in a " + slotSize + "-byte slot");
+        }
+        int hash = hash(keyBytes);
+        lockWriter();
+        try {
+            int slot = findSlot(keyBytes, hash);
+            if (slot < 0) {
+                if (size() >= maxEntries) evictOne();
+                slot = findEmptySlot(hash);
+                INTS.setVolatile(buffer, H_SIZE, (int) INTS.getVolatile(buffer, H_SIZE) + 1);
+            }
+            writeSlot(slot, hash, keyBytes, valueBytes, System.currentTimeMillis() + ttlMillis);
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        if (keyBytes.length > slotSize - SLOT_HEADER) return;
+        int hash = hash(keyBytes);
+        lockWriter();
+        try {
+            int slot = findSlot(keyBytes, hash);
+            if (slot >= 0) delete(slot);
+        } finally {
+            unlockWriter();
+        }
+    }
+
+    /**
+     * Number of occupied slots across all processes, including entries that expired but were not yet evicted.
+     */
+    @Override
+    public int size() {
+        return (int) INTS.getVolatile(buffer, H_SIZE);
+    }
+
+    /**
+     * Slot-by-slot scan; each entry is a consistent snapshot but the scan as a whole is weakly consistent.
+     */
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return new Spliterators.AbstractSpliterator<>(slotCount, Spliterator.CONCURRENT | Spliterator.NONNULL) {
+            private int slot;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+                while (slot < slotCount) {
+                    byte[][] entry = readEntry(slot++);
+                    if (entry != null) {
+                        action.accept(new AbstractMap.SimpleImmutableEntry<>(
+                                keySerializer.deserialize(entry[0]), valueSerializer.deserialize(entry[1])));
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ---- header and writer lock ----
+
+    private void initializeHeader() throws IOException {
+        // The file lock only guards one-time initialization against other processes opening the table concurrently
+        FileLock lock = channel.lock();
+        try {
+            if (buffer.getInt(H_MAGIC) == MAGIC) {
+                if (buffer.getInt(H_SLOT_COUNT) != slotCount || buffer.getInt(H_SLOT_SIZE) != slotSize) {
+                    throw new IllegalStateException("Shared cache file was created with slotCount="
+                            + buffer.getInt(H_SLOT_COUNT) + ", slotSize=" + buffer.getInt(H_SLOT_SIZE));
+                }
+                return;
+            }
+            buffer.putInt(H_SLOT_COUNT, slotCount);
+            buffer.putInt(H_SLOT_SIZE, slotSize);
+            LONGS.setVolatile(buffer, H_LOCK, 0L);
+            INTS.setVolatile(buffer, H_SIZE, 0);
+            INTS.setVolatile(buffer, H_CLOCK, 0);
+            INTS.setVolatile(buffer, H_MAGIC, MAGIC);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private void lockWriter() {
+        int spins = 0;
+        while (true) {
+            long owner = (long) LONGS.getVolatile(buffer, H_LOCK);
+            if (owner == 0) {
+                if (LONGS.compareAndSet(buffer, H_LOCK, 0L, PID)) return;
+            } else if (++spins % 100_000 == 0 && owner != PID && !ProcessHandle.of(owner).map(ProcessHandle::isAlive).orElse(false)) {
+                // The owning process died while holding the lock, take it over and undo whatever it left half done
+                if (LONGS.compareAndSet(buffer, H_LOCK, owner, PID)) {
+                    repairTable();
+                    return;
+                }
+            } else {
+                Thread.onSpinWait();
+                if (spins % 1_000 == 0) Thread.yield();
+            }
+        }
+    }
+
+    private void unlockWriter() {
+        LONGS.setVolatile(buffer, H_LOCK, 0L);
+    }
+
+    /**
+     * Rebuilds the table after a writer died holding the lock: keeps one copy of every intact entry,
+     * drops slots it left mid-write or with a hash that does not match the key, re-inserts the
+     * survivors along fresh probe chains and recounts the size. Readers may miss entries meanwhile.
+     */
+    private void repairTable() {
+        List<byte[][]> entries = new ArrayList<>();
+        List<Long> expiries = new ArrayList<>();
+        Set<ByteBuffer> seen = new HashSet<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = slotOffset(slot);
+            long seq = (long) LONGS.getVolatile(buffer, offset + S_SEQ);
+            if ((seq & 1) != 0 || buffer.getInt(offset + S_STATE) != FULL) continue;
+            int keyLength = buffer.getInt(offset + S_KEY_LENGTH);
+            int valueLength = buffer.getInt(offset + S_VALUE_LENGTH);
+            if (keyLength < 0 || valueLength < 0 || keyLength + valueLength > slotSize - SLOT_HEADER) continue;
+            byte[] keyBytes = new byte[keyLength];
+            byte[] valueBytes = new byte[valueLength];
+            buffer.get(offset + SLOT_HEADER, keyBytes);
+            buffer.get(offset + SLOT_HEADER + keyLength, valueBytes);
+            // An interrupted backward shift leaves the moved entry in two slots
+            if (hash(keyBytes) != buffer.getInt(offset + S_HASH) || !seen.add(ByteBuffer.wrap(keyBytes))) continue;
+            entries.add(new byte[][]{keyBytes, valueBytes});
+            expiries.add(buffer.getLong(offset + S_EXPIRES));
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = slotOffset(slot);
+            if (buffer.getInt(offset + S_STATE) != EMPTY || ((long) LONGS.getVolatile(buffer, offset + S_SEQ) & 1) != 0) {
+                clearSlot(slot);
+            }
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            byte[] keyBytes = entries.get(i)[0];
+            int hash = hash(keyBytes);
+            writeSlot(findEmptySlot(hash), hash, keyBytes, entries.get(i)[1], expiries.get(i));
+        }
+        INTS.setVolatile(buffer, H_SIZE, entries.size());
+    }
+
+    // ---- lock-free read path ----
+
+    private static final int MISS = -1;
+    private static final int RETRY = -2;
+    private static final byte[] RETRY_VALUE = new byte[0];
+
+    // Returns the slot holding the key, MISS, or RETRY if a concurrent write was observed
+    private int probe(byte[] keyBytes, int hash) {
+        int slot = index(hash);
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(slot);
+            long seq = (long) LONGS.getAcquire(buffer, offset + S_SEQ);
+            if ((seq & 1) != 0) return RETRY;
+            int state = buffer.getInt(offset + S_STATE);
+            boolean match = state == FULL && buffer.getInt(offset + S_HASH) == hash && keyEquals(offset, keyBytes);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getOpaque(buffer, offset + S_SEQ) != seq) return RETRY;
+            if (state == EMPTY) return MISS;
+            if (match) return slot;
+            slot = next(slot);
+        }
+        return MISS;
+    }
+
+    // Returns the value bytes, null if the entry expired, or RETRY_VALUE if the slot changed underneath
+    private byte[] readValue(int slot, byte[] keyBytes, int hash) {
+        int offset = slotOffset(slot);
+        long seq = (long) LONGS.getAcquire(buffer, offset + S_SEQ);
+        if ((seq & 1) != 0) return RETRY_VALUE;
+        boolean valid = buffer.getInt(offset + S_STATE) == FULL && buffer.getInt(offset + S_HASH) == hash
+                && keyEquals(offset, keyBytes);
+        long expires = buffer.getLong(offset + S_EXPIRES);
+        int valueLength = buffer.getInt(offset + S_VALUE_LENGTH);
+        byte[] value = null;
+        if (valid && valueLength >= 0 && keyBytes.length + valueLength <= slotSize - SLOT_HEADER) {
+            value = new byte[valueLength];
+            buffer.get(offset + SLOT_HEADER + keyBytes.length, value);
+        }
+        VarHandle.loadLoadFence();
+        if ((long) LONGS.getOpaque(buffer, offset + S_SEQ) != seq || !valid) return RETRY_VALUE;
+        if (value == null || expires <= System.currentTimeMillis()) return null;
+        return value;
+    }
+
+    // Consistent {key, value} snapshot of a live slot, or null
+    private byte[][] readEntry(int slot) {
+        int offset = slotOffset(slot);
+        for (int attempt = 0; attempt < READ_RETRIES; attempt++) {
+            long seq = (long) LONGS.getAcquire(buffer, offset + S_SEQ);
+            if ((seq & 1) != 0) continue;
+            int state = buffer.getInt(offset + S_STATE);
+            int keyLength = buffer.getInt(offset + S_KEY_LENGTH);
+            int valueLength = buffer.getInt(offset + S_VALUE_LENGTH);
+            long expires = buffer.getLong(offset + S_EXPIRES);
+            byte[][] entry = null;
+            if (state == FULL && keyLength >= 0 && valueLength >= 0 && keyLength + valueLength <= slotSize - SLOT_HEADER) {
+                entry = new byte[][]{new byte[keyLength], new byte[valueLength]};
+                buffer.get(offset + SLOT_HEADER, entry[0]);
+                buffer.get(offset + SLOT_HEADER + keyLength, entry[1]);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getOpaque(buffer, offset + S_SEQ) != seq) continue;
+            return entry == null || expires <= System.currentTimeMillis() ? null : entry;
+        }
+        return null;
+    }
+
+    private boolean keyEquals(int offset, byte[] keyBytes) {
+        if (buffer.getInt(offset + S_KEY_LENGTH) != keyBytes.length) return false;
+        int base = offset + SLOT_HEADER;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (buffer.get(base + i) != keyBytes[i]) return false;
+        }
+        return true;
+    }
+
+    // ---- write path, writer lock held ----
+
+    private int findSlot(byte[] keyBytes, int hash) {
+        int slot = index(hash);
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(slot);
+            int state = buffer.getInt(offset + S_STATE);
+            if (state == EMPTY) return -1;
+            if (buffer.getInt(offset + S_HASH) == hash && keyEquals(offset, keyBytes)) return slot;
+            slot = next(slot);
+        }
+        return -1;
+    }
+
+    private int findEmptySlot(int hash) {
+        int slot = index(hash);
+        while (buffer.getInt(slotOffset(slot) + S_STATE) != EMPTY) slot = next(slot);
+        return slot;
+    }
+
+    private void writeSlot(int slot, int hash, byte[] keyBytes, byte[] valueBytes, long expires) {
+        int offset = slotOffset(slot);
+        long seq = beginWrite(offset);
+        buffer.putInt(offset + S_STATE, FULL);
+        buffer.putInt(offset + S_HASH, hash);
+        buffer.putInt(offset + S_KEY_LENGTH, keyBytes.length);
+        buffer.putInt(offset + S_VALUE_LENGTH, valueBytes.length);
+        buffer.putLong(offset + S_EXPIRES, expires);
+        buffer.put(offset + SLOT_HEADER, keyBytes);
+        buffer.put(offset + SLOT_HEADER + keyBytes.length, valueBytes);
+        endWrite(offset, seq);
+    }
+
+    private void copySlot(int from, int to) {
+        int fromOffset = slotOffset(from);
+        int toOffset = slotOffset(to);
+        long seq = beginWrite(toOffset);
+        byte[] data = new byte[slotSize - S_STATE];
+        buffer.get(fromOffset + S_STATE, data);
+        buffer.put(toOffset + S_STATE, data);
+        endWrite(toOffset, seq);
+    }
+
+    private void clearSlot(int slot) {
+        int offset = slotOffset(slot);
+        long seq = beginWrite(offset);
+        buffer.putInt(offset + S_STATE, EMPTY);
+        endWrite(offset, seq);
+    }
+
+    // Clears the low bit first: a writer that died mid-write leaves the sequence odd, and adding one
+    // to it would make the slot look stable while it is being written and odd forever after
+    private long beginWrite(int offset) {
+        long seq = (long) LONGS.getVolatile(buffer, offset + S_SEQ) & ~1L;
+        LONGS.setOpaque(buffer, offset + S_SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        return seq;
+    }
+
+    private void endWrite(int offset, long seq) {
+        LONGS.setRelease(buffer, offset + S_SEQ, seq + 2);
+    }
+
+    // Backward-shift deletion: pull later members of the probe chain into the hole so no tombstones are needed
+    private void delete(int slot) {
+        int hole = slot;
+        int current = next(slot);
+        while (buffer.getInt(slotOffset(current) + S_STATE) != EMPTY) {
+            int home = index(buffer.getInt(slotOffset(current) + S_HASH));
+            // Move the entry if its home position is not cyclically within (hole, current]
+            boolean movable = hole <= current ? (home <= hole || home > current) : (home <= hole && home > current);
+            if (movable) {
+                copySlot(current, hole);
+                hole = current;
+            }
+            current = next(current);
+        }
+        clearSlot(hole);
+        INTS.setVolatile(buffer, H_SIZE, (int) INTS.getVolatile(buffer, H_SIZE) - 1);
+    }
+
+    private void evictOne() {
+        int slot = (int) INTS.getVolatile(buffer, H_CLOCK);
+        for (int i = 0; i < slotCount; i++) {
+            if (buffer.getInt(slotOffset(slot) + S_STATE) == FULL) {
+                INTS.setVolatile(buffer, H_CLOCK, next(slot));
+                delete(slot);
+                return;
+            }
+            slot = next(slot);
+        }
+    }
+
+    // ---- hashing ----
+
+    private int index(int hash) {
+        return Math.floorMod(hash, slotCount);
+    }
+
+    private int next(int slot) {
+        return slot + 1 == slotCount ? 0 : slot + 1;
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    // FNV-1a over the serialized key so every process computes the same hash regardless of hashCode()
+    private static int hash(byte[] bytes) {
+        int h = 0x811c9dc5;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,262 @@
+package com.rcpky.service;
+
+import com.rcpky.interfaces.Cache;
+import com.rcpky.interfaces.CacheWriter;
+import com.rcpky.interfaces.RemovalListener;
+import com.rcpky.model.RemovalCause;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind decorator around InMemoryCache.
+ * Writes and removals are applied to the cache immediately and recorded as dirty; repeated
+ * writes to the same key are coalesced so only the latest state reaches the store. Dirty
+ * entries are flushed in batches once batchSize keys are pending or every flushInterval,
+ * dirty keys are flushed as soon as the cache evicts them, and close() flushes whatever is left.
+ * Each write updates the cache and its dirty record in one per-key step, so a flush never sees
+ * a dirty state older than the cached value. Closing waits for writes already past the closed
+ * check before the final flush, so every accepted write reaches the store. Flush failures are
+ * retried on the next flush and counted in failedFlushes(). Create instances with create(),
+ * which also starts the background flusher.
+ */
+public class WriteBehindCache<K, V> implements Cache<K, V>, AutoCloseable {
+    private final InMemoryCache<K, V> cache;
+    private final CacheWriter<K, V> writer;
+    private final int batchSize;
+    private final Map<K, PendingWrite<V>> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final RemovalListener<K, V> evictionFlusher = this::onRemoval;
+    // Dirty keys the cache evicted, handed to the flusher once the operation that evicted them is done
+    private final Queue<K> evicted = new ConcurrentLinkedQueue<>();
+    // Serializes flushes so a key is never written by two batches out of order
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Writers between announcing themselves and recording their dirty state
+    private final AtomicInteger writing = new AtomicInteger();
+    private final LongAdder failedFlushes = new LongAdder();
+    private volatile boolean closed;
+
+    private WriteBehindCache(InMemoryCache<K, V> cache, CacheWriter<K, V> writer, int batchSize) {
+        this.cache = cache;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "write-behind-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Wraps the cache and starts flushing to the writer every flushInterval.
+     */
+    public static <K, V> WriteBehindCache<K, V> create(InMemoryCache<K, V> cache, CacheWriter<K, V> writer,
+                                                       int batchSize, Duration flushInterval) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        long intervalMillis = flushInterval.toMillis();
+        if (intervalMillis <= 0) throw new IllegalArgumentException("flushInterval must be at least a millisecond");
+        WriteBehindCache<K, V> writeBehind = new WriteBehindCache<>(cache, writer, batchSize);
+        writeBehind.flusher.scheduleWithFixedDelay(writeBehind::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        cache.addRemovalListener(writeBehind.evictionFlusher);
+        return writeBehind;
+    }
+
+    @Override
+    public V get(K key) {
+        // A read can expire an entry, which counts as leaving the cache
+        V value = cache.get(key);
+        flushEvicted();
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        writing.incrementAndGet();
+        try {
+            // Checked after announcing ourselves, so close() either sees us and waits or we see closed
+            ensureOpen();
+            dirty.compute(key, (k, pending) -> {
+                cache.put(k, value);
+                return new PendingWrite<>(value, false);
+            });
+        } finally {
+            writing.decrementAndGet();
+        }
+        afterWrite();
+    }
+
+    @Override
+    public void remove(K key) {
+        writing.incrementAndGet();
+        try {
+            ensureOpen();
+            dirty.compute(key, (k, pending) -> {
+                cache.remove(k);
+                return new PendingWrite<>(null, true);
+            });
+        } finally {
+            writing.decrementAndGet();
+        }
+        afterWrite();
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return cache.spliterator();
+    }
+
+    public int pendingWrites() {
+        return dirty.size();
+    }
+
+    /**
+     * Number of background flushes that failed; their entries stay dirty and are retried.
+     */
+    public long failedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * Synchronously writes every dirty entry to the backing store.
+     */
+    public void flush() {
+        flushKeys(new ArrayList<>(dirty.keySet()));
+    }
+
+    /**
+     * Stops accepting writes, waits for writes in progress, stops the background flusher and
+     * writes all remaining dirty entries.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        while (writing.get() > 0) LockSupport.parkNanos(50_000);
+        cache.removeRemovalListener(evictionFlusher);
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void afterWrite() {
+        flushEvicted();
+        if (dirty.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            submit(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void onRemoval(K key, V value, RemovalCause cause) {
+        // Explicit removals are already recorded as deletes, anything else leaving the
+        // cache while dirty must reach the store before a later miss reads stale data.
+        // This runs under the cache's lock, so only note the key here.
+        if (cause != RemovalCause.EXPLICIT && dirty.containsKey(key)) evicted.add(key);
+    }
+
+    private void flushEvicted() {
+        List<K> keys = new ArrayList<>();
+        for (K key; (key = evicted.poll()) != null; ) keys.add(key);
+        if (!keys.isEmpty()) submit(() -> flushKeysQuietly(keys));
+    }
+
+    private void submit(Runnable task) {
+        try {
+            flusher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Closing; close() flushes whatever is left
+        }
+    }
+
+    private void flushKeys(Collection<K> keys) {
+        synchronized (flushLock) {
+            Map<K, V> writes = new LinkedHashMap<>();
+            List<K> deletes = new ArrayList<>();
+            Map<K, PendingWrite<V>> taken = new LinkedHashMap<>();
+            for (K key : keys) {
+                PendingWrite<V> write = dirty.remove(key);
+                if (write == null) continue;
+                taken.put(key, write);
+                if (write.delete) deletes.add(key);
+                else writes.put(key, write.value);
+
+                if (taken.size() == batchSize) {
+                    writeBatch(writes, deletes, taken);
+                    writes.clear();
+                    deletes.clear();
+                    taken.clear();
+                }
+            }
+            if (!taken.isEmpty()) writeBatch(writes, deletes, taken);
+        }
+    }
+
+    private void writeBatch(Map<K, V> writes, List<K> deletes, Map<K, PendingWrite<V>> taken) {
+        try {
+            if (!writes.isEmpty()) writer.writeAll(writes);
+            if (!deletes.isEmpty()) writer.deleteAll(deletes);
+        } catch (RuntimeException e) {
+            // Re-queue the batch unless the key has been written again in the meantime
+            taken.forEach(dirty::putIfAbsent);
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The batch is dirty again and goes out with the next flush
+            failedFlushes.increment();
+        }
+    }
+
+    private void flushKeysQuietly(Collection<K> keys) {
+        try {
+            flushKeys(keys);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Write-behind cache is closed");
+    }
+
+    private static class PendingWrite<V> {
+        final V value;
+        final boolean delete;
+
+        PendingWrite(V value, boolean delete) {
+            this.value = value;
+            this.delete = delete;
+        }
+    }
+}
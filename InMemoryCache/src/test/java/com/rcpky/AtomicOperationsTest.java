@@ -0,0 +1,134 @@
+package com.rcpky;
+
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.interfaces.Cache;
+import com.rcpky.service.CounterCache;
+import com.rcpky.service.InMemoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtomicOperationsTest {
+
+    private Cache<String, Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryCache<>(new LRUEvictionPolicy<>(), 3);
+    }
+
+    @Test
+    @DisplayName("Should only insert when the key is absent")
+    void putIfAbsent() {
+        assertNull(cache.putIfAbsent("key1", 1));
+        assertEquals(Integer.valueOf(1), cache.putIfAbsent("key1", 2));
+        assertEquals(Integer.valueOf(1), cache.get("key1"));
+    }
+
+    @Test
+    @DisplayName("Should replace only matching or present values")
+    void replace() {
+        assertNull(cache.replace("key1", 1), "Absent key should not be inserted");
+        assertNull(cache.get("key1"));
+
+        cache.put("key1", 1);
+        assertFalse(cache.replace("key1", 2, 3));
+        assertTrue(cache.replace("key1", 1, 3));
+        assertEquals(Integer.valueOf(3), cache.replace("key1", 4));
+        assertEquals(Integer.valueOf(4), cache.get("key1"));
+    }
+
+    @Test
+    @DisplayName("Should compute, merge and remove on null results")
+    void computeAndMerge() {
+        assertEquals(Integer.valueOf(1), cache.compute("key1", (k, v) -> v == null ? 1 : v + 1));
+        assertEquals(Integer.valueOf(2), cache.compute("key1", (k, v) -> v == null ? 1 : v + 1));
+        assertEquals(Integer.valueOf(12), cache.merge("key1", 10, Integer::sum));
+        assertEquals(Integer.valueOf(5), cache.computeIfAbsent("key2", k -> 5));
+        assertNull(cache.computeIfPresent("key3", (k, v) -> v + 1), "Absent key should not be computed");
+
+        assertNull(cache.computeIfPresent("key1", (k, v) -> null));
+        assertNull(cache.get("key1"), "Null result should remove the key");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should evict through the policy when compute inserts at capacity")
+    void computeRespectsCapacity() {
+        cache.put("key1", 1);
+        cache.put("key2", 2);
+        cache.put("key3", 3);
+
+        cache.compute("key4", (k, v) -> 4);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("key1"), "LRU key should be evicted");
+    }
+
+    @Test
+    @DisplayName("Should not lose updates when merging concurrently")
+    void concurrentMerge() throws InterruptedException {
+        // Arrange
+        int numThreads = 8;
+        int increments = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        // Act
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < increments; j++) cache.merge("hits", 1, Integer::sum);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(Integer.valueOf(numThreads * increments), cache.get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should count concurrently and reset expired counters")
+    void counterCache() throws InterruptedException {
+        // Arrange
+        CounterCache<String> counters = new CounterCache<>(new LRUEvictionPolicy<>(), 2, Duration.ofMillis(200));
+        int numThreads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch latch = new CountDownLatch(numThreads);
+
+        // Act
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 1_000; j++) counters.incrementAndGet("client-1", 1);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(4_000, counters.get("client-1"));
+        Thread.sleep(250);
+        assertEquals(0, counters.get("client-1"), "Expired counter should read as zero");
+        assertEquals(5, counters.incrementAndGet("client-1", 5), "Expired counter should restart the window");
+
+        counters.incrementAndGet("client-2", 1);
+        counters.incrementAndGet("client-3", 1);
+        assertEquals(2, counters.size(), "Counter cache should stay within capacity");
+        assertEquals(0, counters.get("client-1"), "LRU counter should be evicted");
+    }
+}
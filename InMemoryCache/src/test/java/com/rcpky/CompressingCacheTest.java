@@ -0,0 +1,79 @@
+package com.rcpky;
+
+import com.rcpky.codec.DeflateCompressor;
+import com.rcpky.codec.LzCompressor;
+import com.rcpky.codec.StringSerializer;
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.interfaces.Compressor;
+import com.rcpky.service.CompressingCache;
+import com.rcpky.service.InMemoryCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressingCacheTest {
+
+    private static String json(int records) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < records; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"product-").append(i)
+              .append("\",\"category\":\"electronics\",\"inStock\":true,\"price\":").append(i * 3 % 1000).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    @Test
+    @DisplayName("Should round-trip values through both compressors")
+    void roundTrip() {
+        byte[] random = new byte[10_000];
+        new Random(42).nextBytes(random);
+        byte[][] inputs = {new byte[0], "a".getBytes(), "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa".getBytes(),
+                json(200).getBytes(), random, new byte[100_000]};
+
+        for (Compressor compressor : new Compressor[]{new LzCompressor(), new DeflateCompressor()}) {
+            for (byte[] input : inputs) {
+                byte[] compressed = compressor.compress(input);
+                assertArrayEquals(input, compressor.decompress(compressed, input.length),
+                        compressor.getClass().getSimpleName() + " should round-trip " + input.length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should compress large values and keep small ones raw")
+    void compressesAboveThreshold() {
+        // Arrange
+        CompressingCache<String, String> cache = new CompressingCache<>(
+                new InMemoryCache<>(new LRUEvictionPolicy<>(), 10), new StringSerializer(), new LzCompressor(), 256);
+        String large = json(500);
+
+        // Act
+        cache.put("small", "tiny");
+        cache.put("large", large);
+
+        // Assert
+        assertEquals("tiny", cache.get("small"));
+        assertEquals(large, cache.get("large"));
+        assertEquals(1, cache.compressedValues(), "Only the value above the threshold should be compressed");
+        assertTrue(cache.compressionRatio() < 0.5, "JSON should compress well but ratio was " + cache.compressionRatio());
+    }
+
+    @Test
+    @DisplayName("Should store incompressible values raw")
+    void incompressibleStaysRaw() {
+        // Arrange
+        CompressingCache<String, String> cache = new CompressingCache<>(
+                new InMemoryCache<>(new LRUEvictionPolicy<>(), 10), new StringSerializer(), new DeflateCompressor(), 1);
+
+        // Act
+        cache.put("key", "x");
+
+        // Assert
+        assertEquals("x", cache.get("key"));
+        assertEquals(0, cache.compressedValues(), "Values that do not shrink should be stored raw");
+    }
+}
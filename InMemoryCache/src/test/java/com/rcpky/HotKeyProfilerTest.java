@@ -0,0 +1,172 @@
+package com.rcpky;
+
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.metrics.HotKey;
+import com.rcpky.metrics.HotKeyProfiler;
+import com.rcpky.service.InMemoryCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyProfilerTest {
+
+    @Test
+    @DisplayName("Should report the hottest key first")
+    void detectsHotKey() {
+        // Arrange
+        InMemoryCache<String, String> cache = new InMemoryCache<>(new LRUEvictionPolicy<>(), 100);
+        HotKeyProfiler<String> profiler = new HotKeyProfiler<>(10, 1, 60_000, 6);
+        cache.setHotKeyProfiler(profiler);
+
+        // Act - one viral key among many cold ones
+        for (int i = 0; i < 10_000; i++) {
+            cache.get("viral");
+            cache.get("cold-" + i);
+        }
+
+        // Assert
+        List<HotKey<String>> top = profiler.topKeys(3);
+        assertEquals("viral", top.get(0).getKey(), "Viral key should be reported first");
+        assertTrue(top.get(0).getEstimatedCount() >= 10_000, "Space-Saving never underestimates");
+    }
+
+    @Test
+    @DisplayName("Should keep memory bounded and scale sampled counts")
+    void samplingKeepsEstimates() {
+        // Arrange
+        HotKeyProfiler<Integer> profiler = new HotKeyProfiler<>(5, 10, 60_000, 1);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            profiler.record(i % 2 == 0 ? -1 : i);
+        }
+
+        // Assert
+        List<HotKey<Integer>> top = profiler.topKeys(100);
+        assertTrue(top.size() <= 5, "Only k counters should be tracked");
+        assertEquals(Integer.valueOf(-1), top.get(0).getKey());
+        long estimate = top.get(0).getEstimatedCount();
+        assertTrue(estimate > 40_000 && estimate < 70_000, "Scaled estimate should be near 50,000 but was " + estimate);
+    }
+
+    @Test
+    @DisplayName("Should forget keys once they leave the sliding window")
+    void slidingWindowExpires() throws InterruptedException {
+        // Arrange
+        HotKeyProfiler<String> profiler = new HotKeyProfiler<>(5, 1, 100, 2);
+        profiler.record("old");
+
+        // Act
+        Thread.sleep(150);
+        profiler.record("new");
+
+        // Assert
+        List<HotKey<String>> top = profiler.topKeys(5);
+        assertEquals(1, top.size(), "Only keys inside the window should be reported");
+        assertEquals("new", top.get(0).getKey());
+    }
+
+    @Test
+    @DisplayName("Should expose hot keys over JMX")
+    void exposesMBean() throws Exception {
+        // Arrange
+        HotKeyProfiler<String> profiler = new HotKeyProfiler<>(5, 1, 60_000, 1);
+        profiler.record("key1");
+
+        // Act
+        ObjectName name = profiler.registerMBean("test-cache");
+
+        // Assert
+        String[] topKeys = (String[]) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TopKeys");
+        assertTrue(topKeys[0].startsWith("key1="), "MBean should list the hot key");
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    @Test
+    @DisplayName("Should hand a new key the smallest counter and its count as error")
+    void replacesSmallestCounter() {
+        // Arrange
+        HotKeyProfiler<String> profiler = new HotKeyProfiler<>(2, 1, 60_000, 1);
+
+        // Act - c takes over b's counter, then d takes over c's
+        for (String key : new String[]{"a", "a", "a", "a", "b", "c", "d"}) profiler.record(key);
+
+        // Assert
+        List<HotKey<String>> top = profiler.topKeys(5);
+        assertEquals(2, top.size(), "Only k counters should be tracked");
+        assertEquals("a", top.get(0).getKey());
+        assertEquals(4, top.get(0).getEstimatedCount());
+        assertEquals(0, top.get(0).getError(), "Tracked since its first hit");
+        assertEquals("d", top.get(1).getKey(), "New key should evict the least counted key");
+        assertEquals(3, top.get(1).getEstimatedCount(), "Inherited count plus its own hit");
+        assertEquals(2, top.get(1).getError());
+    }
+
+    @Test
+    @DisplayName("Should widen merged counts by what buckets that lack a key may have evicted")
+    void mergedBoundsCoverEvictedCounts() throws InterruptedException {
+        // Arrange - two one-second buckets of two counters each
+        HotKeyProfiler<String> profiler = new HotKeyProfiler<>(2, 1, 2_000, 2);
+        // First bucket ends up tracking a=3 and c=2 (1 inherited from the evicted b)
+        for (String key : new String[]{"a", "a", "a", "b", "c"}) profiler.record(key);
+        Thread.sleep(1_100);
+
+        // Act - b comes back in the second bucket, next to d
+        for (String key : new String[]{"b", "b", "b", "b", "b", "d"}) profiler.record(key);
+        List<HotKey<String>> top = profiler.topKeys(5);
+
+        // Assert - the true counts are a=3 and b=6
+        HotKey<String> a = top.stream().filter(h -> h.getKey().equals("a")).findFirst().orElseThrow();
+        HotKey<String> b = top.stream().filter(h -> h.getKey().equals("b")).findFirst().orElseThrow();
+        assertEquals(7, b.getEstimatedCount(), "b may also have been evicted from the first bucket at its smallest count");
+        assertEquals(2, b.getError());
+        assertEquals(4, a.getEstimatedCount());
+        assertEquals(1, a.getError());
+        for (HotKey<String> hotKey : List.of(a, b)) {
+            long trueCount = hotKey.getKey().equals("a") ? 3 : 6;
+            assertTrue(hotKey.getEstimatedCount() - hotKey.getError() <= trueCount && trueCount <= hotKey.getEstimatedCount(),
+                    hotKey + " should bound the true count " + trueCount);
+        }
+    }
+
+    @Test
+    @DisplayName("Should count every operation when many threads record at once")
+    void concurrentRecording() throws InterruptedException {
+        // Arrange
+        HotKeyProfiler<Integer> profiler = new HotKeyProfiler<>(16, 1, 60_000, 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) profiler.record(i % 4);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // Act
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        // Assert - with fewer keys than counters the sketches are exact
+        List<HotKey<Integer>> top = profiler.topKeys(10);
+        assertEquals(4, top.size());
+        for (HotKey<Integer> hotKey : top) {
+            assertEquals(20_000, hotKey.getEstimatedCount(), "Key " + hotKey.getKey() + " should lose no updates");
+            assertEquals(0, hotKey.getError());
+        }
+        assertEquals(80_000, profiler.getSampledOperations());
+    }
+}
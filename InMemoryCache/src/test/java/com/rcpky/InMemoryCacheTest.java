@@ -4,13 +4,22 @@ import com.rcpky.evictionpolicy.LRUEvictionPolicy;
 import com.rcpky.interfaces.Cache;
 import com.rcpky.interfaces.EvictionPolicy;
 import com.rcpky.model.CacheEntry;
+import com.rcpky.model.ReferenceCacheEntry;
+import com.rcpky.model.ReferenceStrength;
 import com.rcpky.service.InMemoryCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.mockito.Mockito;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -186,4 +195,196 @@ public class InMemoryCacheTest {
         
         // This test passes if no exception is thrown
     }
+
+    @Test
+    @DisplayName("Should not evict a live entry after a removed key was dropped from the policy")
+    void removeKeepsPolicyInSync() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+
+        // Act - remove the LRU key, then add two more entries
+        cache.remove("key1");
+        cache.put("key4", "value4");
+        cache.put("key5", "value5");
+
+        // Assert - key2 is now the LRU entry and the cache never exceeds capacity
+        assertEquals(CACHE_CAPACITY, cache.size(), "Cache should be at capacity");
+        assertNull(cache.get("key2"), "key2 should have been evicted");
+        assertEquals("value3", cache.get("key3"), "key3 should still be present");
+    }
+
+    @Test
+    @DisplayName("Should purge weakly held values once they are garbage collected")
+    void weakValuesArePurged() throws InterruptedException {
+        // Arrange
+        Cache<String, Object> weakCache = new InMemoryCache<>(new LRUEvictionPolicy<>(), 10, ReferenceStrength.WEAK);
+        Object retained = new Object();
+        weakCache.put("retained", retained);
+        weakCache.put("collectable", new Object());
+
+        // Act - the second value is only reachable through the cache
+        for (int i = 0; i < 50 && weakCache.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(1, weakCache.size(), "Collected entry should be purged from the cache");
+        assertNull(weakCache.get("collectable"), "Collected value should read as a miss");
+        assertSame(retained, weakCache.get("retained"), "Strongly reachable value should survive");
+    }
+
+    @Test
+    @DisplayName("Should replace a weakly held value without purging the entry for the old one")
+    void referenceEntrySetValue() throws InterruptedException {
+        // Arrange
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        ReferenceCacheEntry<String, Object> entry = new ReferenceCacheEntry<>("key1", new Object(),
+                LocalDateTime.now().plusMinutes(1), ReferenceStrength.WEAK, queue);
+        Object replacement = new Object();
+
+        // Act - the first value is now unreachable
+        entry.setValue(replacement);
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertSame(replacement, entry.getValue(), "New value should be held");
+        Reference<?> enqueued;
+        while ((enqueued = queue.poll()) != null) {
+            assertFalse(((ReferenceCacheEntry.ValueReference<?>) enqueued).isCurrent(), "Old value must not purge the entry");
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay within capacity with a policy that does not override removeKey")
+    void policyWithoutRemoveKey() {
+        // Arrange - a FIFO policy written against the two required methods only
+        EvictionPolicy<String> fifo = new EvictionPolicy<>() {
+            private final Queue<String> queue = new ArrayDeque<>();
+
+            @Override
+            public String evictKey() {
+                return queue.poll();
+            }
+
+            @Override
+            public void keyAccessed(String key) {
+                if (!queue.contains(key)) queue.add(key);
+            }
+        };
+        Cache<String, String> fifoCache = new InMemoryCache<>(fifo, CACHE_CAPACITY);
+        fifoCache.put("key1", "value1");
+        fifoCache.put("key2", "value2");
+        fifoCache.put("key3", "value3");
+
+        // Act - key1 stays queued in the policy after it is removed
+        fifoCache.remove("key1");
+        fifoCache.put("key4", "value4");
+        fifoCache.put("key5", "value5");
+
+        // Assert - the stale key1 is skipped and key2 is evicted in its place
+        assertEquals(CACHE_CAPACITY, fifoCache.size(), "Cache should be at capacity");
+        assertNull(fifoCache.get("key2"), "key2 should have been evicted");
+        assertEquals("value3", fifoCache.get("key3"));
+        assertEquals("value5", fifoCache.get("key5"));
+    }
+
+    @Test
+    @DisplayName("Should iterate over keys and entries")
+    void iterateKeysAndEntries() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Act
+        Set<String> keys = new HashSet<>();
+        cache.keys().forEach(keys::add);
+        Set<String> values = new HashSet<>();
+        for (Map.Entry<String, String> entry : cache.entries()) {
+            values.add(entry.getValue());
+        }
+
+        // Assert
+        assertEquals(Set.of("key1", "key2"), keys);
+        assertEquals(Set.of("value1", "value2"), values);
+    }
+
+    @Test
+    @DisplayName("Should reject null keys without touching the cache")
+    void nullKeysRejected() {
+        // Arrange
+        cache.put("key1", "value1");
+
+        // Act & Assert
+        assertThrows(NullPointerException.class, () -> cache.put(null, "value"));
+        assertThrows(NullPointerException.class, () -> cache.get(null));
+        assertThrows(NullPointerException.class, () -> cache.remove(null));
+        assertThrows(NullPointerException.class, () -> cache.computeIfAbsent(null, k -> "value"));
+        assertEquals(1, cache.size(), "Rejected calls should leave the cache as it was");
+        assertEquals("value1", cache.get("key1"));
+    }
+
+    @Test
+    @DisplayName("Should let a cache without scans implement only the basic operations")
+    void defaultSpliterator() {
+        // Arrange - written against get/put/remove/size only
+        Cache<String, String> minimal = new Cache<>() {
+            private String value;
+
+            @Override
+            public String get(String key) { return value; }
+
+            @Override
+            public void put(String key, String value) { this.value = value; }
+
+            @Override
+            public void remove(String key) { value = null; }
+
+            @Override
+            public int size() { return value == null ? 0 : 1; }
+        };
+
+        // Act
+        minimal.put("key1", "value1");
+
+        // Assert
+        assertEquals("value1", minimal.putIfAbsent("key1", "value2"), "Defaults built on get/put should work");
+        assertThrows(UnsupportedOperationException.class, () -> minimal.stream().count());
+    }
+
+    @Test
+    @DisplayName("Should allow writes while an iteration is in progress")
+    void weaklyConsistentIteration() {
+        // Arrange
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+
+        // Act & Assert - modifying the cache mid-scan must not throw
+        assertDoesNotThrow(() -> {
+            for (String key : cache.keys()) {
+                cache.remove(key);
+                cache.put(key + "-copy", "copy");
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should scan large caches in parallel")
+    void parallelStream() {
+        // Arrange
+        Cache<Integer, Integer> large = new InMemoryCache<>(new LRUEvictionPolicy<>(), 100_000);
+        for (int i = 0; i < 100_000; i++) large.put(i, i);
+
+        // Act
+        long sum = large.parallelStream().mapToLong(Map.Entry::getValue).sum();
+
+        // Assert
+        assertEquals(100_000L * 99_999 / 2, sum, "Parallel scan should visit every entry exactly once");
+        assertNotNull(large.spliterator().trySplit(), "Spliterator should be splittable");
+    }
 }
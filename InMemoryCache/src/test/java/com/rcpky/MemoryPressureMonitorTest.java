@@ -0,0 +1,125 @@
+package com.rcpky;
+
+import com.rcpky.memory.MemoryPressureMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.Notification;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryPressureMonitorTest {
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && pool.getUsage().getMax() > 0) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static Map<String, Long> thresholds() {
+        Map<String, Long> thresholds = new HashMap<>();
+        for (MemoryPoolMXBean pool : heapPools()) thresholds.put(pool.getName(), pool.getUsageThreshold());
+        return thresholds;
+    }
+
+    // What the JVM sends when a pool crosses its usage threshold
+    private static Notification thresholdExceeded(String poolName, long used, long max) throws OpenDataException {
+        String[] usageItems = {"committed", "init", "max", "used"};
+        CompositeType usageType = new CompositeType("java.lang.management.MemoryUsage", "usage", usageItems, usageItems,
+                new OpenType<?>[]{SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG});
+        CompositeData usage = new CompositeDataSupport(usageType, usageItems, new Object[]{max, 0L, max, used});
+        String[] infoItems = {"count", "poolName", "usage"};
+        CompositeType infoType = new CompositeType("java.lang.management.MemoryNotificationInfo", "info", infoItems, infoItems,
+                new OpenType<?>[]{SimpleType.LONG, SimpleType.STRING, usageType});
+        Notification notification = new Notification(MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED, "test", 1);
+        notification.setUserData(new CompositeDataSupport(infoType, infoItems, new Object[]{1L, poolName, usage}));
+        return notification;
+    }
+
+    @Test
+    @DisplayName("Should arm its own thresholds and put the previous ones back on close")
+    void restoresThresholdsOnClose() {
+        // Arrange
+        Map<String, Long> before = thresholds();
+
+        // Act
+        MemoryPressureMonitor monitor = new MemoryPressureMonitor(0.9, 0.5);
+        Map<String, Long> armed = thresholds();
+        monitor.close();
+
+        // Assert
+        for (MemoryPoolMXBean pool : heapPools()) {
+            assertEquals(Long.valueOf((long) (pool.getUsage().getMax() * 0.9)), armed.get(pool.getName()), pool.getName() + " should be armed at 90%");
+        }
+        assertEquals(before, thresholds(), "Closing should restore the thresholds it replaced");
+    }
+
+    @Test
+    @DisplayName("Should ignore threshold notifications that are not about its own thresholds")
+    void ignoresForeignNotifications() throws OpenDataException {
+        // Arrange
+        List<MemoryPoolMXBean> pools = heapPools();
+        if (pools.isEmpty()) return;
+        MemoryPoolMXBean pool = pools.get(0);
+        long max = pool.getUsage().getMax();
+        MemoryPressureMonitor monitor = new MemoryPressureMonitor(0.9, 0.5);
+        // A second party whose tiny thresholds the heap is always above
+        MemoryPressureMonitor other = new MemoryPressureMonitor(0.000001, 0.5);
+        try {
+            // Act & Assert
+            monitor.handleNotification(thresholdExceeded("Some Other Pool", max, max), null);
+            assertFalse(monitor.isUnderPressure(), "A pool the monitor did not arm should be ignored");
+            monitor.handleNotification(thresholdExceeded(pool.getName(), max / 2, max), null);
+            assertFalse(monitor.isUnderPressure(), "A crossing below the monitor's own threshold should be ignored");
+            monitor.handleNotification(new Notification("jmx.attribute.change", "test", 2), null);
+            assertFalse(monitor.isUnderPressure());
+        } finally {
+            other.close();
+            monitor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should check recovery against its own threshold when another monitor lowered it")
+    void recoversAgainstOwnThreshold() throws OpenDataException {
+        // Arrange
+        List<MemoryPoolMXBean> pools = heapPools();
+        if (pools.isEmpty()) return;
+        Map<String, Long> before = thresholds();
+        MemoryPoolMXBean pool = pools.get(0);
+        long max = pool.getUsage().getMax();
+        MemoryPressureMonitor monitor = new MemoryPressureMonitor(0.99, 0.5);
+        MemoryPressureMonitor other = new MemoryPressureMonitor(0.000001, 0.5);
+        try {
+            // Act - a crossing of our threshold, then usage back far below 99% but above the other one
+            monitor.handleNotification(thresholdExceeded(pool.getName(), max, max), null);
+            boolean pressure = monitor.isUnderPressure();
+
+            // Assert
+            assertFalse(pressure, "Recovery should be judged by this monitor's 99%, not the other monitor's threshold");
+            assertEquals(100, monitor.effectiveCapacity(100));
+        } finally {
+            other.close();
+            monitor.close();
+        }
+        assertEquals(before, thresholds(), "Closing both should restore the original thresholds");
+    }
+}
@@ -0,0 +1,123 @@
+package com.rcpky;
+
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.filter.BloomFilterGuard;
+import com.rcpky.filter.CountingBloomFilter;
+import com.rcpky.interfaces.Cache;
+import com.rcpky.service.InMemoryCache;
+import com.rcpky.service.ReadThroughCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadThroughCacheTest {
+
+    private Map<String, String> backend;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        backend = new HashMap<>();
+        backend.put("key1", "value1");
+        backend.put("key2", "value2");
+        loads = new AtomicInteger();
+    }
+
+    private Cache<String, String> readThrough(BloomFilterGuard<String> guard) {
+        return new ReadThroughCache<>(new InMemoryCache<>(new LRUEvictionPolicy<>(), 10), key -> {
+            loads.incrementAndGet();
+            return backend.get(key);
+        }, guard);
+    }
+
+    @Test
+    @DisplayName("Should load misses from the backing store once")
+    void loadsMisses() {
+        // Arrange
+        Cache<String, String> cache = readThrough(null);
+
+        // Act & Assert
+        assertEquals("value1", cache.get("key1"));
+        assertEquals("value1", cache.get("key1"));
+        assertEquals(1, loads.get(), "Second lookup should be served from the cache");
+    }
+
+    @Test
+    @DisplayName("Should skip the loader for keys missing from the Bloom filter")
+    void bloomFilterSkipsUnknownKeys() {
+        // Arrange - seed the filter with every backend key
+        BloomFilterGuard<String> guard = new BloomFilterGuard<>(1_000, 0.01, Duration.ofSeconds(30), 100);
+        backend.keySet().forEach(guard::keyCreated);
+        Cache<String, String> cache = readThrough(guard);
+
+        // Act & Assert
+        assertNull(cache.get("missing"));
+        assertEquals(0, loads.get(), "Unknown key should never reach the loader");
+        assertEquals("value2", cache.get("key2"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should remember confirmed-absent keys in the negative cache")
+    void negativeCacheSkipsRepeatedMisses() {
+        // Arrange - Bloom filter disabled, only the negative cache is active
+        BloomFilterGuard<String> guard = new BloomFilterGuard<>(
+                CountingBloomFilter.create(100, 0.01), false, Duration.ofSeconds(30), 100);
+        Cache<String, String> cache = readThrough(guard);
+
+        // Act
+        cache.get("missing");
+        cache.get("missing");
+        cache.get("missing");
+
+        // Assert
+        assertEquals(1, loads.get(), "Only the first miss should reach the loader");
+    }
+
+    @Test
+    @DisplayName("Should load again once the negative entry expires")
+    void negativeEntriesExpire() throws InterruptedException {
+        // Arrange
+        BloomFilterGuard<String> guard = new BloomFilterGuard<>(
+                CountingBloomFilter.create(100, 0.01), false, Duration.ofMillis(20), 100);
+        Cache<String, String> cache = readThrough(guard);
+        cache.get("late");
+        backend.put("late", "arrived");
+
+        // Act
+        Thread.sleep(40);
+
+        // Assert
+        assertEquals("arrived", cache.get("late"), "Expired negative entry should allow a reload");
+    }
+
+    @Test
+    @DisplayName("Should honour the configured false-positive rate and support deletes")
+    void countingBloomFilter() {
+        // Arrange
+        CountingBloomFilter<Integer> filter = CountingBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add(i);
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(i)) falsePositives++;
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain(i), "Added keys must never be reported absent");
+        assertTrue(falsePositives < 2_000, "False-positive rate should stay near 1% but was " + falsePositives / 1000.0 + "%");
+
+        CountingBloomFilter<String> small = CountingBloomFilter.create(10, 0.01);
+        small.add("deleted");
+        small.remove("deleted");
+        assertFalse(small.mightContain("deleted"), "Removed key should be reported absent");
+    }
+}
@@ -0,0 +1,232 @@
+package com.rcpky;
+
+import com.rcpky.codec.StringSerializer;
+import com.rcpky.service.SharedMemoryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedMemoryCacheTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path shm = Paths.get("/dev/shm");
+        file = Files.isDirectory(shm) && Files.isWritable(shm)
+                ? Files.createTempFile(shm, "cache-test", ".shm")
+                : Files.createTempFile("cache-test", ".shm");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    private SharedMemoryCache<String, String> open(int slots) {
+        return new SharedMemoryCache<>(file, slots, 128, new StringSerializer(), new StringSerializer(), Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Should share entries between independent mappings of the same file")
+    void sharedBetweenMappings() {
+        // Arrange - two mappings behave like two JVMs attached to the same table
+        try (SharedMemoryCache<String, String> first = open(64); SharedMemoryCache<String, String> second = open(64)) {
+            // Act
+            first.put("key1", "value1");
+            second.put("key2", "value2");
+
+            // Assert
+            assertEquals("value1", second.get("key1"));
+            assertEquals("value2", first.get("key2"));
+            assertEquals(2, first.size());
+
+            second.remove("key1");
+            assertNull(first.get("key1"), "Removal should be visible to every mapping");
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep probe chains intact across deletes and evictions")
+    void deletesAndEvictions() {
+        try (SharedMemoryCache<String, String> cache = open(16)) {
+            // Act - 12 entries is the 75% load limit, later puts evict through the clock hand
+            for (int i = 0; i < 40; i++) cache.put("key" + i, "value" + i);
+            assertEquals(12, cache.size(), "Table should stay at its load limit");
+            assertEquals("value39", cache.get("key39"), "Latest put should never be evicted by itself");
+            List<String> live = new ArrayList<>();
+            cache.keys().forEach(live::add);
+            for (String key : live.subList(0, 4)) cache.remove(key);
+
+            // Assert - every remaining entry must still be reachable through its probe chain
+            assertEquals(8, cache.size());
+            for (String key : live.subList(0, 4)) assertNull(cache.get(key));
+            for (String key : live.subList(4, live.size())) {
+                assertEquals(key.replace("key", "value"), cache.get(key), key + " should survive backward shifts");
+            }
+            assertThrows(IllegalArgumentException.class, () -> cache.put("big", "x".repeat(200)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should never return torn values to readers racing a writer")
+    void readersSeeConsistentValues() throws InterruptedException {
+        try (SharedMemoryCache<String, String> writer = open(64); SharedMemoryCache<String, String> reader = open(64)) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<String> torn = new AtomicReference<>();
+            writer.put("hot", "a".repeat(50));
+
+            Thread readerThread = new Thread(() -> {
+                while (running.get()) {
+                    String value = reader.get("hot");
+                    if (value != null && value.chars().distinct().count() != 1) torn.set(value);
+                }
+            });
+            readerThread.start();
+
+            // Act
+            for (int i = 0; i < 50_000; i++) writer.put("hot", String.valueOf((char) ('a' + i % 26)).repeat(10 + i % 40));
+            running.set(false);
+            readerThread.join();
+
+            // Assert
+            assertNull(torn.get(), "Seqlock should reject partially written values");
+        }
+    }
+
+    @Test
+    @DisplayName("Should read entries written by another JVM")
+    void sharedAcrossProcesses() throws Exception {
+        // Arrange
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SharedMemoryWriterProcess.class.getName(), file.toString())
+                .inheritIO().start();
+
+        // Act
+        assertTrue(child.waitFor(60, TimeUnit.SECONDS), "Writer process should finish");
+
+        // Assert
+        assertEquals(0, child.exitValue());
+        try (SharedMemoryCache<String, String> cache = open(64)) {
+            assertEquals("from-child", cache.get("child-key"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover slots and the lock left behind by a writer that died mid-write")
+    void recoversFromDeadWriter() throws Exception {
+        // Arrange - let a child JVM write an entry and exit, so its pid is dead
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SharedMemoryWriterProcess.class.getName(), file.toString())
+                .inheritIO().start();
+        assertTrue(child.waitFor(60, TimeUnit.SECONDS), "Writer process should finish");
+        // Make the file look as if the child died inside a write: lock word holds its pid, slot sequence is odd
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer raw = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64 + 64 * 128);
+            raw.order(ByteOrder.nativeOrder());
+            raw.putLong(16, child.pid());
+            for (int offset = 64; offset < raw.capacity(); offset += 128) {
+                if (raw.getInt(offset + 8) == 1) raw.putLong(offset, raw.getLong(offset) + 1);
+            }
+            raw.force();
+        }
+
+        try (SharedMemoryCache<String, String> cache = open(64)) {
+            // Act
+            cache.put("child-key", "after-crash");
+
+            // Assert
+            assertEquals("after-crash", cache.get("child-key"), "Dead writer's lock should be reclaimed and the slot readable");
+            List<String> keys = new ArrayList<>();
+            cache.keys().forEach(keys::add);
+            assertEquals(List.of("child-key"), keys, "Rewritten slot should be stable to lock-free scans");
+        }
+    }
+
+    @Test
+    @DisplayName("Should repair probe chains and size after killing a writer in the middle of deletes")
+    void repairsAfterWriterKilledMidDelete() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int round = 0; round < 5; round++) {
+            // Arrange - a child that deletes and re-inserts keys in a crowded table, so it nearly always holds the lock
+            Files.deleteIfExists(file);
+            Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SharedMemoryChurnProcess.class.getName(), file.toString()).start();
+            BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream()));
+            assertEquals("ready", out.readLine(), "Churn process should fill the table");
+
+            // Act - kill it wherever it happens to be
+            Thread.sleep(20 + round * 10);
+            child.destroyForcibly();
+            assertTrue(child.waitFor(60, TimeUnit.SECONDS), "Churn process should die");
+
+            try (SharedMemoryCache<String, String> cache = open(64)) {
+                cache.put("keyprobe", "valueprobe");
+
+                // Assert - one copy of each key, each reachable through its probe chain, and a size that matches
+                List<String> keys = new ArrayList<>();
+                cache.keys().forEach(keys::add);
+                Set<String> distinct = new HashSet<>(keys);
+                assertEquals(keys.size(), distinct.size(), "Round " + round + ": no key should be stored twice " + keys);
+                assertEquals(keys.size(), cache.size(), "Round " + round + ": size should count the live entries");
+                assertTrue(distinct.size() >= SharedMemoryChurnProcess.KEYS, "Round " + round + ": at most the key being written may be lost");
+                for (String key : distinct) {
+                    assertEquals(key.replace("key", "value"), cache.get(key), "Round " + round + ": " + key + " should be reachable");
+                }
+                for (String key : distinct) cache.remove(key);
+                assertEquals(0, cache.size(), "Round " + round + ": removing every key should empty the table");
+            }
+        }
+    }
+
+    public static class SharedMemoryChurnProcess {
+        static final int KEYS = 47;
+
+        public static void main(String[] args) {
+            try (SharedMemoryCache<String, String> cache = new SharedMemoryCache<>(Paths.get(args[0]), 64, 128,
+                    new StringSerializer(), new StringSerializer(), Duration.ofMinutes(5))) {
+                for (int i = 0; i < KEYS; i++) cache.put("key" + i, "value" + i);
+                System.out.println("ready");
+                System.out.flush();
+                for (int i = 0; ; i = (i + 7) % KEYS) {
+                    cache.remove("key" + i);
+                    cache.put("key" + i, "value" + i);
+                }
+            }
+        }
+    }
+
+    public static class SharedMemoryWriterProcess {
+        public static void main(String[] args) {
+            try (SharedMemoryCache<String, String> cache = new SharedMemoryCache<>(Paths.get(args[0]), 64, 128,
+                    new StringSerializer(), new StringSerializer(), Duration.ofMinutes(5))) {
+                cache.put("child-key", "from-child");
+            }
+        }
+    }
+}
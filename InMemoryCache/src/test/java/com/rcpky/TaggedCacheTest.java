@@ -0,0 +1,88 @@
+package com.rcpky;
+
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.interfaces.TaggedCache;
+import com.rcpky.service.InMemoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaggedCacheTest {
+
+    private TaggedCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryCache<>(new LRUEvictionPolicy<>(), 3);
+    }
+
+    @Test
+    @DisplayName("Should invalidate every entry carrying a tag")
+    void invalidateTag() {
+        // Arrange
+        cache.put("product:1:page", "page", "product:1");
+        cache.put("product:1:card", "card", "product:1", "category:tv");
+        cache.put("product:2:page", "page2", "product:2");
+
+        // Act
+        int removed = cache.invalidateTag("product:1");
+
+        // Assert
+        assertEquals(2, removed);
+        assertNull(cache.get("product:1:page"));
+        assertNull(cache.get("product:1:card"));
+        assertEquals("page2", cache.get("product:2:page"), "Entries with other tags should survive");
+        assertTrue(cache.keysForTag("category:tv").isEmpty(), "Removed keys should leave every tag they carried");
+    }
+
+    @Test
+    @DisplayName("Should drop evicted keys from the tag index")
+    void evictionUpdatesIndex() {
+        // Arrange
+        cache.put("key1", "value1", "tag");
+        cache.put("key2", "value2", "tag");
+        cache.put("key3", "value3", "tag");
+
+        // Act - capacity is 3, key1 is evicted
+        cache.put("key4", "value4", "tag");
+
+        // Assert
+        assertEquals(Set.of("key2", "key3", "key4"), cache.keysForTag("tag"));
+        assertEquals(3, cache.invalidateTag("tag"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should replace tags when a key is overwritten")
+    void overwriteReplacesTags() {
+        // Arrange
+        cache.put("key1", "value1", "old");
+
+        // Act
+        cache.put("key1", "value2", "new");
+        cache.put("key2", "value3");
+
+        // Assert
+        assertTrue(cache.keysForTag("old").isEmpty(), "Old tag should no longer point at the key");
+        assertEquals(0, cache.invalidateTag("old"));
+        assertEquals(1, cache.invalidateTag("new"));
+        assertEquals("value3", cache.get("key2"), "Untagged entries are unaffected");
+    }
+
+    @Test
+    @DisplayName("Should drop explicitly removed keys from the tag index")
+    void removeUpdatesIndex() {
+        // Arrange
+        cache.put("key1", "value1", "tag");
+
+        // Act
+        cache.remove("key1");
+
+        // Assert
+        assertTrue(cache.keysForTag("tag").isEmpty());
+    }
+}
@@ -0,0 +1,283 @@
+package com.rcpky;
+
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.interfaces.CacheWriter;
+import com.rcpky.service.InMemoryCache;
+import com.rcpky.service.WriteBehindCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindCacheTest {
+
+    private InMemoryStore store;
+    private WriteBehindCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryStore();
+        cache = WriteBehindCache.create(new InMemoryCache<>(new LRUEvictionPolicy<>(), 3), store, 100, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    @DisplayName("Should defer writes until flushed")
+    void writesAreDeferred() {
+        // Act
+        cache.put("key1", "value1");
+
+        // Assert
+        assertEquals("value1", cache.get("key1"), "Cache should serve the value immediately");
+        assertNull(store.data.get("key1"), "Store should not be written before a flush");
+        assertEquals(1, cache.pendingWrites());
+
+        // Act
+        cache.flush();
+
+        // Assert
+        assertEquals("value1", store.data.get("key1"), "Store should contain the value after flush");
+        assertEquals(0, cache.pendingWrites());
+    }
+
+    @Test
+    @DisplayName("Should coalesce repeated writes to the same key")
+    void writesAreCoalesced() {
+        // Act
+        cache.put("key1", "v1");
+        cache.put("key1", "v2");
+        cache.put("key1", "v3");
+        cache.flush();
+
+        // Assert
+        assertEquals(1, store.writes.get(), "Only the latest value should be written");
+        assertEquals(1, store.batches.get(), "Writes should go out in a single batch");
+        assertEquals("v3", store.data.get("key1"));
+    }
+
+    @Test
+    @DisplayName("Should turn a write followed by a remove into a single delete")
+    void removeCoalescesToDelete() {
+        // Arrange
+        store.data.put("key1", "old");
+
+        // Act
+        cache.put("key1", "new");
+        cache.remove("key1");
+        cache.flush();
+
+        // Assert
+        assertEquals(0, store.writes.get(), "Superseded write should never reach the store");
+        assertFalse(store.data.containsKey("key1"), "Key should be deleted from the store");
+    }
+
+    @Test
+    @DisplayName("Should flush when the batch size is reached")
+    void flushesOnBatchSize() throws InterruptedException {
+        // Arrange
+        WriteBehindCache<String, String> batched =
+                WriteBehindCache.create(new InMemoryCache<>(new LRUEvictionPolicy<>(), 10), store, 2, Duration.ofHours(1));
+
+        // Act
+        batched.put("key1", "value1");
+        batched.put("key2", "value2");
+        for (int i = 0; i < 100 && store.data.size() < 2; i++) Thread.sleep(10);
+
+        // Assert
+        assertEquals(2, store.data.size(), "Full batch should be flushed in the background");
+        batched.close();
+    }
+
+    @Test
+    @DisplayName("Should flush a dirty entry when it is evicted")
+    void flushesOnEvict() throws InterruptedException {
+        // Act - capacity is 3, so key1 is evicted by the fourth put
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.put("key3", "value3");
+        cache.put("key4", "value4");
+        for (int i = 0; i < 100 && !store.data.containsKey("key1"); i++) Thread.sleep(10);
+
+        // Assert
+        assertEquals("value1", store.data.get("key1"), "Evicted dirty entry should be written");
+        assertFalse(store.data.containsKey("key4"), "Entries still cached should stay dirty");
+    }
+
+    @Test
+    @DisplayName("Should flush everything on close")
+    void flushesOnClose() {
+        // Act
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.close();
+
+        // Assert
+        assertEquals(2, store.data.size(), "All dirty entries should be written on close");
+        assertThrows(IllegalStateException.class, () -> cache.put("key3", "value3"));
+    }
+
+    @Test
+    @DisplayName("Should leave the store holding what the cache holds after concurrent writes")
+    void concurrentWritesMatchCache() throws Exception {
+        // Arrange - a cache that pauses after each update, so writers overlap right after it
+        InMemoryCache<String, String> slow = new InMemoryCache<>(new LRUEvictionPolicy<>(), 1_000) {
+            @Override
+            public void put(String key, String value) {
+                super.put(key, value);
+                LockSupport.parkNanos(100_000);
+            }
+
+            @Override
+            public void remove(String key) {
+                super.remove(key);
+                LockSupport.parkNanos(100_000);
+            }
+        };
+        WriteBehindCache<String, String> shared = WriteBehindCache.create(slow, store, 1_000, Duration.ofHours(1));
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        CyclicBarrier start = new CyclicBarrier(8);
+
+        // Act & Assert - every round all writers race on one key, then the cache and store must agree
+        for (int round = 0; round < 500; round++) {
+            String key = "key" + round;
+            List<Future<?>> writes = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writes.add(writers.submit(() -> {
+                    start.await();
+                    if (thread == 0) shared.remove(key);
+                    else shared.put(key, "value" + thread);
+                    return null;
+                }));
+            }
+            for (Future<?> w : writes) w.get(10, TimeUnit.SECONDS);
+            shared.flush();
+            assertEquals(shared.get(key), store.data.get(key), key + " should end up the same in cache and store");
+        }
+        writers.shutdown();
+        shared.close();
+    }
+
+    @Test
+    @DisplayName("Should write every accepted write to the store when writes race close()")
+    void writesRacingClose() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            // Arrange - a cache that pauses inside each update, so writers are mid-write when close() runs
+            InMemoryCache<String, String> slow = new InMemoryCache<>(new LRUEvictionPolicy<>(), 100_000) {
+                @Override
+                public void put(String key, String value) {
+                    LockSupport.parkNanos(50_000);
+                    super.put(key, value);
+                }
+            };
+            InMemoryStore roundStore = new InMemoryStore();
+            WriteBehindCache<String, String> closing = WriteBehindCache.create(slow, roundStore, 1, Duration.ofHours(1));
+            Map<String, String> accepted = new ConcurrentHashMap<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(new Thread(() -> {
+                    for (int i = 0; ; i++) {
+                        String key = "key" + thread + "-" + i;
+                        try {
+                            closing.put(key, "value" + i);
+                            accepted.put(key, "value" + i);
+                        } catch (IllegalStateException e) {
+                            return;
+                        } catch (RuntimeException e) {
+                            failure.set(e);
+                            return;
+                        }
+                    }
+                }));
+            }
+
+            // Act
+            for (Thread writer : writers) writer.start();
+            Thread.sleep(2);
+            closing.close();
+            for (Thread writer : writers) writer.join();
+
+            // Assert
+            assertNull(failure.get(), "Writes racing close() should only be rejected with IllegalStateException");
+            assertEquals(accepted, roundStore.data, "Round " + round + ": every accepted write should reach the store");
+        }
+    }
+
+    @Test
+    @DisplayName("Should count failed background flushes and retry them")
+    void countsFailedFlushes() throws InterruptedException {
+        // Arrange - a store that fails its first batch
+        AtomicInteger failures = new AtomicInteger(1);
+        InMemoryStore flaky = new InMemoryStore() {
+            @Override
+            public void writeAll(Map<String, String> entries) {
+                if (failures.getAndDecrement() > 0) throw new IllegalStateException("store unavailable");
+                super.writeAll(entries);
+            }
+        };
+        WriteBehindCache<String, String> writeBehind =
+                WriteBehindCache.create(new InMemoryCache<>(new LRUEvictionPolicy<>(), 10), flaky, 100, Duration.ofMillis(20));
+
+        // Act
+        writeBehind.put("key1", "value1");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (flaky.data.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        writeBehind.close();
+
+        // Assert
+        assertEquals(1, writeBehind.failedFlushes(), "The failed flush should be counted");
+        assertEquals("value1", flaky.data.get("key1"), "The failed batch should be written by a later flush");
+    }
+
+    static class InMemoryStore implements CacheWriter<String, String> {
+        final Map<String, String> data = new ConcurrentHashMap<>();
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public void write(String key, String value) {
+            writes.incrementAndGet();
+            data.put(key, value);
+        }
+
+        @Override
+        public void delete(String key) {
+            data.remove(key);
+        }
+
+        @Override
+        public void writeAll(Map<String, String> entries) {
+            batches.incrementAndGet();
+            CacheWriter.super.writeAll(entries);
+        }
+
+        @Override
+        public void deleteAll(Collection<String> keys) {
+            batches.incrementAndGet();
+            CacheWriter.super.deleteAll(keys);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.codec.DeflateCompressor;
+import com.rcpky.codec.LzCompressor;
+import com.rcpky.codec.StringSerializer;
+import com.rcpky.evictionpolicy.LRUEvictionPolicy;
+import com.rcpky.interfaces.Compressor;
+import com.rcpky.service.CompressingCache;
+import com.rcpky.service.InMemoryCache;
+
+/**
+ * Compares compression ratio and CPU cost of the value codecs across payload sizes and thresholds.
+ * Run the main method from the test classpath (e.g. from the IDE) after mvn test-compile.
+ */
+public class CompressionBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int VALUES = 2_000;
+
+    public static void main(String[] args) {
+        int[] payloadRecords = {2, 20, 200, 2_000};
+        int[] thresholds = {0, 512, 4_096};
+        Compressor[] compressors = {new LzCompressor(), new DeflateCompressor()};
+
+        System.out.printf("%-18s %10s %10s %8s %14s %14s%n",
+                "Codec", "Payload", "Threshold", "Ratio", "Compress us", "Decompress us");
+        for (Compressor compressor : compressors) {
+            for (int records : payloadRecords) {
+                String payload = json(records);
+                for (int threshold : thresholds) {
+                    for (int i = 0; i < WARMUP_ROUNDS; i++) run(compressor, payload, threshold);
+                    CompressingCache<Integer, String> cache = run(compressor, payload, threshold);
+                    long compressed = Math.max(1, cache.compressedValues());
+                    System.out.printf("%-18s %10d %10d %8.3f %14.2f %14.2f%n",
+                            compressor.getClass().getSimpleName(), payload.length(), threshold,
+                            cache.compressionRatio(),
+                            cache.compressNanos() / 1000.0 / compressed,
+                            cache.decompressNanos() / 1000.0 / compressed);
+                }
+            }
+        }
+    }
+
+    private static CompressingCache<Integer, String> run(Compressor compressor, String payload, int threshold) {
+        CompressingCache<Integer, String> cache = new CompressingCache<>(
+                new InMemoryCache<>(new LRUEvictionPolicy<>(), VALUES), new StringSerializer(), compressor, threshold);
+        for (int i = 0; i < VALUES; i++) cache.put(i, payload);
+        for (int i = 0; i < VALUES; i++) {
+            if (cache.get(i).length() != payload.length()) throw new IllegalStateException("Round trip failed");
+        }
+        return cache;
+    }
+
+    private static String json(int records) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < records; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"product-").append(i)
+              .append("\",\"category\":\"electronics\",\"inStock\":true,\"price\":").append(i * 3 % 1000).append('}');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -1,6 +1,8 @@
 package com.rcpky;
 
+import com.rcpky.display.DisplayBoard;
 import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.facility.ParkingFacility;
 import com.rcpky.patterns.ParkingEventManager;
 import com.rcpky.patterns.SpotFactory;
 import com.rcpky.patterns.ThreadSafeParkingLot;
@@ -11,9 +13,12 @@ import com.rcpky.patterns.observer.DisplayNotifier;
 import com.rcpky.patterns.observer.SMSNotifier;
 import com.rcpky.payments.CreditCardPayment;
 import com.rcpky.payments.PaymentStrategy;
+import com.rcpky.reservations.Reservation;
+import com.rcpky.reservations.ReservationBook;
 import com.rcpky.tickets.ParkingTicket;
 import com.rcpky.vehicles.*;
 
+import java.time.Duration;
 import java.util.concurrent.*;
 
 /**
@@ -34,6 +39,8 @@ public class EnhancedParkingDemo {
         parkingLot.addSpot(SpotFactory.createSpot(ParkingSpotType.HANDICAPPED));
         parkingLot.addSpot(SpotFactory.createSpot(ParkingSpotType.LARGE));
         parkingLot.addSpot(SpotFactory.createSpot(ParkingSpotType.MOTORCYCLE));
+        DisplayBoard board = new DisplayBoard(1);
+        parkingLot.addDisplayBoard(board);
         
         // 3. Set up observer pattern for notifications
         ParkingEventManager eventManager = new ParkingEventManager();
@@ -117,6 +124,40 @@ public class EnhancedParkingDemo {
         System.out.println(future3.get());
         
         executor.shutdown();
+
+        // Display board reads live per-type counters maintained on every park and free
+        board.showFreeSlot();
+
+        System.out.println("\n--- DEMONSTRATION 5: Multi-Level Facility ---\n");
+
+        // Each level is an independent shard; requests go to the preferred or least-loaded level
+        ParkingFacility garage = new ParkingFacility("Central Garage");
+        for (int level = 0; level < 3; level++) {
+            garage.addLevel(level);
+            for (int i = 0; i < 2; i++) garage.addSpot(level, SpotFactory.createSpot(ParkingSpotType.COMPACT));
+        }
+        try {
+            ParkingTicket preferred = garage.parkVehicle(new Car("MH-12-PQ-4321"), 2);
+            System.out.println("Parked on preferred level " + garage.levelOf(preferred.getSlotNo()).getLevelNumber());
+            ParkingTicket routed = garage.parkVehicle(new Car("KA-05-MN-2468"));
+            System.out.println("Parked on least-loaded level " + garage.levelOf(routed.getSlotNo()).getLevelNumber());
+        } catch (ParkingException e) {
+            System.out.println("ERROR: " + e.getMessage());
+        }
+        System.out.println("Free compact spots in " + garage.getName() + ": " + garage.getFreeCount(ParkingSpotType.COMPACT));
+
+        System.out.println("\n--- DEMONSTRATION 6: Advance Reservations ---\n");
+
+        // Bookings are kept per spot and summed per type in 15-minute slots, up to a week ahead
+        ReservationBook reservations = new ReservationBook(parkingLot.getAllSpots(), Duration.ofMinutes(15), Duration.ofDays(7));
+        long tomorrow = System.currentTimeMillis() + Duration.ofDays(1).toMillis();
+        long evening = tomorrow + Duration.ofHours(3).toMillis();
+        for (String plate : new String[]{"KA-03-RS-1111", "KA-03-RS-2222", "KA-03-RS-3333", "KA-03-RS-4444"}) {
+            Reservation booking = reservations.book(ParkingSpotType.COMPACT, plate, tomorrow, evening);
+            System.out.println(booking != null ? "Booked: " + booking : "No compact spot left to book for " + plate);
+        }
+        System.out.println("Compact spots still bookable for that window: "
+                + reservations.freeBetween(ParkingSpotType.COMPACT, tomorrow, evening));
         
         System.out.println("\n======== END OF ENHANCED DEMONSTRATION ========\n");
     }
@@ -1,12 +1,11 @@
 package com.rcpky;
 
 import com.rcpky.display.DisplayBoard;
+import com.rcpky.models.Entrance;
 import com.rcpky.models.ParkingRate;
 import com.rcpky.spots.*;
 import com.rcpky.tickets.ParkingTicket;
-import com.rcpky.vehicles.Car;
-import com.rcpky.vehicles.Motorcycle;
-import com.rcpky.vehicles.Truck;
+import com.rcpky.tickets.TicketIdGenerator;
 import com.rcpky.vehicles.Vehicle;
 
 import java.util.*;
@@ -15,7 +14,8 @@ public class ParkingLot {
     private static ParkingLot instance = null;
     public ParkingRate rate = new ParkingRate();
     private Map<Integer, ParkingSpot> spots = new LinkedHashMap<>();
-    private Map<Integer, ParkingTicket> tickets = new HashMap<>();
+    private Map<Long, ParkingTicket> tickets = new HashMap<>();
+    private NearestSpotIndex freeSpots = new NearestSpotIndex();
     private List<DisplayBoard> boards = new ArrayList<>();
 
     public ParkingLot() {}
@@ -26,32 +26,33 @@ public class ParkingLot {
     }
 
 
-    public void addSpot(ParkingSpot s) { spots.put(s.getId(), s); }
-    public void addDisplayBoard(DisplayBoard b) { boards.add(b); }
+    public void addSpot(ParkingSpot s) {
+        ParkingSpot replaced = spots.put(s.getId(), s);
+        if (replaced != null) freeSpots.remove(replaced);
+        freeSpots.add(s);
+    }
+    public void addEntrance(Entrance e) { freeSpots.addEntrance(e.getId(), e.getX(), e.getY()); }
+    public void addDisplayBoard(DisplayBoard b) {
+        b.attach(freeSpots.getAvailability());
+        boards.add(b);
+    }
     public ParkingSpot getSpot(int id) { return spots.get(id); }
     public void freeSlot(int id) {
         ParkingSpot s = spots.get(id);
-        if (s != null) s.removeVehicle();
+        if (s != null) freeSpots.free(s);
     }
 
     public Collection<ParkingSpot> getAllSpots() { return spots.values(); }
-    public ParkingTicket parkVehicle(Vehicle v) {
-        for (ParkingSpot s : spots.values()) {
-            if (s.isFree() && canFit(v, s)) {
-                s.assignVehicle(v);
-                ParkingTicket t = new ParkingTicket(s.getId(), v);
-                tickets.put(t.getTicketNo(), t);
-                return t;
-            }
+    public ParkingTicket parkVehicle(Vehicle v) { return parkVehicle(v, null); }
+    public ParkingTicket parkVehicle(Vehicle v, Entrance e) {
+        ParkingSpot s = freeSpots.allocate(v, e == null ? null : e.getId());
+        if (s != null) {
+            TicketIdGenerator ids = e == null ? TicketIdGenerator.getDefault() : e.getTicketIds();
+            ParkingTicket t = new ParkingTicket(ids, s.getId(), v);
+            tickets.put(t.getTicketNo(), t);
+            return t;
         }
         System.out.println("Sorry, parking lot is full. New cars cannot be parked.");
         return null;
     }
-
-    private boolean canFit(Vehicle v, ParkingSpot s) {
-        if (v instanceof Motorcycle && s instanceof MotorcycleSpot) return true;
-        if ((v instanceof Truck || v instanceof Truck) && s instanceof Large) return true;
-        if (v instanceof Car && (s instanceof Compact || s instanceof Handicapped)) return true;
-        return false;
-    }
 }
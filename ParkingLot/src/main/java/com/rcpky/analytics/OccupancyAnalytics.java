@@ -0,0 +1,272 @@
+package com.rcpky.analytics;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.patterns.observer.SpotEvent;
+import com.rcpky.spots.ParkingSpot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Live occupancy, turnover and stay figures over the last few minutes, maintained from the spot
+ * event stream. Each spot type keeps a ring of time buckets (one minute each, say) holding the
+ * time-weighted occupancy, arrivals, departures and summed stays for that bucket; an event only
+ * touches the current bucket and a query adds up the buckets of its window, so neither ever
+ * rescans spots or tickets. Windows are counted in whole buckets back from the current, partly
+ * elapsed one, and reach back at most the length of the ring.
+ * Types are tracked independently, so gates parking different types never wait for each other.
+ * Events without a spot type (from code that notifies with a bare spot id) are ignored, and an
+ * event older than the last one seen for its type is counted as happening at that time. The
+ * figures are only as complete as the events delivered: what DROP or COALESCE backpressure
+ * discards or merges is missing from them.
+ */
+public class OccupancyAnalytics implements ParkingObserver {
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final Clock clock;
+    private final Map<ParkingSpotType, TypeWindow> types = new EnumMap<>(ParkingSpotType.class);
+
+    /**
+     * Starts tracking the given spots from their current state.
+     */
+    public OccupancyAnalytics(Collection<ParkingSpot> spots, Duration bucket, int buckets) {
+        this(spots, bucket, buckets, Clock.systemUTC());
+    }
+
+    public OccupancyAnalytics(Collection<ParkingSpot> spots, Duration bucket, int buckets, Clock clock) {
+        this.bucketMillis = bucket.toMillis();
+        if (bucketMillis < 1 || buckets < 1) throw new IllegalArgumentException("Need at least one bucket of at least a millisecond");
+        this.buckets = buckets;
+        this.clock = clock;
+        int[] capacity = new int[ParkingSpotType.values().length];
+        int[] occupied = new int[capacity.length];
+        for (ParkingSpot s : spots) {
+            capacity[s.getType().ordinal()]++;
+            if (!s.isFree()) occupied[s.getType().ordinal()]++;
+        }
+        long now = clock.millis();
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            types.put(type, new TypeWindow(capacity[type.ordinal()], occupied[type.ordinal()], now));
+        }
+    }
+
+    @Override
+    public void onSpotTaken(int spotId) {
+        // Only the full events carry what is needed
+    }
+
+    @Override
+    public void onSpotFreed(int spotId) {
+        // Only the full events carry what is needed
+    }
+
+    @Override
+    public void onEvent(SpotEvent e) {
+        if (e.getSpotType() == null) return;
+        types.get(e.getSpotType()).record(e);
+    }
+
+    /**
+     * Average share of the type's spots that were occupied over the window, from 0 to 1.
+     */
+    public double occupancy(ParkingSpotType type, Duration window) {
+        TypeWindow w = types.get(type);
+        if (w.capacity == 0) return 0;
+        return totals(w, window).averageOccupied / w.capacity;
+    }
+
+    /**
+     * Average share of all spots that were occupied over the window, from 0 to 1.
+     */
+    public double occupancy(Duration window) {
+        double occupied = 0;
+        int capacity = 0;
+        for (TypeWindow w : types.values()) {
+            occupied += totals(w, window).averageOccupied;
+            capacity += w.capacity;
+        }
+        return capacity == 0 ? 0 : occupied / capacity;
+    }
+
+    /**
+     * Vehicles that left per spot of the type per hour, over the window.
+     */
+    public double turnover(ParkingSpotType type, Duration window) {
+        TypeWindow w = types.get(type);
+        if (w.capacity == 0) return 0;
+        Totals t = totals(w, window);
+        return t.spanMillis == 0 ? 0 : t.departures * (double) HOUR_MILLIS / t.spanMillis / w.capacity;
+    }
+
+    public double turnover(Duration window) {
+        long departures = 0, span = 0;
+        int capacity = 0;
+        for (TypeWindow w : types.values()) {
+            Totals t = totals(w, window);
+            departures += t.departures;
+            span = Math.max(span, t.spanMillis);
+            capacity += w.capacity;
+        }
+        return span == 0 || capacity == 0 ? 0 : departures * (double) HOUR_MILLIS / span / capacity;
+    }
+
+    /**
+     * Average stay of the vehicles that left spots of the type during the window, 0 if none did.
+     */
+    public Duration averageDwell(ParkingSpotType type, Duration window) {
+        Totals t = totals(types.get(type), window);
+        return t.dwellCount == 0 ? Duration.ZERO : Duration.ofMillis(t.dwellMillis / t.dwellCount);
+    }
+
+    public Duration averageDwell(Duration window) {
+        long dwell = 0, count = 0;
+        for (TypeWindow w : types.values()) {
+            Totals t = totals(w, window);
+            dwell += t.dwellMillis;
+            count += t.dwellCount;
+        }
+        return count == 0 ? Duration.ZERO : Duration.ofMillis(dwell / count);
+    }
+
+    public long arrivals(ParkingSpotType type, Duration window) {
+        return totals(types.get(type), window).arrivals;
+    }
+
+    public long departures(ParkingSpotType type, Duration window) {
+        return totals(types.get(type), window).departures;
+    }
+
+    public int currentlyOccupied(ParkingSpotType type) {
+        TypeWindow w = types.get(type);
+        synchronized (w) {
+            return w.occupied;
+        }
+    }
+
+    public Duration getWindowLimit() {
+        return Duration.ofMillis(bucketMillis * buckets);
+    }
+
+    private Totals totals(TypeWindow w, Duration window) {
+        int count = (int) Math.min(buckets, Math.max(1, -Math.floorDiv(-window.toMillis(), bucketMillis)));
+        return w.totals(clock.millis(), count);
+    }
+
+    /**
+     * Ring of buckets for one spot type; everything in it is guarded by its monitor.
+     */
+    private final class TypeWindow {
+        final int capacity;
+        int occupied;
+        // Occupancy integral of the current bucket runs up to here
+        long lastChange;
+        long bucketStart;
+        int current;
+        // Buckets before this one predate the analytics and are left out of every window
+        final long firstBucketStart;
+        final long startedAt;
+
+        final long[] occupiedMillis = new long[buckets];
+        final int[] arrivals = new int[buckets];
+        final int[] departures = new int[buckets];
+        final long[] dwellMillis = new long[buckets];
+        final int[] dwellCount = new int[buckets];
+
+        TypeWindow(int capacity, int occupied, long now) {
+            this.capacity = capacity;
+            this.occupied = occupied;
+            this.startedAt = now;
+            this.lastChange = now;
+            this.bucketStart = Math.floorDiv(now, bucketMillis) * bucketMillis;
+            this.firstBucketStart = bucketStart;
+        }
+
+        synchronized void record(SpotEvent e) {
+            long t = Math.max(e.getTimeMillis(), lastChange);
+            advance(t);
+            occupiedMillis[current] += occupied * (t - lastChange);
+            lastChange = t;
+            if (e.isTaken()) {
+                occupied++;
+                arrivals[current]++;
+            } else {
+                occupied = Math.max(0, occupied - 1);
+                departures[current]++;
+                long dwell = e.getDwellMillis();
+                if (dwell >= 0) {
+                    dwellMillis[current] += dwell;
+                    dwellCount[current]++;
+                }
+            }
+        }
+
+        synchronized Totals totals(long now, int count) {
+            advance(Math.max(now, lastChange));
+            now = Math.max(now, lastChange);
+            Totals t = new Totals();
+            t.occupiedMillis = occupiedMillis[current] + occupied * (now - lastChange);
+            long windowStart = bucketStart;
+            for (int i = 0; i < count; i++) {
+                long start = bucketStart - i * bucketMillis;
+                if (start < firstBucketStart) break;
+                int b = Math.floorMod(current - i, buckets);
+                if (i > 0) t.occupiedMillis += occupiedMillis[b];
+                t.arrivals += arrivals[b];
+                t.departures += departures[b];
+                t.dwellMillis += dwellMillis[b];
+                t.dwellCount += dwellCount[b];
+                windowStart = start;
+            }
+            t.spanMillis = now - Math.max(windowStart, startedAt);
+            t.averageOccupied = t.spanMillis == 0 ? occupied : (double) t.occupiedMillis / t.spanMillis;
+            return t;
+        }
+
+        // Closes buckets until the one holding t is current; buckets skipped over are cleared
+        private void advance(long t) {
+            long steps = (t - bucketStart) / bucketMillis;
+            if (steps <= 0) return;
+            if (steps > buckets) {
+                // Every bucket in the ring gets rewritten below, so skip straight to the last lap
+                long skipped = steps - buckets;
+                bucketStart += skipped * bucketMillis;
+                current = (int) ((current + skipped) % buckets);
+                lastChange = bucketStart;
+                clear(current);
+                steps = buckets;
+            }
+            for (long i = 0; i < steps; i++) {
+                long end = bucketStart + bucketMillis;
+                occupiedMillis[current] += occupied * (end - Math.max(lastChange, bucketStart));
+                current = (current + 1) % buckets;
+                bucketStart = end;
+                lastChange = end;
+                clear(current);
+            }
+        }
+
+        private void clear(int b) {
+            occupiedMillis[b] = 0;
+            arrivals[b] = 0;
+            departures[b] = 0;
+            dwellMillis[b] = 0;
+            dwellCount[b] = 0;
+        }
+    }
+
+    private static final class Totals {
+        long occupiedMillis;
+        long spanMillis;
+        long arrivals;
+        long departures;
+        long dwellMillis;
+        long dwellCount;
+        double averageOccupied;
+    }
+}
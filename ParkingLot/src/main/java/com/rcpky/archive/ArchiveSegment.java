@@ -0,0 +1,174 @@
+package com.rcpky.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * One sealed, immutable archive partition: a header, the partition's tickets sorted by ticket
+ * number, and a sparse index holding the number and offset of every INDEX_INTERVAL-th record.
+ * Only the header is kept in memory; lookups read the sparse index and one run of records.
+ */
+final class ArchiveSegment {
+    static final String SUFFIX = ".seg";
+    static final int INDEX_INTERVAL = 64;
+    private static final int MAGIC = 0x50415243; // "PARC"
+    // magic, count, minTicketNo, maxTicketNo, minExit, maxExit, indexOffset
+    private static final int HEADER_BYTES = 4 + 4 + 8 * 5;
+    private static final int INDEX_ENTRY_BYTES = 16;
+
+    private final Path path;
+    private final long partition;
+    private final int count;
+    private final long minTicketNo, maxTicketNo;
+    private final long minExit, maxExit;
+    private final long indexOffset;
+
+    private ArchiveSegment(Path path, long partition, int count, long minTicketNo, long maxTicketNo,
+                           long minExit, long maxExit, long indexOffset) {
+        this.path = path;
+        this.partition = partition;
+        this.count = count;
+        this.minTicketNo = minTicketNo;
+        this.maxTicketNo = maxTicketNo;
+        this.minExit = minExit;
+        this.maxExit = maxExit;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Writes the tickets, already sorted by ticket number, to a new segment file. The file is
+     * written under a temporary name, forced and renamed, so a crash never leaves half a segment.
+     */
+    static ArchiveSegment write(Path dir, long partition, List<ArchivedTicket> sorted) throws IOException {
+        int recordBytes = 0;
+        long minExit = Long.MAX_VALUE, maxExit = Long.MIN_VALUE;
+        for (ArchivedTicket t : sorted) {
+            recordBytes += t.encodedSize();
+            minExit = Math.min(minExit, t.getExitMillis());
+            maxExit = Math.max(maxExit, t.getExitMillis());
+        }
+        int indexEntries = (sorted.size() + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + recordBytes + indexEntries * INDEX_ENTRY_BYTES);
+        long indexOffset = HEADER_BYTES + recordBytes;
+        buf.position(HEADER_BYTES);
+        long[] index = new long[indexEntries * 2];
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i % INDEX_INTERVAL == 0) {
+                index[i / INDEX_INTERVAL * 2] = sorted.get(i).getTicketNo();
+                index[i / INDEX_INTERVAL * 2 + 1] = buf.position();
+            }
+            sorted.get(i).writeTo(buf);
+        }
+        for (long v : index) buf.putLong(v);
+        long minTicketNo = sorted.isEmpty() ? 0 : sorted.get(0).getTicketNo();
+        long maxTicketNo = sorted.isEmpty() ? -1 : sorted.get(sorted.size() - 1).getTicketNo();
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, sorted.size());
+        buf.putLong(8, minTicketNo);
+        buf.putLong(16, maxTicketNo);
+        buf.putLong(24, minExit);
+        buf.putLong(32, maxExit);
+        buf.putLong(40, indexOffset);
+        buf.flip();
+
+        Path path = dir.resolve(fileName(partition));
+        Path tmp = dir.resolve(fileName(partition) + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            while (buf.hasRemaining()) channel.write(buf);
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new ArchiveSegment(path, partition, sorted.size(), minTicketNo, maxTicketNo, minExit, maxExit, indexOffset);
+    }
+
+    /**
+     * Reads only the header of an existing segment.
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            readFully(channel, header, 0);
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) throw new IOException("Not a ticket archive segment: " + path);
+        return new ArchiveSegment(path, partitionOf(path), header.getInt(), header.getLong(), header.getLong(),
+                header.getLong(), header.getLong(), header.getLong());
+    }
+
+    static String fileName(long partition) {
+        return String.format("tickets-%020d%s", partition, SUFFIX);
+    }
+
+    static long partitionOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("tickets-".length(), name.indexOf('.')));
+    }
+
+    long getPartition() { return partition; }
+    int getCount() { return count; }
+
+    boolean mayContain(long ticketNo) {
+        return count > 0 && ticketNo >= minTicketNo && ticketNo <= maxTicketNo;
+    }
+
+    boolean overlaps(long fromMillis, long toMillis) {
+        return count > 0 && maxExit >= fromMillis && minExit < toMillis;
+    }
+
+    /**
+     * Binary-searches the sparse index, then scans at most INDEX_INTERVAL records.
+     */
+    ArchivedTicket find(long ticketNo) throws IOException {
+        if (!mayContain(ticketNo)) return null;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            int entries = (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+            ByteBuffer index = ByteBuffer.allocate(entries * INDEX_ENTRY_BYTES);
+            readFully(channel, index, indexOffset);
+            int lo = 0, hi = entries - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (index.getLong(mid * INDEX_ENTRY_BYTES) <= ticketNo) lo = mid;
+                else hi = mid - 1;
+            }
+            long start = index.getLong(lo * INDEX_ENTRY_BYTES + 8);
+            long end = lo + 1 < entries ? index.getLong((lo + 1) * INDEX_ENTRY_BYTES + 8) : indexOffset;
+            ByteBuffer run = ByteBuffer.allocate((int) (end - start));
+            readFully(channel, run, start);
+            run.flip();
+            while (run.hasRemaining()) {
+                ArchivedTicket t = ArchivedTicket.readFrom(run);
+                if (t.getTicketNo() == ticketNo) return t;
+                if (t.getTicketNo() > ticketNo) break;
+            }
+            return null;
+        }
+    }
+
+    void forEach(Consumer<ArchivedTicket> consumer) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate((int) (indexOffset - HEADER_BYTES));
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            readFully(channel, records, HEADER_BYTES);
+        }
+        records.flip();
+        while (records.hasRemaining()) consumer.accept(ArchivedTicket.readFrom(records));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0) throw new IOException("Truncated archive segment");
+            position += n;
+        }
+    }
+}
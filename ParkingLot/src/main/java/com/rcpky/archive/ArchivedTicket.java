@@ -0,0 +1,81 @@
+package com.rcpky.archive;
+
+import com.rcpky.enums.VehicleType;
+import com.rcpky.tickets.ParkingTicket;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only copy of a closed ticket as stored in the archive.
+ */
+@Getter
+public class ArchivedTicket {
+    // ticketNo, slotNo, entry, exit, amount, kind length, plate length
+    static final int FIXED_BYTES = 8 + 4 + 8 + 8 + 8 + 1 + 2;
+
+    private final long ticketNo;
+    private final int slotNo;
+    private final long entryMillis;
+    private final long exitMillis;
+    private final double amount;
+    private final String vehicleType;
+    private final String licenseNo;
+
+    public ArchivedTicket(long ticketNo, int slotNo, long entryMillis, long exitMillis, double amount,
+                          String vehicleType, String licenseNo) {
+        this.ticketNo = ticketNo;
+        this.slotNo = slotNo;
+        this.entryMillis = entryMillis;
+        this.exitMillis = exitMillis;
+        this.amount = amount;
+        this.vehicleType = vehicleType;
+        this.licenseNo = licenseNo;
+    }
+
+    /**
+     * Snapshot of a paid ticket; a ticket paid without passing an exit is closed at closedAt.
+     */
+    static ArchivedTicket of(ParkingTicket t, long closedAt) {
+        long exit = t.getExitTime() == null ? closedAt : t.getExitTime().getTime();
+        return new ArchivedTicket(t.getTicketNo(), t.getSlotNo(), t.getEntryTime().getTime(), exit, t.getAmount(),
+                VehicleType.of(t.getVehicle()).getLabel(), t.getVehicle().getLicenseNo());
+    }
+
+    int encodedSize() {
+        return FIXED_BYTES + utf8(vehicleType).length + utf8(licenseNo).length;
+    }
+
+    void writeTo(ByteBuffer buf) {
+        byte[] kind = utf8(vehicleType);
+        byte[] plate = utf8(licenseNo);
+        buf.putLong(ticketNo);
+        buf.putInt(slotNo);
+        buf.putLong(entryMillis);
+        buf.putLong(exitMillis);
+        buf.putDouble(amount);
+        buf.put((byte) kind.length);
+        buf.putShort((short) plate.length);
+        buf.put(kind);
+        buf.put(plate);
+    }
+
+    static ArchivedTicket readFrom(ByteBuffer buf) {
+        long ticketNo = buf.getLong();
+        int slotNo = buf.getInt();
+        long entry = buf.getLong();
+        long exit = buf.getLong();
+        double amount = buf.getDouble();
+        byte[] kind = new byte[buf.get() & 0xff];
+        byte[] plate = new byte[buf.getShort() & 0xffff];
+        buf.get(kind);
+        buf.get(plate);
+        return new ArchivedTicket(ticketNo, slotNo, entry, exit, amount,
+                new String(kind, StandardCharsets.UTF_8), new String(plate, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,239 @@
+package com.rcpky.archive;
+
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.tickets.TicketIdGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Disk archive of closed tickets, partitioned by exit time (hourly by default).
+ * Tickets of the current partition are appended to an open log file, framed as
+ * [int body length][int CRC32 of body][body], and also kept in memory;
+ * when a ticket for a later partition arrives, the open partition is sorted by ticket number and
+ * sealed into an immutable ArchiveSegment with a sparse index. Heap use is one partition's
+ * tickets plus a fixed-size header per sealed segment, however long the history grows.
+ * Lookups by ticket number skip segments that closed before the ticket was issued or whose
+ * number range cannot contain it; range queries skip segments outside the requested exit times.
+ */
+public class TicketArchive implements AutoCloseable {
+    private static final String OPEN_SUFFIX = ".open";
+    private static final int FRAME_HEADER = 8;
+
+    private final Path dir;
+    private final long partitionMillis;
+    private final NavigableMap<Long, ArchiveSegment> sealed = new ConcurrentSkipListMap<>();
+
+    // Open partition, guarded by this
+    private long openPartition = -1;
+    private FileChannel openChannel;
+    private final Map<Long, ArchivedTicket> openTickets = new HashMap<>();
+    private final CRC32 crc = new CRC32();
+    private boolean closed;
+
+    public TicketArchive(Path dir) throws IOException {
+        this(dir, Duration.ofHours(1));
+    }
+
+    public TicketArchive(Path dir, Duration partition) throws IOException {
+        this.dir = dir;
+        this.partitionMillis = partition.toMillis();
+        Files.createDirectories(dir);
+        List<Path> openFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (!name.startsWith("tickets-")) continue;
+                if (name.endsWith(ArchiveSegment.SUFFIX)) {
+                    ArchiveSegment s = ArchiveSegment.open(p);
+                    sealed.put(s.getPartition(), s);
+                } else if (name.endsWith(OPEN_SUFFIX)) {
+                    openFiles.add(p);
+                } else if (name.endsWith(".tmp")) {
+                    Files.delete(p);
+                }
+            }
+        }
+        openFiles.sort(Comparator.naturalOrder());
+        for (int i = 0; i < openFiles.size(); i++) {
+            Path p = openFiles.get(i);
+            long partitionNo = ArchiveSegment.partitionOf(p);
+            if (sealed.containsKey(partitionNo)) {
+                // Crashed after sealing but before removing the open file
+                Files.delete(p);
+                continue;
+            }
+            List<ArchivedTicket> tickets = new ArrayList<>();
+            long valid = readOpenFile(p, tickets);
+            for (ArchivedTicket t : tickets) openTickets.put(t.getTicketNo(), t);
+            openPartition = partitionNo;
+            openChannel = FileChannel.open(p, WRITE);
+            // Cut off a record torn by a crash so new records follow the last intact one
+            openChannel.truncate(valid);
+            openChannel.position(valid);
+            // Only the newest open file stays open; older ones are left over from a crash
+            if (i < openFiles.size() - 1) seal();
+        }
+    }
+
+    /**
+     * Moves a closed ticket to the archive; the caller can drop it from memory afterwards.
+     */
+    public synchronized void archive(ParkingTicket t) throws IOException {
+        append(ArchivedTicket.of(t, System.currentTimeMillis()));
+    }
+
+    synchronized void append(ArchivedTicket t) throws IOException {
+        if (closed) throw new IllegalStateException("Ticket archive is closed");
+        // Tickets arriving late stay in the open partition; segment headers record the real exit range
+        long partitionNo = Math.max(t.getExitMillis() / partitionMillis, openPartition);
+        if (partitionNo != openPartition) {
+            seal();
+            openPartition = partitionNo;
+            openChannel = FileChannel.open(dir.resolve(openFileName(partitionNo)), CREATE_NEW, WRITE);
+        }
+        int bodyLength = t.encodedSize();
+        ByteBuffer buf = ByteBuffer.allocate(FRAME_HEADER + bodyLength);
+        buf.position(FRAME_HEADER);
+        t.writeTo(buf);
+        crc.reset();
+        crc.update(buf.array(), FRAME_HEADER, bodyLength);
+        buf.putInt(0, bodyLength);
+        buf.putInt(4, (int) crc.getValue());
+        buf.flip();
+        while (buf.hasRemaining()) openChannel.write(buf);
+        openTickets.put(t.getTicketNo(), t);
+    }
+
+    /**
+     * Forces appended tickets to disk.
+     */
+    public synchronized void flush() throws IOException {
+        if (openChannel != null) openChannel.force(false);
+    }
+
+    /**
+     * Seals the open partition once the clock has moved past it, so a quiet lot does not keep
+     * an old partition in memory until the next ticket closes.
+     */
+    public synchronized void rollover(long nowMillis) throws IOException {
+        if (openChannel != null && nowMillis / partitionMillis > openPartition) seal();
+    }
+
+    public ArchivedTicket find(long ticketNo) throws IOException {
+        synchronized (this) {
+            ArchivedTicket t = openTickets.get(ticketNo);
+            if (t != null) return t;
+        }
+        // A ticket closes no earlier than it was issued
+        long issuedPartition = TicketIdGenerator.timestampOf(ticketNo) / partitionMillis;
+        for (ArchiveSegment s : sealed.tailMap(issuedPartition, true).values()) {
+            ArchivedTicket t = s.find(ticketNo);
+            if (t != null) return t;
+        }
+        return null;
+    }
+
+    /**
+     * Visits every archived ticket that exited in [fromMillis, toMillis), oldest partition first.
+     */
+    public void scan(long fromMillis, long toMillis, Consumer<ArchivedTicket> consumer) throws IOException {
+        for (ArchiveSegment s : sealed.values()) {
+            if (!s.overlaps(fromMillis, toMillis)) continue;
+            s.forEach(t -> {
+                if (t.getExitMillis() >= fromMillis && t.getExitMillis() < toMillis) consumer.accept(t);
+            });
+        }
+        List<ArchivedTicket> open;
+        synchronized (this) {
+            open = new ArrayList<>(openTickets.values());
+        }
+        for (ArchivedTicket t : open) {
+            if (t.getExitMillis() >= fromMillis && t.getExitMillis() < toMillis) consumer.accept(t);
+        }
+    }
+
+    public List<ArchivedTicket> findByExitTime(long fromMillis, long toMillis) throws IOException {
+        List<ArchivedTicket> found = new ArrayList<>();
+        scan(fromMillis, toMillis, found::add);
+        return found;
+    }
+
+    public int getSealedSegmentCount() {
+        return sealed.size();
+    }
+
+    public synchronized int getOpenTicketCount() {
+        return openTickets.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (openChannel == null) return;
+        // The open partition is picked up again on the next start
+        openChannel.force(false);
+        openChannel.close();
+        openChannel = null;
+    }
+
+    private void seal() throws IOException {
+        if (openChannel == null) return;
+        List<ArchivedTicket> sorted = new ArrayList<>(openTickets.values());
+        sorted.sort(Comparator.comparingLong(ArchivedTicket::getTicketNo));
+        ArchiveSegment s = ArchiveSegment.write(dir, openPartition, sorted);
+        sealed.put(openPartition, s);
+        openChannel.close();
+        openChannel = null;
+        Files.delete(dir.resolve(openFileName(openPartition)));
+        openTickets.clear();
+    }
+
+    private static String openFileName(long partition) {
+        return String.format("tickets-%020d%s", partition, OPEN_SUFFIX);
+    }
+
+    /**
+     * Reads the framed tickets of an open partition, stopping at the first record that was cut
+     * short or whose body does not match its checksum, and returns the length of the intact prefix.
+     */
+    private static long readOpenFile(Path p, List<ArchivedTicket> tickets) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(p));
+        CRC32 crc = new CRC32();
+        while (buf.remaining() >= FRAME_HEADER) {
+            int start = buf.position();
+            int length = buf.getInt();
+            int checksum = buf.getInt();
+            if (length < ArchivedTicket.FIXED_BYTES || length > buf.remaining()) {
+                buf.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(buf.array(), start + FRAME_HEADER, length);
+            if ((int) crc.getValue() != checksum) {
+                buf.position(start);
+                break;
+            }
+            tickets.add(ArchivedTicket.readFrom(buf.slice(buf.position(), length)));
+            buf.position(start + FRAME_HEADER + length);
+        }
+        return buf.position();
+    }
+}
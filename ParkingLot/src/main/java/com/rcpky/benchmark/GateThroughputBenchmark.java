@@ -0,0 +1,145 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.SpotFactory;
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.patterns.ThreadSafeParkingLot.ParkingException;
+import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures park/free throughput of ThreadSafeParkingLot as the number of concurrent gates grows.
+ * Each gate parks its share of vehicles and frees them again, for a few rounds. The "global lock"
+ * column wraps every call in one lock, which is how the lot behaved before allocation went lock-free.
+ */
+public class GateThroughputBenchmark {
+    private static final int SPOTS = 100_000;
+    private static final int VEHICLES = 40_000;
+    private static final int ROUNDS = 3;
+    private static final int[] GATES = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws InterruptedException {
+        PrintStream out = System.out;
+        // Spots and tickets log every allocation; keep that I/O (and its lock) out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void println(String x) {}
+        });
+
+        ThreadSafeParkingLot lot = ThreadSafeParkingLot.getInstance();
+        for (int i = 0; i < SPOTS; i++) lot.addSpot(SpotFactory.createSpot(typeOf(i)));
+        lot.addObserver(new WorkingObserver());
+        Vehicle[] vehicles = new Vehicle[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) vehicles[i] = vehicle(i);
+
+        run(lot, vehicles, 4, null);
+        out.printf("%-6s %18s %18s%n", "Gates", "Lock-free ops/s", "Global lock ops/s");
+        for (int gates : GATES) {
+            double lockFree = run(lot, vehicles, gates, null);
+            double globalLock = run(lot, vehicles, gates, new ReentrantLock());
+            out.printf("%-6d %18.0f %18.0f%n", gates, lockFree, globalLock);
+        }
+        System.setOut(out);
+    }
+
+    private static double run(ThreadSafeParkingLot lot, Vehicle[] vehicles, int gates, ReentrantLock globalLock)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(gates);
+        int share = vehicles.length / gates;
+        for (int g = 0; g < gates; g++) {
+            int from = g * share;
+            Thread gate = new Thread(() -> {
+                int[] spotIds = new int[share];
+                try {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < share; i++) spotIds[i] = park(lot, vehicles[from + i], globalLock);
+                        for (int i = 0; i < share; i++) free(lot, spotIds[i], globalLock);
+                    }
+                } catch (InterruptedException | ParkingException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "gate-" + g);
+            gate.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return 2.0 * ROUNDS * share * gates / (elapsed / 1e9);
+    }
+
+    private static int park(ThreadSafeParkingLot lot, Vehicle v, ReentrantLock globalLock) throws ParkingException {
+        if (globalLock == null) return lot.parkVehicle(v).getSlotNo();
+        globalLock.lock();
+        try {
+            ParkingTicket t = lot.parkVehicle(v);
+            return t.getSlotNo();
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private static void free(ThreadSafeParkingLot lot, int spotId, ReentrantLock globalLock) {
+        if (globalLock == null) {
+            lot.freeSlot(spotId);
+            return;
+        }
+        globalLock.lock();
+        try {
+            lot.freeSlot(spotId);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private static ParkingSpotType typeOf(int i) {
+        switch (i % 10) {
+            case 0: return ParkingSpotType.LARGE;
+            case 1: return ParkingSpotType.MOTORCYCLE;
+            case 2: return ParkingSpotType.HANDICAPPED;
+            default: return ParkingSpotType.COMPACT;
+        }
+    }
+
+    private static Vehicle vehicle(int i) {
+        switch (i % 10) {
+            case 0: return new Truck("TR-" + i);
+            case 1: return new Motorcycle("MC-" + i);
+            case 2: return new Van("VN-" + i);
+            default: return new Car("CR-" + i);
+        }
+    }
+
+    /**
+     * Stands in for an observer that does a little work per event, like formatting a message.
+     */
+    private static class WorkingObserver implements ParkingObserver {
+        private volatile long sink;
+
+        @Override
+        public void onSpotTaken(int spotId) {
+            sink += work(spotId);
+        }
+
+        @Override
+        public void onSpotFreed(int spotId) {
+            sink -= work(spotId);
+        }
+
+        private static long work(int spotId) {
+            long h = spotId;
+            for (int i = 0; i < 200; i++) h = h * 31 + i;
+            return h;
+        }
+    }
+}
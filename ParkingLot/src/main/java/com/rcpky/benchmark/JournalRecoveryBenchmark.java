@@ -0,0 +1,75 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.journal.JournalEntry;
+import com.rcpky.journal.ParkingJournal;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Vehicle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long a restart takes to recover the open tickets from a million-event journal,
+ * replaying every segment versus loading the latest snapshot and replaying only its tail.
+ */
+public class JournalRecoveryBenchmark {
+    private static final int EVENTS = 1_000_000;
+    private static final int SPOTS = 150_000;
+    private static final int SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-22s %12s %12s %14s %14s%n", "Mode", "Append ms", "Recover ms", "From snapshot", "Open tickets");
+        run("Full replay", Integer.MAX_VALUE);
+        run("Snapshot + tail", 100_000);
+    }
+
+    private static void run(String mode, int snapshotEvery) throws IOException {
+        Path dir = Files.createTempDirectory("parking-journal");
+        try {
+            long appendNanos;
+            try (ParkingJournal journal = new ParkingJournal(dir, SEGMENT_BYTES, Duration.ofMillis(5), snapshotEvery)) {
+                appendNanos = write(journal);
+            }
+
+            long start = System.nanoTime();
+            try (ParkingJournal recovered = new ParkingJournal(dir, SEGMENT_BYTES, Duration.ofMillis(5), snapshotEvery)) {
+                long recoverNanos = System.nanoTime() - start;
+                System.out.printf("%-22s %12d %12d %14d %14d%n", mode, appendNanos / 1_000_000, recoverNanos / 1_000_000,
+                        recovered.getRecoveredFromSnapshot(), recovered.getRecoveredEntries().size());
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * Cycles through the spots, parking a car in a free spot and freeing an occupied one.
+     */
+    private static long write(ParkingJournal journal) {
+        boolean[] occupied = new boolean[SPOTS];
+        Vehicle car = new Car("KA-01-HH-1234");
+        long now = System.currentTimeMillis();
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            int spot = (int) ((i * 2_654_435_761L) % SPOTS);
+            if (occupied[spot]) {
+                journal.append(JournalEntry.freed(spot));
+            } else {
+                journal.append(JournalEntry.parked(spot, i, car, now));
+            }
+            occupied[spot] = !occupied[spot];
+        }
+        journal.awaitDurable(journal.getLastSeq());
+        return System.nanoTime() - start;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
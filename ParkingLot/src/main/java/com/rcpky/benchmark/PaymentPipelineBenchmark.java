@@ -0,0 +1,69 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.enums.PaymentStatus;
+import com.rcpky.payments.CircuitBreaker;
+import com.rcpky.payments.CreditCard;
+import com.rcpky.payments.Payment;
+import com.rcpky.payments.PaymentProcessor;
+import com.rcpky.payments.SimulatedGateway;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Car;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes an evening rush of card payments, arriving at 2,000 per second, through the
+ * PaymentProcessor against a simulated gateway with 50-100 ms latency, 2% of calls hanging
+ * past the timeout and 5% transient failures, then takes the gateway down to show the
+ * circuit breaker failing payments fast.
+ */
+public class PaymentPipelineBenchmark {
+    private static final String CARD = "4111111111111111";
+    private static final long ARRIVAL_INTERVAL_NANOS = 500_000;
+
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        SimulatedGateway gateway = new SimulatedGateway(Duration.ofMillis(50), Duration.ofSeconds(2), 0.02, 0.05);
+        CircuitBreaker breaker = new CircuitBreaker(50, Duration.ofSeconds(1));
+        try (PaymentProcessor processor = new PaymentProcessor(gateway, Duration.ofMillis(300), 3, Duration.ofMillis(20),
+                breaker, 100, Duration.ofMillis(200))) {
+            long start = System.nanoTime();
+            int paid = run(processor, payments);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%,d payments in %,d ms: %,d authorized, %,d failed | retries %,d, timeouts %,d%n",
+                    payments, millis, paid, payments - paid, processor.getRetries(), processor.getTimeouts());
+
+            gateway.setDown(true);
+            int paidWhileDown = run(processor, 500);
+            System.out.printf("Gateway down: %d of 500 authorized, %,d failed fast by the open circuit (%s, opened %d times)%n",
+                    paidWhileDown, processor.getRejected(), breaker.getState(), breaker.getTimesOpened());
+
+            gateway.setDown(false);
+            Thread.sleep(1_100);
+            int paidAfter = run(processor, 500);
+            System.out.printf("Gateway back: %d of 500 authorized, circuit %s%n", paidAfter, breaker.getState());
+        }
+        System.out.printf("Settled %,d payments in %,d gateway calls%n", gateway.getSettledCharges(), gateway.getSettlementCalls());
+    }
+
+    private static int run(PaymentProcessor processor, int payments) {
+        List<CompletableFuture<Payment>> pending = new ArrayList<>(payments);
+        long start = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            LockSupport.parkNanos(start + i * ARRIVAL_INTERVAL_NANOS - System.nanoTime());
+            ParkingTicket ticket = new ParkingTicket(i, i, new Car("KA-" + i), new Date());
+            pending.add(processor.charge(ticket, new CreditCard(4 + i % 20), CARD));
+        }
+        int paid = 0;
+        for (CompletableFuture<Payment> f : pending) {
+            Payment p = f.exceptionally(e -> null).join();
+            if (p != null && p.getStatus() != PaymentStatus.FAILED) paid++;
+        }
+        return paid;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.models.ParkingRate;
+import com.rcpky.reporting.ReportingEngine;
+import com.rcpky.reporting.TicketHistory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the month-end reports over a synthetic month of closed tickets (50 million by default,
+ * pass another count as the first argument) with one thread and with the common fork-join pool.
+ * Needs about 14 bytes of heap per ticket.
+ */
+public class ReportingBenchmark {
+    private static final long DAY = 24 * 3600_000L;
+
+    public static void main(String[] args) {
+        int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        long monthStart = System.currentTimeMillis() / DAY * DAY - 30 * DAY;
+        long monthEnd = monthStart + 30 * DAY;
+
+        long start = System.nanoTime();
+        TicketHistory history = generate(tickets, monthStart);
+        System.out.printf("Loaded %,d tickets in %d ms%n", history.size(), (System.nanoTime() - start) / 1_000_000);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        run("1 thread", new ReportingEngine(history, single), monthStart, monthEnd);
+        run("pool(" + ForkJoinPool.getCommonPoolParallelism() + ")", new ReportingEngine(history), monthStart, monthEnd);
+        single.shutdown();
+    }
+
+    private static TicketHistory generate(int tickets, long monthStart) {
+        TicketHistory history = new TicketHistory();
+        ParkingRate rate = new ParkingRate();
+        SplittableRandom random = new SplittableRandom(42);
+        ParkingSpotType[] spotTypes = ParkingSpotType.values();
+        VehicleType[] vehicleTypes = VehicleType.values();
+        for (int i = 0; i < tickets; i++) {
+            long entry = monthStart + random.nextLong(30 * DAY);
+            // Mostly short visits with a tail of all-day stays
+            long stay = (long) (600_000 * Math.exp(random.nextDouble() * 4));
+            double fee = rate.calculate(stay / 3600_000.0, null, null);
+            history.add(entry, entry + stay, fee, spotTypes[random.nextInt(spotTypes.length)],
+                    vehicleTypes[random.nextInt(vehicleTypes.length)]);
+        }
+        return history;
+    }
+
+    private static void run(String label, ReportingEngine engine, long from, long to) {
+        long start = System.nanoTime();
+        double[][] revenue = engine.revenueByHourAndType(from, to);
+        long revenueMillis = (System.nanoTime() - start) / 1_000_000;
+        double total = 0;
+        for (double[] hour : revenue) for (double r : hour) total += r;
+
+        start = System.nanoTime();
+        double averageStay = engine.averageStayMinutes(from, to);
+        long stayMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        ReportingEngine.OccupancyPeak peak = engine.peakOccupancy(from, to);
+        long peakMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%-10s revenue by hour/type %5d ms ($%,.2f) | average stay %5d ms (%.1f min) | peak occupancy %5d ms (%,d vehicles)%n",
+                label, revenueMillis, total, stayMillis, averageStay, peakMillis, peak.getVehicles());
+    }
+}
@@ -0,0 +1,68 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.SpotFactory;
+import com.rcpky.reservations.ReservationBook;
+import com.rcpky.spots.ParkingSpot;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Books a month of 1-4 hour stays into 10,000 compact spots, then asks how many spots are free
+ * in random evening windows, once from the per-type timeline and once by checking every spot
+ * for an overlapping reservation, which is what answering it without the timeline takes.
+ * The two count slightly differently: the timeline counts spots unreserved at the busiest
+ * moment, the scan spots unreserved throughout.
+ */
+public class ReservationBenchmark {
+    private static final int SPOTS = 10_000;
+    private static final int BOOKINGS = 400_000;
+    private static final int QUERIES = 20_000;
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    public static void main(String[] args) {
+        List<ParkingSpot> spots = new ArrayList<>(SPOTS);
+        for (int i = 0; i < SPOTS; i++) spots.add(SpotFactory.createSpot(ParkingSpotType.COMPACT));
+        ReservationBook book = new ReservationBook(spots, Duration.ofMinutes(15), Duration.ofDays(31));
+        long base = System.currentTimeMillis() / HOUR * HOUR + HOUR;
+        SplittableRandom random = new SplittableRandom(7);
+
+        long start = System.nanoTime();
+        int booked = 0;
+        for (int i = 0; i < BOOKINGS; i++) {
+            long from = base + random.nextLong(30 * 24) * HOUR;
+            if (book.book(ParkingSpotType.COMPACT, "BK-" + i, from, from + (1 + random.nextInt(4)) * HOUR) != null) booked++;
+        }
+        long bookNanos = System.nanoTime() - start;
+        System.out.printf("Booked %,d of %,d requests in %,d ms (%.1f us per booking)%n",
+                booked, BOOKINGS, bookNanos / 1_000_000, bookNanos / 1e3 / BOOKINGS);
+
+        long[] windows = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) windows[i] = base + random.nextLong(29) * 24 * HOUR + 17 * HOUR;
+
+        long sink = 0;
+        start = System.nanoTime();
+        for (long from : windows) sink += book.freeBetween(ParkingSpotType.COMPACT, from, from + 3 * HOUR);
+        long timelineNanos = System.nanoTime() - start;
+
+        int scanned = QUERIES / 100;
+        start = System.nanoTime();
+        for (int i = 0; i < scanned; i++) sink += countUnreserved(book, spots, windows[i], windows[i] + 3 * HOUR);
+        long scanNanos = System.nanoTime() - start;
+
+        System.out.printf("Free spots 17:00-20:00: timeline %.2f us per query, per-spot scan %.1f us per query (sink %d)%n",
+                timelineNanos / 1e3 / QUERIES, scanNanos / 1e3 / scanned, sink);
+    }
+
+    // Spots without any reservation overlapping the window
+    private static int countUnreserved(ReservationBook book, List<ParkingSpot> spots, long from, long to) {
+        int free = 0;
+        for (ParkingSpot s : spots) {
+            if (book.isSpotFree(s.getId(), from, to)) free++;
+        }
+        return free;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.tariff.CompiledTariff;
+import com.rcpky.tariff.Tariff;
+
+import java.util.SplittableRandom;
+
+/**
+ * Times pricing a million exits with the compiled tariff, one call per exit and as one batch,
+ * against the hard-coded hourly ladder ParkingRate.calculate used before. The ladder ignores
+ * vehicle, spot and time of day, so it is the floor for any per-exit computation.
+ * Each variant is warmed up before it is measured.
+ */
+public class TariffBenchmark {
+    private static final int EXITS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(7);
+        long now = System.currentTimeMillis();
+        long[] entry = new long[EXITS];
+        long[] exit = new long[EXITS];
+        byte[] vehicleTypes = new byte[EXITS];
+        byte[] spotTypes = new byte[EXITS];
+        for (int i = 0; i < EXITS; i++) {
+            exit[i] = now - random.nextLong(24 * 3600_000L);
+            // Up to three days, mostly a few hours
+            entry[i] = exit[i] - (long) (600_000 * Math.exp(random.nextDouble() * 6));
+            vehicleTypes[i] = (byte) random.nextInt(VehicleType.values().length);
+            spotTypes[i] = (byte) random.nextInt(ParkingSpotType.values().length);
+        }
+        CompiledTariff tariff = Tariff.standard().compile();
+        VehicleType[] vehicles = VehicleType.values();
+        ParkingSpotType[] spots = ParkingSpotType.values();
+
+        measure("Hourly ladder (old ParkingRate)", () -> {
+            double total = 0;
+            for (int i = 0; i < EXITS; i++) total += ladder((exit[i] - entry[i]) / 3600_000.0);
+            return total;
+        });
+        measure("Compiled tariff, per exit", () -> {
+            double total = 0;
+            for (int i = 0; i < EXITS; i++) total += tariff.fee(vehicles[vehicleTypes[i]], spots[spotTypes[i]], entry[i], exit[i]);
+            return total;
+        });
+        measure("Compiled tariff, batch", () -> {
+            double total = 0;
+            for (double fee : tariff.feeAll(entry, exit, vehicleTypes, spotTypes)) total += fee;
+            return total;
+        });
+    }
+
+    private static void measure(String label, Run run) {
+        double sink = 0;
+        for (int i = 0; i < ROUNDS; i++) sink += run.prices();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) sink += run.prices();
+        double nanosPerExit = (double) (System.nanoTime() - start) / ROUNDS / EXITS;
+        System.out.printf("%-34s %8.1f ns/exit (checksum %.0f)%n", label, nanosPerExit, sink);
+    }
+
+    // ParkingRate.calculate before the tariff engine replaced it
+    private static double ladder(double hours) {
+        int hrs = (int) Math.ceil(hours);
+        double fee = 0;
+        if (hrs >= 1) fee += 4;
+        if (hrs >= 2) fee += 3.5;
+        if (hrs >= 3) fee += 3.5;
+        if (hrs > 3) fee += (hrs - 3) * 2.5;
+        return fee;
+    }
+
+    private interface Run {
+        double prices();
+    }
+}
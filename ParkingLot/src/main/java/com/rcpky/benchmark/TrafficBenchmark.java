@@ -0,0 +1,147 @@
+package com.rcpky.benchmark;
+
+import com.rcpky.analytics.OccupancyAnalytics;
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.patterns.SpotFactory;
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.simulation.ArrivalProcess;
+import com.rcpky.simulation.DwellTime;
+import com.rcpky.simulation.SimulationConfig;
+import com.rcpky.simulation.SimulationReport;
+import com.rcpky.simulation.TrafficSimulator;
+import com.rcpky.simulation.VehicleMix;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Headless load test of ThreadSafeParkingLot through the TrafficSimulator. Settings are given as
+ * key=value arguments, e.g.
+ * <pre>
+ *   entrances=8 exits=8 rate=3000 rush=9000 stay=2000 dwell=lognormal format=csv
+ * </pre>
+ * Keys: spots, entrances, exits, seconds, warmup (seconds, discarded), rate (arrivals/s),
+ * rush (peak arrivals/s for 2 s of every 10 s), dwell (exponential, lognormal or fixed),
+ * stay (mean or median stay in ms), sigma (lognormal spread), mix (e.g. car:70,truck:10),
+ * seed, format (text or csv), header (false to leave out the csv header line) and analytics
+ * (true to keep OccupancyAnalytics subscribed during the run and print its figures afterwards).
+ * The csv format prints one line per run, so results of different builds can be appended to one file.
+ */
+public class TrafficBenchmark {
+    private static final Duration RUSH_CYCLE = Duration.ofSeconds(10);
+    private static final Duration RUSH_LENGTH = Duration.ofSeconds(2);
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value but got " + arg);
+            options.put(arg.substring(0, eq).toLowerCase(Locale.ROOT), arg.substring(eq + 1));
+        }
+        SimulationConfig config = configure(options);
+        int spots = Integer.parseInt(options.getOrDefault("spots", "20000"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        boolean csv = "csv".equalsIgnoreCase(options.getOrDefault("format", "text"));
+
+        PrintStream out = System.out;
+        // Spots and tickets log every allocation; keep that I/O (and its lock) out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void println(String x) {}
+        });
+
+        ThreadSafeParkingLot lot = ThreadSafeParkingLot.getInstance();
+        for (int i = 0; i < spots; i++) lot.addSpot(SpotFactory.createSpot(typeOf(i)));
+
+        OccupancyAnalytics analytics = null;
+        if (Boolean.parseBoolean(options.getOrDefault("analytics", "false"))) {
+            // The simulation compresses stays to seconds, so one-second buckets stand in for minutes
+            analytics = new OccupancyAnalytics(lot.getAllSpots(), Duration.ofSeconds(1), 60);
+            lot.addObserver(analytics);
+        }
+        if (warmupSeconds > 0) {
+            Duration measured = config.getDuration();
+            config.setDuration(Duration.ofSeconds(warmupSeconds));
+            TrafficSimulator warmup = new TrafficSimulator(lot, config);
+            warmup.run();
+            warmup.sendAwayRemaining();
+            config.setDuration(measured);
+        }
+        TrafficSimulator simulator = new TrafficSimulator(lot, config);
+        SimulationReport report = simulator.run();
+
+        if (csv) {
+            if (Boolean.parseBoolean(options.getOrDefault("header", "true"))) out.println(SimulationReport.csvHeader());
+            out.println(report.toCsv());
+        } else {
+            out.print(report);
+        }
+        if (analytics != null) printAnalytics(out, analytics, config.getDuration());
+        System.setOut(out);
+    }
+
+    private static void printAnalytics(PrintStream out, OccupancyAnalytics analytics, Duration run) {
+        Duration[] windows = {Duration.ofSeconds(5), Duration.ofSeconds(15), run};
+        out.printf("%-12s %-8s %10s %16s %12s%n", "Spot type", "Window", "Occupancy", "Turnover/spot/h", "Avg stay ms");
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            for (Duration w : windows) {
+                out.printf("%-12s %-8s %9.1f%% %16.0f %12d%n", type, w.toSeconds() + " s", 100 * analytics.occupancy(type, w),
+                        analytics.turnover(type, w), analytics.averageDwell(type, w).toMillis());
+            }
+        }
+    }
+
+    private static SimulationConfig configure(Map<String, String> options) {
+        SimulationConfig config = new SimulationConfig();
+        config.setEntrances(Integer.parseInt(options.getOrDefault("entrances", "4")));
+        config.setExits(Integer.parseInt(options.getOrDefault("exits", "4")));
+        config.setDuration(Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "10"))));
+        config.setSeed(Long.parseLong(options.getOrDefault("seed", "42")));
+
+        double rate = Double.parseDouble(options.getOrDefault("rate", "2000"));
+        config.setArrivals(options.containsKey("rush")
+                ? ArrivalProcess.rushHour(rate, Double.parseDouble(options.get("rush")), RUSH_CYCLE, RUSH_LENGTH)
+                : ArrivalProcess.poisson(rate));
+
+        Duration stay = Duration.ofMillis(Long.parseLong(options.getOrDefault("stay", "2000")));
+        String dwell = options.getOrDefault("dwell", "exponential").toLowerCase(Locale.ROOT);
+        switch (dwell) {
+            case "exponential":
+                config.setDwellTime(DwellTime.exponential(stay));
+                break;
+            case "lognormal":
+                config.setDwellTime(DwellTime.logNormal(stay, Double.parseDouble(options.getOrDefault("sigma", "0.5"))));
+                break;
+            case "fixed":
+                config.setDwellTime(DwellTime.fixed(stay));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown dwell time distribution: " + dwell);
+        }
+
+        if (options.containsKey("mix")) {
+            Map<VehicleType, Double> weights = new EnumMap<>(VehicleType.class);
+            for (String part : options.get("mix").split(",")) {
+                String[] kv = part.split(":");
+                weights.put(VehicleType.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), Double.parseDouble(kv[1]));
+            }
+            config.setVehicleMix(new VehicleMix(weights));
+        }
+        return config;
+    }
+
+    private static ParkingSpotType typeOf(int i) {
+        switch (i % 10) {
+            case 0: return ParkingSpotType.LARGE;
+            case 1: return ParkingSpotType.MOTORCYCLE;
+            case 2: return ParkingSpotType.HANDICAPPED;
+            default: return ParkingSpotType.COMPACT;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.rcpky.display;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.spots.ParkingSpot;
+import com.rcpky.spots.SpotAvailability;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -9,8 +11,17 @@ import java.util.Map;
 public class DisplayBoard {
     private int id;
     private Map<String, Integer> freeCount = new HashMap<>();
+    // Live per-type counters of the lot this board is attached to, read on every show
+    private volatile SpotAvailability availability;
     public DisplayBoard(int id) { this.id = id; }
-    public void update(Collection<ParkingSpot> spots) {
+
+    /**
+     * Attaches the board to a lot's counters; the board then always shows current counts
+     * without the lot pushing updates or anyone rescanning spots.
+     */
+    public void attach(SpotAvailability availability) { this.availability = availability; }
+
+    public synchronized void update(Collection<ParkingSpot> spots) {
         freeCount.clear();
         for (ParkingSpot s : spots) {
             if (s.isFree()) {
@@ -19,9 +30,19 @@ public class DisplayBoard {
             }
         }
     }
-    public void showFreeSlot() {
+    public long getFreeCount(ParkingSpotType type) {
+        SpotAvailability counts = availability;
+        return counts == null ? 0 : counts.freeCount(type);
+    }
+    public synchronized void showFreeSlot() {
         System.out.println("\nFree slots by type:");
         System.out.printf("%-15s %s%n", "Type", "Count");
+        SpotAvailability counts = availability;
+        if (counts != null) {
+            for (Map.Entry<ParkingSpotType, Long> e : counts.snapshot().entrySet())
+                System.out.printf("%-15s %d%n", e.getKey(), e.getValue());
+            return;
+        }
         for (String type : freeCount.keySet())
             System.out.printf("%-15s %d%n", type, freeCount.get(type));
     }
@@ -0,0 +1,13 @@
+package com.rcpky.enums;
+
+/**
+ * What asynchronous event dispatch does when a consumer falls behind
+ */
+public enum BackpressurePolicy {
+    // Discard the event and count it
+    DROP,
+    // Wait until the consumer makes room
+    BLOCK,
+    // Keep only the latest pending state per spot
+    COALESCE
+}
@@ -0,0 +1,13 @@
+package com.rcpky.enums;
+
+/**
+ * State of a circuit breaker guarding calls to an external service
+ */
+public enum CircuitState {
+    // Calls go through; consecutive failures are counted
+    CLOSED,
+    // Calls fail fast until the open period is over
+    OPEN,
+    // One trial call decides whether to close or reopen
+    HALF_OPEN
+}
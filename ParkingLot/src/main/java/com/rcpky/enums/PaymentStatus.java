@@ -4,5 +4,6 @@ public enum PaymentStatus {
     PENDING,
     INITIALIZED,
     COMPLETED,
+    SETTLED,
     FAILED
 }
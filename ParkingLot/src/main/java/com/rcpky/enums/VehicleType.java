@@ -0,0 +1,66 @@
+package com.rcpky.enums;
+
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Motorcycle;
+import com.rcpky.vehicles.Truck;
+import com.rcpky.vehicles.Van;
+import com.rcpky.vehicles.Vehicle;
+
+/**
+ * Enum representing the vehicle classes, for storage and reporting.
+ * The one mapping between vehicle classes and what the journal (a one-byte code) and the
+ * archive (the class name) store for them; both codes and labels are on disk, so never change them.
+ */
+public enum VehicleType {
+    CAR(1, "Car"),
+    TRUCK(2, "Truck"),
+    VAN(3, "Van"),
+    MOTORCYCLE(4, "Motorcycle");
+
+    private final byte code;
+    private final String label;
+
+    VehicleType(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    public byte getCode() { return code; }
+    public String getLabel() { return label; }
+
+    public static VehicleType of(Vehicle v) {
+        if (v instanceof Truck) return TRUCK;
+        if (v instanceof Van) return VAN;
+        if (v instanceof Motorcycle) return MOTORCYCLE;
+        return CAR;
+    }
+
+    /**
+     * Maps a journal code back to its type, defaulting to CAR.
+     */
+    public static VehicleType ofCode(byte code) {
+        for (VehicleType t : values()) {
+            if (t.code == code) return t;
+        }
+        return CAR;
+    }
+
+    /**
+     * Maps a vehicle class name such as "Truck" back to its type, defaulting to CAR.
+     */
+    public static VehicleType ofName(String simpleClassName) {
+        for (VehicleType t : values()) {
+            if (t.label.equalsIgnoreCase(simpleClassName)) return t;
+        }
+        return CAR;
+    }
+
+    public Vehicle create(String licenseNo) {
+        switch (this) {
+            case TRUCK: return new Truck(licenseNo);
+            case VAN: return new Van(licenseNo);
+            case MOTORCYCLE: return new Motorcycle(licenseNo);
+            default: return new Car(licenseNo);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.rcpky.facility;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.ParkingEventManager;
+import com.rcpky.patterns.ThreadSafeParkingLot.ParkingException;
+import com.rcpky.patterns.observer.SpotEvent;
+import com.rcpky.spots.FreeSpotIndex;
+import com.rcpky.spots.ParkingSpot;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.tickets.TicketIdGenerator;
+import com.rcpky.tickets.TicketStore;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A multi-level site made of independent ParkingLevel shards.
+ * Unlike the singleton lots, any number of facilities can live in one JVM. Requests are routed
+ * to the caller's preferred level when it has room, otherwise to the least-loaded level for the
+ * spot type. Facility-wide availability is the sum of the levels' counters, read without locking.
+ */
+public class ParkingFacility {
+    private final String name;
+    private final NavigableMap<Integer, ParkingLevel> levels = new ConcurrentSkipListMap<>();
+    private final Map<Integer, ParkingLevel> levelBySpot = new ConcurrentHashMap<>();
+    private final TicketStore tickets = new TicketStore();
+    private final TicketIdGenerator ticketIds;
+    private final ParkingEventManager eventManager = new ParkingEventManager();
+
+    public ParkingFacility(String name) {
+        this(name, TicketIdGenerator.getDefault());
+    }
+
+    /**
+     * Facility whose tickets are numbered by the given node's generator, e.g. one node id per site.
+     */
+    public ParkingFacility(String name, TicketIdGenerator ticketIds) {
+        this.name = name;
+        this.ticketIds = ticketIds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ParkingLevel addLevel(int levelNumber) {
+        ParkingLevel level = new ParkingLevel(levelNumber);
+        if (levels.putIfAbsent(levelNumber, level) != null) {
+            throw new IllegalArgumentException("Level " + levelNumber + " already exists in " + name);
+        }
+        return level;
+    }
+
+    public void addSpot(int levelNumber, ParkingSpot s) {
+        ParkingLevel level = getLevel(levelNumber);
+        level.addSpot(s);
+        levelBySpot.put(s.getId(), level);
+    }
+
+    public ParkingLevel getLevel(int levelNumber) {
+        ParkingLevel level = levels.get(levelNumber);
+        if (level == null) throw new IllegalArgumentException("Unknown level " + levelNumber + " in " + name);
+        return level;
+    }
+
+    public Collection<ParkingLevel> getLevels() {
+        return levels.values();
+    }
+
+    /**
+     * Level a spot belongs to, or null if the spot is not part of this facility.
+     */
+    public ParkingLevel levelOf(int spotId) {
+        return levelBySpot.get(spotId);
+    }
+
+    public ParkingEventManager getEventManager() {
+        return eventManager;
+    }
+
+    public ParkingTicket parkVehicle(Vehicle v) throws ParkingException {
+        return park(v, null);
+    }
+
+    /**
+     * Parks on the preferred level if it has a fitting spot, otherwise on the least-loaded level.
+     */
+    public ParkingTicket parkVehicle(Vehicle v, int preferredLevel) throws ParkingException {
+        return park(v, getLevel(preferredLevel));
+    }
+
+    public ParkingTicket getTicket(long ticketNo) {
+        return tickets.getByTicketNo(ticketNo);
+    }
+
+    /**
+     * Ticket of the vehicle with this plate while it is parked, which tells its level and spot.
+     */
+    public ParkingTicket findTicketByPlate(String licenseNo) {
+        return tickets.getByPlate(licenseNo);
+    }
+
+    public void freeSlot(int spotId) {
+        ParkingLevel level = levelBySpot.get(spotId);
+        ParkingTicket t = tickets.getBySpot(spotId);
+        if (level != null && level.free(spotId)) {
+            if (t != null) tickets.vacate(t);
+            eventManager.notify(SpotEvent.freed(level.getSpot(spotId), t));
+        }
+    }
+
+    public long getFreeCount(ParkingSpotType type) {
+        long free = 0;
+        for (ParkingLevel level : levels.values()) free += level.getFreeCount(type);
+        return free;
+    }
+
+    public int getCapacity(ParkingSpotType type) {
+        int total = 0;
+        for (ParkingLevel level : levels.values()) total += level.getCapacity(type);
+        return total;
+    }
+
+    private ParkingTicket park(Vehicle v, ParkingLevel preferred) throws ParkingException {
+        for (ParkingSpotType type : FreeSpotIndex.fittingTypes(v)) {
+            if (preferred != null) {
+                ParkingSpot s = preferred.allocate(v, type);
+                if (s != null) return issueTicket(s, v);
+            }
+            for (ParkingLevel level : leastLoadedFirst(type)) {
+                // Counters can be stale; a level that loses the race for its last spot just returns null
+                if (level == preferred || level.getFreeCount(type) <= 0) continue;
+                ParkingSpot s = level.allocate(v, type);
+                if (s != null) return issueTicket(s, v);
+            }
+        }
+        throw new ParkingException(name + " is full. No available spots for this vehicle type.");
+    }
+
+    private List<ParkingLevel> leastLoadedFirst(ParkingSpotType type) {
+        List<ParkingLevel> ordered = new ArrayList<>(levels.values());
+        ordered.sort(Comparator.comparingDouble((ParkingLevel l) -> l.freeRatio(type)).reversed());
+        return ordered;
+    }
+
+    private ParkingTicket issueTicket(ParkingSpot s, Vehicle v) {
+        ParkingTicket t = new ParkingTicket(ticketIds, s.getId(), v);
+        tickets.add(t);
+        eventManager.notify(SpotEvent.taken(s, t));
+        return t;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rcpky.facility;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.spots.FreeSpotIndex;
+import com.rcpky.spots.ParkingSpot;
+import com.rcpky.spots.SpotAvailability;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * One level of a ParkingFacility. Each level owns its spots, free lists and availability
+ * counters, so parking on one level never contends with parking on another.
+ */
+public class ParkingLevel {
+    private final int levelNumber;
+    private final Map<Integer, ParkingSpot> spots = new ConcurrentHashMap<>();
+    private final FreeSpotIndex freeSpots = new FreeSpotIndex();
+    private final AtomicIntegerArray capacity = new AtomicIntegerArray(ParkingSpotType.values().length);
+
+    public ParkingLevel(int levelNumber) {
+        this.levelNumber = levelNumber;
+    }
+
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    public void addSpot(ParkingSpot s) {
+        ParkingSpot replaced = spots.put(s.getId(), s);
+        if (replaced != null) {
+            freeSpots.remove(replaced);
+            capacity.decrementAndGet(replaced.getType().ordinal());
+        }
+        capacity.incrementAndGet(s.getType().ordinal());
+        freeSpots.add(s);
+    }
+
+    public ParkingSpot getSpot(int id) {
+        return spots.get(id);
+    }
+
+    public Collection<ParkingSpot> getAllSpots() {
+        return spots.values();
+    }
+
+    public ParkingSpot allocate(Vehicle v, ParkingSpotType type) {
+        return freeSpots.allocate(v, type);
+    }
+
+    public boolean free(int spotId) {
+        ParkingSpot s = spots.get(spotId);
+        return s != null && freeSpots.free(s);
+    }
+
+    public SpotAvailability getAvailability() {
+        return freeSpots.getAvailability();
+    }
+
+    public long getFreeCount(ParkingSpotType type) {
+        return freeSpots.getAvailability().freeCount(type);
+    }
+
+    public int getCapacity(ParkingSpotType type) {
+        return capacity.get(type.ordinal());
+    }
+
+    /**
+     * Share of this level's spots of the given type that are free, 0 if it has none.
+     */
+    public double freeRatio(ParkingSpotType type) {
+        int total = getCapacity(type);
+        return total == 0 ? 0 : (double) getFreeCount(type) / total;
+    }
+}
@@ -0,0 +1,95 @@
+package com.rcpky.journal;
+
+import com.rcpky.enums.VehicleType;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Vehicle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One journaled state change: a vehicle parked in a spot or a spot freed.
+ * Encoded as a compact fixed-layout body followed by the UTF-8 license plate.
+ */
+public class JournalEntry {
+    public static final byte PARKED = 1;
+    public static final byte FREED = 2;
+
+    // seq, type, spotId, ticketNo, time, vehicle kind, plate length
+    static final int FIXED_BYTES = 8 + 1 + 4 + 8 + 8 + 1 + 2;
+
+    private final long seq;
+    private final byte type;
+    private final int spotId;
+    private final long ticketNo;
+    private final long timeMillis;
+    private final byte vehicleKind;
+    private final String licenseNo;
+
+    JournalEntry(long seq, byte type, int spotId, long ticketNo, long timeMillis, byte vehicleKind, String licenseNo) {
+        this.seq = seq;
+        this.type = type;
+        this.spotId = spotId;
+        this.ticketNo = ticketNo;
+        this.timeMillis = timeMillis;
+        this.vehicleKind = vehicleKind;
+        this.licenseNo = licenseNo;
+    }
+
+    public static JournalEntry parked(ParkingTicket t) {
+        return parked(t.getSlotNo(), t.getTicketNo(), t.getVehicle(), t.getEntryTime().getTime());
+    }
+
+    public static JournalEntry parked(int spotId, long ticketNo, Vehicle v, long entryMillis) {
+        return new JournalEntry(0, PARKED, spotId, ticketNo, entryMillis, VehicleType.of(v).getCode(), v.getLicenseNo());
+    }
+
+    public static JournalEntry freed(int spotId) {
+        return new JournalEntry(0, FREED, spotId, 0, System.currentTimeMillis(), (byte) 0, "");
+    }
+
+    JournalEntry withSeq(long seq) {
+        return new JournalEntry(seq, type, spotId, ticketNo, timeMillis, vehicleKind, licenseNo);
+    }
+
+    public long getSeq() { return seq; }
+    public byte getType() { return type; }
+    public int getSpotId() { return spotId; }
+    public long getTicketNo() { return ticketNo; }
+    public long getTimeMillis() { return timeMillis; }
+    public String getLicenseNo() { return licenseNo; }
+
+    /**
+     * Rebuilds the parked vehicle; only meaningful for PARKED entries.
+     */
+    public Vehicle toVehicle() {
+        return VehicleType.ofCode(vehicleKind).create(licenseNo);
+    }
+
+    byte[] plateBytes() {
+        return licenseNo.getBytes(StandardCharsets.UTF_8);
+    }
+
+    void writeTo(ByteBuffer buf, byte[] plate) {
+        buf.putLong(seq);
+        buf.put(type);
+        buf.putInt(spotId);
+        buf.putLong(ticketNo);
+        buf.putLong(timeMillis);
+        buf.put(vehicleKind);
+        buf.putShort((short) plate.length);
+        buf.put(plate);
+    }
+
+    static JournalEntry readFrom(ByteBuffer buf) {
+        long seq = buf.getLong();
+        byte type = buf.get();
+        int spotId = buf.getInt();
+        long ticketNo = buf.getLong();
+        long time = buf.getLong();
+        byte kind = buf.get();
+        byte[] plate = new byte[buf.getShort() & 0xffff];
+        buf.get(plate);
+        return new JournalEntry(seq, type, spotId, ticketNo, time, kind, new String(plate, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.rcpky.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * One preallocated, memory-mapped journal file named after the sequence number of its first entry.
+ * Records are framed as [int body length][int CRC32 of body][body]; a zero length ends the segment,
+ * and a bad checksum marks a write torn by a crash, after which the segment is not read further.
+ */
+final class JournalSegment {
+    static final int FRAME_HEADER = 8;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final long firstSeq;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+
+    private JournalSegment(long firstSeq, Path path, MappedByteBuffer buffer) {
+        this.firstSeq = firstSeq;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path dir, long firstSeq, int sizeBytes) throws IOException {
+        Path path = dir.resolve(fileName(firstSeq));
+        try (FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return new JournalSegment(firstSeq, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes));
+        }
+    }
+
+    static String fileName(long firstSeq) {
+        return String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long firstSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    long getFirstSeq() {
+        return firstSeq;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Writes the entry; returns false if the segment has no room left for it. Callers serialize appends.
+     */
+    boolean append(JournalEntry entry) {
+        byte[] plate = entry.plateBytes();
+        int bodyLength = JournalEntry.FIXED_BYTES + plate.length;
+        int start = buffer.position();
+        // Always leave room for the zero length that ends the segment
+        if (start + FRAME_HEADER + bodyLength + 4 > buffer.capacity()) return false;
+        buffer.position(start + FRAME_HEADER);
+        entry.writeTo(buffer, plate);
+        crc.reset();
+        crc.update(buffer.slice(start + FRAME_HEADER, bodyLength));
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, bodyLength);
+        return true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Reads every intact entry of a segment file in order and returns the last sequence number seen, or -1.
+     */
+    static long replay(Path path, Consumer<JournalEntry> consumer) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        CRC32 crc = new CRC32();
+        long last = -1;
+        while (buf.remaining() >= FRAME_HEADER) {
+            int start = buf.position();
+            int bodyLength = buf.getInt();
+            int checksum = buf.getInt();
+            if (bodyLength < JournalEntry.FIXED_BYTES || bodyLength > buf.remaining()) break;
+            crc.reset();
+            crc.update(buf.slice(start + FRAME_HEADER, bodyLength));
+            if ((int) crc.getValue() != checksum) break;
+            JournalEntry entry = JournalEntry.readFrom(buf);
+            buf.position(start + FRAME_HEADER + bodyLength);
+            last = entry.getSeq();
+            consumer.accept(entry);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,402 @@
+package com.rcpky.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Event-sourced journal of parks and frees in segmented memory-mapped files.
+ * Appends are serialized in memory and made durable by group commit: one force covers every
+ * entry appended since the last one, so concurrent gates waiting for durability share a single
+ * disk flush. Every snapshotEvery entries the open tickets are written to a snapshot and the
+ * segments it covers are deleted. Opening a journal recovers the open tickets from the newest
+ * intact snapshot plus the entries after it.
+ */
+public class ParkingJournal implements AutoCloseable {
+    private static final int SNAPSHOT_MAGIC = 0x504A534E;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int snapshotEvery;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Guarded by appendLock
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Map<Integer, JournalEntry> openBySpot = new HashMap<>();
+    private JournalSegment current;
+    private long lastSeq;
+    private long sinceSnapshot;
+
+    private final List<JournalEntry> recovered;
+    private final long recoveredFromSnapshot;
+    private final Object durableMonitor = new Object();
+    private volatile long durableSeq;
+    private final ScheduledExecutorService committer;
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) the journal in dir and recovers its state.
+     *
+     * @param segmentBytes        size of each memory-mapped segment file
+     * @param groupCommitInterval how often appended entries are forced to disk when nobody is waiting
+     * @param snapshotEvery       entries between snapshots
+     */
+    public ParkingJournal(Path dir, int segmentBytes, Duration groupCommitInterval, int snapshotEvery) throws IOException {
+        if (snapshotEvery <= 0) throw new IllegalArgumentException("snapshotEvery must be positive");
+        // The committer is scheduled in whole microseconds, and a zero delay is rejected
+        long intervalMicros = groupCommitInterval.toNanos() / 1000;
+        if (intervalMicros < 1) throw new IllegalArgumentException("groupCommitInterval must be at least a microsecond");
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.snapshotEvery = snapshotEvery;
+
+        recoveredFromSnapshot = loadSnapshot();
+        lastSeq = recoveredFromSnapshot;
+        for (Path segment : listSegments()) {
+            long last = JournalSegment.replay(segment, e -> {
+                if (e.getSeq() > recoveredFromSnapshot) apply(e);
+            });
+            lastSeq = Math.max(lastSeq, last);
+            sealedSegments.add(segment);
+        }
+        recovered = Collections.unmodifiableList(new ArrayList<>(openBySpot.values()));
+        durableSeq = lastSeq;
+        sinceSnapshot = lastSeq - recoveredFromSnapshot;
+
+        // Appends always go to a fresh segment, so a torn tail left by a crash is never written over.
+        // A segment that starts after the last intact entry holds nothing worth keeping.
+        Path stale = dir.resolve(JournalSegment.fileName(lastSeq + 1));
+        sealedSegments.remove(stale);
+        Files.deleteIfExists(stale);
+        current = JournalSegment.create(dir, lastSeq + 1, segmentBytes);
+
+        committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-committer");
+            t.setDaemon(true);
+            return t;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Parked entries of the tickets that were open when the journal was last closed or crashed.
+     */
+    public List<JournalEntry> getRecoveredEntries() {
+        return recovered;
+    }
+
+    /**
+     * Sequence number of the snapshot recovery started from, 0 if there was none.
+     */
+    public long getRecoveredFromSnapshot() {
+        return recoveredFromSnapshot;
+    }
+
+    public long getLastSeq() {
+        appendLock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    /**
+     * Appends an entry and returns its sequence number. It becomes durable with the next group commit.
+     */
+    public long append(JournalEntry entry) {
+        long seq;
+        boolean snapshotDue;
+        appendLock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            seq = lastSeq + 1;
+            JournalEntry e = entry.withSeq(seq);
+            if (!current.append(e)) {
+                roll(seq);
+                if (!current.append(e)) throw new IllegalArgumentException("Journal entry does not fit in a segment");
+            }
+            lastSeq = seq;
+            apply(e);
+            snapshotDue = ++sinceSnapshot >= snapshotEvery;
+        } finally {
+            appendLock.unlock();
+        }
+        if (snapshotDue && snapshotScheduled.compareAndSet(false, true)) {
+            submit(() -> {
+                snapshotScheduled.set(false);
+                snapshotQuietly();
+            });
+        }
+        return seq;
+    }
+
+    /**
+     * Appends an entry and waits until a group commit has forced it to disk.
+     *
+     * @throws IllegalStateException if the entry is not known to be on disk when the wait ends
+     */
+    public long appendDurably(JournalEntry entry) {
+        long seq = append(entry);
+        awaitDurable(seq);
+        return seq;
+    }
+
+    /**
+     * Waits until every entry up to seq is on disk, triggering a group commit if none is pending.
+     *
+     * @throws IllegalStateException if the thread is interrupted or the journal closes before the
+     *                               entries are on disk; the interrupt status is kept
+     */
+    public void awaitDurable(long seq) {
+        if (durableSeq >= seq) return;
+        if (commitScheduled.compareAndSet(false, true)) {
+            submit(() -> {
+                // Reset before committing so entries appended during the force schedule the next one
+                commitScheduled.set(false);
+                commitQuietly();
+            });
+        }
+        synchronized (durableMonitor) {
+            while (durableSeq < seq && !closed) {
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted before journal entry " + seq + " was on disk");
+                }
+            }
+            // close() commits everything appended, so this only happens if that last commit failed
+            if (durableSeq < seq) throw new IllegalStateException("Journal closed before entry " + seq + " was on disk");
+        }
+    }
+
+    /**
+     * Writes the open tickets to a snapshot and deletes the segments and snapshots it supersedes.
+     */
+    public void snapshot() throws IOException {
+        long seq;
+        List<JournalEntry> open;
+        appendLock.lock();
+        try {
+            seq = lastSeq;
+            open = new ArrayList<>(openBySpot.values());
+            sinceSnapshot = 0;
+        } finally {
+            appendLock.unlock();
+        }
+        writeSnapshot(seq, open);
+
+        List<Path> obsolete = new ArrayList<>();
+        appendLock.lock();
+        try {
+            // A sealed segment is covered once the segment after it starts at or before seq + 1
+            for (int i = 0; i < sealedSegments.size(); i++) {
+                long nextFirst = i + 1 < sealedSegments.size()
+                        ? JournalSegment.firstSeqOf(sealedSegments.get(i + 1))
+                        : current.getFirstSeq();
+                if (nextFirst <= seq + 1) obsolete.add(sealedSegments.get(i));
+            }
+            sealedSegments.removeAll(obsolete);
+        } finally {
+            appendLock.unlock();
+        }
+        for (Path segment : obsolete) Files.deleteIfExists(segment);
+        for (Path old : listSnapshots()) {
+            if (snapshotSeqOf(old) < seq) Files.deleteIfExists(old);
+        }
+    }
+
+    /**
+     * Forces everything appended so far and stops the background committer.
+     */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        committer.shutdown();
+        try {
+            committer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitQuietly();
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            committer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Closing; close() commits whatever is left
+        }
+    }
+
+    private void apply(JournalEntry e) {
+        if (e.getType() == JournalEntry.PARKED) openBySpot.put(e.getSpotId(), e);
+        else openBySpot.remove(e.getSpotId());
+    }
+
+    private void roll(long nextSeq) {
+        // Force the full segment now so a group commit only ever has to force the current one
+        current.force();
+        sealedSegments.add(current.getPath());
+        try {
+            current = JournalSegment.create(dir, nextSeq, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment", e);
+        }
+    }
+
+    private void commit() {
+        JournalSegment segment;
+        long seq;
+        appendLock.lock();
+        try {
+            segment = current;
+            seq = lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        if (seq <= durableSeq) return;
+        segment.force();
+        synchronized (durableMonitor) {
+            durableSeq = seq;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (RuntimeException e) {
+            System.err.println("Journal commit failed, will retry: " + e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Journal snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private void writeSnapshot(long seq, List<JournalEntry> open) throws IOException {
+        List<byte[]> plates = new ArrayList<>(open.size());
+        int size = 4 + 8 + 4;
+        for (JournalEntry e : open) {
+            byte[] plate = e.plateBytes();
+            plates.add(plate);
+            size += 4 + JournalEntry.FIXED_BYTES + plate.length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size + 4);
+        buf.putInt(SNAPSHOT_MAGIC).putLong(seq).putInt(open.size());
+        for (int i = 0; i < open.size(); i++) {
+            buf.putInt(JournalEntry.FIXED_BYTES + plates.get(i).length);
+            open.get(i).writeTo(buf, plates.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, size);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        Path target = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) channel.write(buf);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads the newest intact snapshot into openBySpot and returns its sequence number, or 0.
+     */
+    private long loadSnapshot() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        Collections.reverse(snapshots);
+        for (Path path : snapshots) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buf.remaining() < 20 || buf.getInt(0) != SNAPSHOT_MAGIC) continue;
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), 0, buf.limit() - 4);
+            if ((int) crc.getValue() != buf.getInt(buf.limit() - 4)) {
+                System.err.println("Skipping corrupt journal snapshot " + path.getFileName());
+                continue;
+            }
+            buf.position(4);
+            long seq = buf.getLong();
+            int count = buf.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = buf.getInt();
+                int start = buf.position();
+                apply(JournalEntry.readFrom(buf));
+                buf.position(start + length);
+            }
+            return seq;
+        }
+        return 0;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(JournalSegment::isSegment)
+                    .sorted((a, b) -> Long.compare(JournalSegment.firstSeqOf(a), JournalSegment.firstSeqOf(b)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(snapshotSeqOf(a), snapshotSeqOf(b)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long snapshotSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
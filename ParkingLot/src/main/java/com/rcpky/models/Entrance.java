@@ -2,12 +2,25 @@ package com.rcpky.models;
 
 import com.rcpky.ParkingLot;
 import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.tickets.TicketIdGenerator;
 import com.rcpky.vehicles.Vehicle;
 
 public class Entrance {
     private int id;
-    public Entrance(int id) { this.id = id; }
+    private double x, y;
+    // Each gate numbers its own tickets, so gates never contend for ticket numbers
+    private final TicketIdGenerator ticketIds;
+    public Entrance(int id) { this(id, 0, 0); }
+    public Entrance(int id, double x, double y) {
+        this.id = id; this.x = x; this.y = y;
+        this.ticketIds = new TicketIdGenerator(id);
+    }
+    public int getId() { return id; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public TicketIdGenerator getTicketIds() { return ticketIds; }
+    // Parks at the free spot nearest to this entrance once it is registered with the lot
     public ParkingTicket getTicket(Vehicle v) {
-        return ParkingLot.getInstance().parkVehicle(v);
+        return ParkingLot.getInstance().parkVehicle(v, this);
     }
 }
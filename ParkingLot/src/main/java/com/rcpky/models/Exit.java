@@ -5,23 +5,45 @@ import com.rcpky.enums.TicketStatus;
 import com.rcpky.payments.Cash;
 import com.rcpky.payments.CreditCard;
 import com.rcpky.payments.Payment;
+import com.rcpky.payments.PaymentStrategy;
 import com.rcpky.tickets.ParkingTicket;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 public class Exit {
     private int id;
     public Exit(int id) { this.id = id; }
     public void validateTicket(ParkingTicket t) {
+        double fee = price(t);
+        Payment p = (fee > 10) ? new CreditCard(fee) : new Cash(fee);
+        p.initiateTransaction();
+        ParkingLot.getInstance().freeSlot(t.getSlotNo());
+        t.setStatus(TicketStatus.PAID);
+    }
+
+    /**
+     * Prices the ticket and hands payment to the driver's chosen strategy without blocking the
+     * gate thread; the spot is freed once the payment succeeds. Completes with whether it did.
+     */
+    public CompletableFuture<Boolean> validateTicketAsync(ParkingTicket t, PaymentStrategy strategy) {
+        double fee = price(t);
+        return strategy.processPaymentAsync(t, fee).thenApply(paid -> {
+            if (paid) {
+                ParkingLot.getInstance().freeSlot(t.getSlotNo());
+                t.setStatus(TicketStatus.PAID);
+            }
+            return paid;
+        });
+    }
+
+    private double price(ParkingTicket t) {
         Date now = new Date();
         t.setExitTime(now);
         double hrs = (now.getTime() - t.getEntryTime().getTime()) / 3600000.0;
-        double fee = ParkingLot.getInstance().rate.calculate(hrs, t.getVehicle(), ParkingLot.getInstance().getSpot(t.getSlotNo()));
+        double fee = ParkingLot.getInstance().rate.calculate(t, ParkingLot.getInstance().getSpot(t.getSlotNo()), now.getTime());
         t.setAmount(fee);
         System.out.printf("Ticket %d | Parked: %.2f hrs | Fee: $%.2f\n", t.getTicketNo(), hrs, fee);
-        Payment p = (fee > 10) ? new CreditCard(fee) : new Cash(fee);
-        p.initiateTransaction();
-        ParkingLot.getInstance().freeSlot(t.getSlotNo());
-        t.setStatus(TicketStatus.PAID);
+        return fee;
     }
 }
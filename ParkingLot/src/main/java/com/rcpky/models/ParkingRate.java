@@ -1,16 +1,72 @@
 package com.rcpky.models;
 
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
 import com.rcpky.spots.ParkingSpot;
+import com.rcpky.tariff.CompiledTariff;
+import com.rcpky.tariff.Tariff;
+import com.rcpky.tickets.ParkingTicket;
 import com.rcpky.vehicles.Vehicle;
 
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Prices stays with a compiled tariff (Tariff.standard() unless another one is set).
+ * The tariff can be swapped at runtime; fees already computed are not affected.
+ */
 public class ParkingRate {
+    private volatile CompiledTariff tariff;
+
+    public ParkingRate() {
+        this(Tariff.standard().compile());
+    }
+
+    public ParkingRate(CompiledTariff tariff) {
+        this.tariff = tariff;
+    }
+
+    public CompiledTariff getTariff() { return tariff; }
+    public void setTariff(CompiledTariff tariff) { this.tariff = tariff; }
+
+    /**
+     * Fee for a stay of the given length ending now. In every method a missing vehicle or spot
+     * is priced as a car in a compact spot, e.g. for a ticket whose spot belongs to another lot.
+     */
     public double calculate(double hours, Vehicle v, ParkingSpot s) {
-        int hrs = (int)Math.ceil(hours);
-        double fee = 0;
-        if (hrs >= 1) fee += 4;
-        if (hrs >= 2) fee += 3.5;
-        if (hrs >= 3) fee += 3.5;
-        if (hrs > 3) fee += (hrs - 3) * 2.5;
-        return fee;
+        long exit = System.currentTimeMillis();
+        return tariff.fee(vehicleType(v), spotType(s), exit - (long) (hours * 3600_000), exit);
+    }
+
+    public double calculate(ParkingTicket t, ParkingSpot s, long exitMillis) {
+        return tariff.fee(vehicleType(t.getVehicle()), spotType(s), t.getEntryTime().getTime(), exitMillis);
+    }
+
+    /**
+     * Prices a whole exit queue in one batch; spots are looked up by the tickets' spot ids and
+     * may come back null.
+     */
+    public double[] calculateAll(List<ParkingTicket> queue, IntFunction<ParkingSpot> spots, long exitMillis) {
+        int n = queue.size();
+        long[] entry = new long[n];
+        long[] exit = new long[n];
+        byte[] vehicleTypes = new byte[n];
+        byte[] spotTypes = new byte[n];
+        for (int i = 0; i < n; i++) {
+            ParkingTicket t = queue.get(i);
+            entry[i] = t.getEntryTime().getTime();
+            exit[i] = exitMillis;
+            vehicleTypes[i] = (byte) vehicleType(t.getVehicle()).ordinal();
+            spotTypes[i] = (byte) spotType(spots.apply(t.getSlotNo())).ordinal();
+        }
+        return tariff.feeAll(entry, exit, vehicleTypes, spotTypes);
+    }
+
+    private static VehicleType vehicleType(Vehicle v) {
+        return v == null ? VehicleType.CAR : VehicleType.of(v);
+    }
+
+    private static ParkingSpotType spotType(ParkingSpot s) {
+        return s == null ? ParkingSpotType.COMPACT : s.getType();
     }
 }
@@ -0,0 +1,193 @@
+package com.rcpky.patterns;
+
+import com.rcpky.enums.BackpressurePolicy;
+import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.patterns.observer.SpotEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers spot events to observers on dedicated consumer threads.
+ * Events are partitioned by spot id into one ring buffer per consumer, so events for the same
+ * spot are delivered in order while different spots are handled in parallel. Each consumer
+ * drains its ring in batches and hands every observer the whole batch at once, and blocks while
+ * its ring is empty until a publisher wakes it. Closing waits for publishers already past the
+ * closed check, so every event is either queued and delivered or handed back to the caller.
+ */
+class AsyncEventDispatcher {
+    private static final int MAX_BATCH = 256;
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final List<ParkingObserver> observers;
+    private final BackpressurePolicy policy;
+    private final Lane[] lanes;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    // Set first: no new events. Then, once no publisher is mid-offer, stopping: drain and exit.
+    private volatile boolean closed;
+    private volatile boolean stopping;
+
+    AsyncEventDispatcher(List<ParkingObserver> observers, int capacity, int consumers, BackpressurePolicy policy) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        if (consumers <= 0) throw new IllegalArgumentException("consumers must be positive");
+        this.observers = observers;
+        this.policy = policy;
+        this.lanes = new Lane[consumers];
+        int laneCapacity = Math.max(1, capacity / consumers);
+        for (int i = 0; i < consumers; i++) {
+            lanes[i] = new Lane(laneCapacity, "parking-events-" + i);
+        }
+        for (Lane lane : lanes) lane.thread.start();
+    }
+
+    /**
+     * Queues an event; returns false once the dispatcher is closed, or if it stopped while a blocked
+     * publisher waited for room, so the caller can deliver it itself.
+     */
+    boolean publish(SpotEvent event) {
+        return lane(event).offer(event);
+    }
+
+    /**
+     * Queues the events in order and returns the ones that were not queued because the dispatcher
+     * closed meanwhile, for the caller to deliver itself.
+     */
+    List<SpotEvent> publishAll(List<SpotEvent> events) {
+        for (int i = 0; i < events.size(); i++) {
+            if (!lane(events.get(i)).offer(events.get(i))) return events.subList(i, events.size());
+        }
+        return List.of();
+    }
+
+    private Lane lane(SpotEvent event) {
+        return lanes[Math.floorMod(event.getSpotId(), lanes.length)];
+    }
+
+    long droppedEvents() {
+        return dropped.sum();
+    }
+
+    long coalescedEvents() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Stops accepting events, waits for publishers still queueing, delivers everything queued and
+     * stops the consumers.
+     */
+    void close() {
+        closed = true;
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        for (Lane lane : lanes) {
+            while (lane.publishing.get() > 0 && System.nanoTime() < deadline) LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        stopping = true;
+        for (Lane lane : lanes) LockSupport.unpark(lane.thread);
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final SpotEventRing ring;
+        // Latest undelivered event per spot, COALESCE only; the ring then carries each spot at most once
+        private final Map<Integer, SpotEvent> pending = new ConcurrentHashMap<>();
+        private final Thread thread;
+        // Publishers between announcing themselves and finishing their offer
+        private final AtomicInteger publishing = new AtomicInteger();
+        private volatile boolean idle;
+
+        Lane(int capacity, String name) {
+            this.ring = new SpotEventRing(capacity);
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        boolean offer(SpotEvent event) {
+            publishing.incrementAndGet();
+            try {
+                // Checked after announcing ourselves, so close() either sees us and waits or we see closed
+                if (closed) return false;
+                return enqueue(event);
+            } finally {
+                publishing.decrementAndGet();
+            }
+        }
+
+        // Returns false if close() gave up waiting while the ring was full; the consumer may be gone
+        private boolean enqueue(SpotEvent event) {
+            int spotId = event.getSpotId();
+            if (policy == BackpressurePolicy.COALESCE && pending.put(spotId, event) != null) {
+                // Merged into the event already waiting for this spot
+                coalesced.increment();
+                return true;
+            }
+            while (!ring.offer(event)) {
+                if (policy == BackpressurePolicy.DROP) {
+                    dropped.increment();
+                    return true;
+                }
+                if (stopping) {
+                    if (policy == BackpressurePolicy.COALESCE) pending.remove(spotId);
+                    return false;
+                }
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            if (idle) LockSupport.unpark(thread);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            SpotEvent[] batch = new SpotEvent[MAX_BATCH];
+            while (true) {
+                int n = ring.drain(batch);
+                if (n == 0) {
+                    if (stopping) return;
+                    // Publishers write the ring before reading idle and we write idle before reading
+                    // the ring, so one of us always sees the other and no wake-up is lost
+                    idle = true;
+                    if (ring.isEmpty() && !stopping) LockSupport.park(this);
+                    idle = false;
+                    continue;
+                }
+                deliver(batch, n);
+            }
+        }
+
+        private void deliver(SpotEvent[] batch, int n) {
+            List<SpotEvent> events = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                SpotEvent event = batch[i];
+                batch[i] = null;
+                if (policy == BackpressurePolicy.COALESCE) {
+                    event = pending.remove(event.getSpotId());
+                    if (event == null) continue;
+                }
+                events.add(event);
+            }
+            if (events.isEmpty()) return;
+            for (ParkingObserver observer : observers) {
+                try {
+                    observer.onBatch(events);
+                } catch (RuntimeException e) {
+                    System.err.println("Observer " + observer.getClass().getSimpleName() + " failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.rcpky.patterns;
 
+import com.rcpky.enums.BackpressurePolicy;
 import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.patterns.observer.SpotEvent;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-// Subject class that maintains a list of observers
-public class ParkingEventManager {
-    private List<ParkingObserver> observers = new ArrayList<>();
+// Subject class that maintains a list of observers.
+// Observers are notified on the calling thread until enableAsyncDispatch is called; after that
+// events are queued in bounded ring buffers and delivered in batches on consumer threads.
+public class ParkingEventManager implements AutoCloseable {
+    // Copy-on-write so gates can notify while observers subscribe or unsubscribe
+    private final List<ParkingObserver> observers = new CopyOnWriteArrayList<>();
+    private volatile AsyncEventDispatcher dispatcher;
 
     public ParkingEventManager() {}
 
@@ -19,15 +25,62 @@ public class ParkingEventManager {
         observers.remove(observer);
     }
 
+    /**
+     * Switches to asynchronous dispatch with the given total buffer capacity, number of
+     * consumer threads and behaviour when a consumer falls behind.
+     */
+    public synchronized void enableAsyncDispatch(int capacity, int consumers, BackpressurePolicy policy) {
+        if (dispatcher != null) throw new IllegalStateException("Asynchronous dispatch is already enabled");
+        dispatcher = new AsyncEventDispatcher(observers, capacity, consumers, policy);
+    }
+
     public void notifySpotTaken(int spotId) {
+        notify(new SpotEvent(spotId, true));
+    }
+
+    public void notifySpotFreed(int spotId) {
+        notify(new SpotEvent(spotId, false));
+    }
+
+    public void notify(SpotEvent event) {
+        AsyncEventDispatcher d = dispatcher;
+        if (d != null && d.publish(event)) return;
         for (ParkingObserver observer : observers) {
-            observer.onSpotTaken(spotId);
+            observer.onEvent(event);
         }
     }
 
-    public void notifySpotFreed(int spotId) {
+    /**
+     * Notifies observers of several state changes at once, as a single batch in synchronous mode.
+     */
+    public void notifyBatch(List<SpotEvent> events) {
+        if (events.isEmpty()) return;
+        AsyncEventDispatcher d = dispatcher;
+        List<SpotEvent> undelivered = d == null ? events : d.publishAll(events);
+        if (undelivered.isEmpty()) return;
         for (ParkingObserver observer : observers) {
-            observer.onSpotFreed(spotId);
+            observer.onBatch(undelivered);
         }
     }
+
+    public long getDroppedEvents() {
+        AsyncEventDispatcher d = dispatcher;
+        return d == null ? 0 : d.droppedEvents();
+    }
+
+    public long getCoalescedEvents() {
+        AsyncEventDispatcher d = dispatcher;
+        return d == null ? 0 : d.coalescedEvents();
+    }
+
+    /**
+     * Delivers any queued events, stops the consumer threads and returns to synchronous dispatch.
+     */
+    @Override
+    public synchronized void close() {
+        AsyncEventDispatcher d = dispatcher;
+        if (d == null) return;
+        d.close();
+        dispatcher = null;
+    }
 }
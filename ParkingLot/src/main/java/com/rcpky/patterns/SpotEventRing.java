@@ -0,0 +1,73 @@
+package com.rcpky.patterns;
+
+import com.rcpky.patterns.observer.SpotEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer of spot events.
+ * Any number of gates can offer; exactly one consumer thread drains. Each slot carries a
+ * sequence number so producers claim slots with a single CAS and the consumer sees a slot
+ * only after its event has been written.
+ */
+class SpotEventRing {
+    private final int mask;
+    private final SpotEvent[] events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head;
+
+    SpotEventRing(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.events = new SpotEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /**
+     * Returns false if the ring is full.
+     */
+    boolean offer(SpotEvent event) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    events[index] = event;
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to batch.length events into batch and returns how many were taken.
+     */
+    int drain(SpotEvent[] batch) {
+        int n = 0;
+        while (n < batch.length) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) break;
+            batch[n++] = events[index];
+            events[index] = null;
+            sequences.set(index, head + mask + 1);
+            head++;
+        }
+        return n;
+    }
+
+    // Consumer thread only
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
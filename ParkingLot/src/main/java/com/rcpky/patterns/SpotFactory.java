@@ -10,17 +10,21 @@ public class SpotFactory {
     private static int spotIdCounter = 0;
     
     public static ParkingSpot createSpot(ParkingSpotType spotType) {
+        return createSpot(spotType, 0, 0);
+    }
+
+    public static ParkingSpot createSpot(ParkingSpotType spotType, double x, double y) {
         spotIdCounter++;
         
         switch (spotType) {
             case HANDICAPPED:
-                return new Handicapped(spotIdCounter);
+                return new Handicapped(spotIdCounter, x, y);
             case COMPACT:
-                return new Compact(spotIdCounter);
+                return new Compact(spotIdCounter, x, y);
             case LARGE:
-                return new Large(spotIdCounter);
+                return new Large(spotIdCounter, x, y);
             case MOTORCYCLE:
-                return new MotorcycleSpot(spotIdCounter);
+                return new MotorcycleSpot(spotIdCounter, x, y);
             default:
                 throw new IllegalArgumentException("Unknown parking spot type: " + spotType);
         }
@@ -1,33 +1,55 @@
 package com.rcpky.patterns;
 
+import com.rcpky.archive.ArchivedTicket;
+import com.rcpky.archive.TicketArchive;
 import com.rcpky.display.DisplayBoard;
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.TicketStatus;
+import com.rcpky.journal.JournalEntry;
+import com.rcpky.journal.ParkingJournal;
 import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.patterns.observer.SpotEvent;
+import com.rcpky.spots.FreeSpotIndex;
 import com.rcpky.spots.ParkingSpot;
-import com.rcpky.spots.VehicleAccommodator;
 import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.tickets.TicketIdGenerator;
+import com.rcpky.tickets.TicketStore;
 import com.rcpky.vehicles.Vehicle;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Thread-safe implementation of ParkingLot using double-checked locking
+ * Thread-safe implementation of ParkingLot using double-checked locking.
+ * There is no lot-wide lock: spots are claimed from lock-free per-type free lists, and
+ * tickets and observer notifications happen after the claim, so gates only contend when
+ * they race for the same spot. Display boards read the free lists' per-type counters.
  */
 public class ThreadSafeParkingLot {
     // Volatile ensures visibility of changes across threads
     private static volatile ThreadSafeParkingLot instance;
     // Thread-safe collections
     private final Map<Integer, ParkingSpot> spots = new ConcurrentHashMap<>();
-    private final Map<Integer, ParkingTicket> tickets = new ConcurrentHashMap<>();
-    private final List<DisplayBoard> boards = Collections.synchronizedList(new ArrayList<>());
+    // Indexed by ticket number, plate and spot for O(1) exit and "where is my car" lookups
+    private final TicketStore tickets = new TicketStore();
+    private volatile TicketIdGenerator ticketIds = TicketIdGenerator.getDefault();
+    private final List<DisplayBoard> boards = new CopyOnWriteArrayList<>();
+    // Per-type free lists, safe for concurrent park and free
+    private final FreeSpotIndex freeSpots = new FreeSpotIndex();
     
     // Observer pattern integration
     private final ParkingEventManager eventManager = new ParkingEventManager();
-    
-    // Read-write lock for optimizing concurrent access
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Records every park and free once set by recover()
+    private volatile ParkingJournal journal;
+    // Closed tickets are moved here by archivePaidTickets() once set by enableArchiving()
+    private volatile TicketArchive archive;
+    private ScheduledExecutorService archiver;
 
     private ThreadSafeParkingLot() {
         // Private constructor to prevent instantiation
@@ -53,89 +75,279 @@ public class ThreadSafeParkingLot {
         eventManager.unsubscribe(observer);
     }
 
+    public ParkingEventManager getEventManager() {
+        return eventManager;
+    }
+
     public void addSpot(ParkingSpot s) {
-        spots.put(s.getId(), s);
+        ParkingSpot replaced = spots.put(s.getId(), s);
+        if (replaced != null) freeSpots.remove(replaced);
+        freeSpots.add(s);
     }
     
     public void addDisplayBoard(DisplayBoard b) {
+        b.attach(freeSpots.getAvailability());
         boards.add(b);
     }
+
+    public long getFreeCount(ParkingSpotType type) {
+        return freeSpots.getAvailability().freeCount(type);
+    }
     
     public ParkingSpot getSpot(int id) {
         return spots.get(id);
     }
+
+    /**
+     * Numbers tickets with the given node's generator, so several lot servers can issue
+     * tickets without colliding.
+     */
+    public void setTicketIdGenerator(TicketIdGenerator ticketIds) {
+        this.ticketIds = ticketIds;
+    }
+
+    public ParkingTicket getTicket(long ticketNo) {
+        return tickets.getByTicketNo(ticketNo);
+    }
+
+    public ParkingTicket findTicketByPlate(String licenseNo) {
+        return tickets.getByPlate(licenseNo);
+    }
+
+    public ParkingTicket findTicketBySpot(int spotId) {
+        return tickets.getBySpot(spotId);
+    }
+
+    /**
+     * Looks up a ticket that has been moved to the archive, or null if there is none.
+     */
+    public ArchivedTicket findArchivedTicket(long ticketNo) throws IOException {
+        TicketArchive a = archive;
+        return a == null ? null : a.find(ticketNo);
+    }
+
+    public int getTicketCount() {
+        return tickets.size();
+    }
+
+    /**
+     * Moves closed tickets to the archive every sweepInterval, so the in-memory ticket store only
+     * holds tickets that are still open however long the lot runs.
+     */
+    public synchronized void enableArchiving(TicketArchive archive, Duration sweepInterval) {
+        if (this.archive != null) throw new IllegalStateException("Archiving is already enabled");
+        this.archive = archive;
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ticket-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = sweepInterval.toMillis();
+        archiver.scheduleWithFixedDelay(() -> {
+            try {
+                archivePaidTickets();
+            } catch (IOException e) {
+                System.err.println("Archiving paid tickets failed: " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes every closed ticket (paid, or validated when its spot was freed) to the archive,
+     * forces it to disk and only then drops the tickets from memory. Returns the number of tickets moved.
+     */
+    public int archivePaidTickets() throws IOException {
+        TicketArchive a = archive;
+        if (a == null) return 0;
+        List<ParkingTicket> closed = new ArrayList<>();
+        synchronized (a) {
+            for (ParkingTicket t : tickets.getAll()) {
+                if (!isClosed(t)) continue;
+                a.archive(t);
+                closed.add(t);
+            }
+            a.flush();
+            a.rollover(System.currentTimeMillis());
+        }
+        for (ParkingTicket t : closed) {
+            // An undone free may have reopened the ticket meanwhile; it stays until it closes again
+            if (isClosed(t)) tickets.remove(t.getTicketNo());
+        }
+        return closed.size();
+    }
+
+    private static boolean isClosed(ParkingTicket t) {
+        return t.getStatus() == TicketStatus.PAID || t.getStatus() == TicketStatus.VALIDATED;
+    }
+
+    // The vehicle has left: stamp the exit and close the ticket unless it was paid already
+    private static void closeTicket(ParkingTicket t) {
+        if (t.getExitTime() == null) t.setExitTime(new Date());
+        if (t.getStatus() != TicketStatus.PAID) t.setStatus(TicketStatus.VALIDATED);
+    }
     
+    /**
+     * Restores the tickets that were open when the journal was last written onto the spots added
+     * so far, then journals every park and free from here on. Call once at startup, before any gate opens.
+     */
+    public void recover(ParkingJournal journal) {
+        for (JournalEntry e : journal.getRecoveredEntries()) {
+            ParkingSpot s = spots.get(e.getSpotId());
+            if (s == null) {
+                System.err.println("Journal refers to unknown spot " + e.getSpotId() + ", ticket " + e.getTicketNo() + " not restored");
+                continue;
+            }
+            Vehicle v = e.toVehicle();
+            s.assignVehicle(v);
+            ParkingTicket t = new ParkingTicket(e.getTicketNo(), e.getSpotId(), v, new Date(e.getTimeMillis()));
+            ticketIds.advancePast(t.getTicketNo());
+            tickets.add(t);
+        }
+        freeSpots.rebuild(spots.values());
+        this.journal = journal;
+    }
+
     public void freeSlot(int id) {
-        try {
-            lock.writeLock().lock();
-            ParkingSpot s = spots.get(id);
-            if (s != null && s.removeVehicle()) {
-                // Notify observers about the freed spot
-                eventManager.notifySpotFreed(id);
-                // Update all display boards
-                updateDisplays();
+        ParkingSpot s = spots.get(id);
+        ParkingTicket t = tickets.getBySpot(id);
+        if (s != null && freeSpots.free(s)) {
+            if (t != null) {
+                tickets.vacate(t);
+                closeTicket(t);
             }
-        } finally {
-            lock.writeLock().unlock();
+            record(JournalEntry.freed(id));
+            // Notify observers about the freed spot
+            eventManager.notify(SpotEvent.freed(s, t));
         }
     }
 
+    /**
+     * Puts a vehicle back in the spot its ticket names, e.g. to undo freeing it, provided the spot
+     * is still free. The ticket is reopened, registered, journaled and announced again as if just issued.
+     */
+    public boolean reclaimSpot(ParkingTicket t) {
+        ParkingSpot s = spots.get(t.getSlotNo());
+        if (s == null || !freeSpots.claim(s, t.getVehicle())) return false;
+        t.setExitTime(null);
+        t.setStatus(TicketStatus.ISSUED);
+        tickets.add(t);
+        record(JournalEntry.parked(t));
+        eventManager.notify(SpotEvent.taken(s, t));
+        return true;
+    }
+
     public Collection<ParkingSpot> getAllSpots() {
-        try {
-            lock.readLock().lock();
-            return new ArrayList<>(spots.values());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return new ArrayList<>(spots.values());
     }
     
     public ParkingTicket parkVehicle(Vehicle v) throws ParkingException {
-        try {
-            lock.writeLock().lock();
-            for (ParkingSpot s : spots.values()) {
-                if (s.isFree() && canFit(v, s)) {
-                    s.assignVehicle(v);
-                    ParkingTicket t = new ParkingTicket(s.getId(), v);
-                    tickets.put(t.getTicketNo(), t);
-                    
-                    // Notify observers about the taken spot
-                    eventManager.notifySpotTaken(s.getId());
-                    // Update all display boards
-                    updateDisplays();
-                    
-                    return t;
-                }
-            }
+        // Claiming the spot is the only step that has to be atomic
+        ParkingSpot s = freeSpots.allocate(v);
+        if (s == null) {
             throw new ParkingException("Parking lot is full. No available spots for this vehicle type.");
-        } finally {
-            lock.writeLock().unlock();
         }
+        ParkingTicket t = new ParkingTicket(ticketIds, s.getId(), v);
+        tickets.add(t);
+        record(JournalEntry.parked(t));
+
+        // Notify observers about the taken spot
+        eventManager.notify(SpotEvent.taken(s, t));
+
+        return t;
     }
 
-    private void updateDisplays() {
-        Collection<ParkingSpot> allSpots = getAllSpots();
-        for (DisplayBoard board : boards) {
-            board.update(allSpots);
+    /**
+     * Parks a batch of vehicles at once, e.g. a shuttle unloading. Spots for the whole batch are
+     * allocated in one pass, tickets are registered together and observers get one batched
+     * notification. Results are in the order of the vehicles; a vehicle that finds no spot
+     * gets a failed result rather than failing the batch.
+     */
+    public List<ParkingResult> parkAll(List<? extends Vehicle> vehicles) {
+        ParkingSpot[] allocated = freeSpots.allocateAll(vehicles);
+        List<ParkingResult> results = new ArrayList<>(allocated.length);
+        List<SpotEvent> events = new ArrayList<>();
+        for (int i = 0; i < allocated.length; i++) {
+            Vehicle v = vehicles.get(i);
+            if (allocated[i] == null) {
+                results.add(new ParkingResult(v, null, "No available spots for this vehicle type."));
+                continue;
+            }
+            ParkingTicket t = new ParkingTicket(ticketIds, allocated[i].getId(), v);
+            tickets.add(t);
+            append(JournalEntry.parked(t));
+            events.add(SpotEvent.taken(allocated[i], t));
+            results.add(new ParkingResult(v, t, null));
         }
+        awaitJournal();
+        eventManager.notifyBatch(events);
+        return results;
     }
 
-    private boolean canFit(Vehicle v, ParkingSpot s) {
-        // Use the VehicleAccommodator interface if the spot implements it
-        if (s instanceof VehicleAccommodator) {
-            return ((VehicleAccommodator) s).canAccommodateVehicle(v);
+    /**
+     * Frees a batch of spots with one batched notification. The result tells for each id
+     * whether this call freed it; unknown and already free spots report false.
+     */
+    public boolean[] freeAll(int[] spotIds) {
+        ParkingSpot[] toFree = new ParkingSpot[spotIds.length];
+        ParkingTicket[] leaving = new ParkingTicket[spotIds.length];
+        for (int i = 0; i < spotIds.length; i++) {
+            toFree[i] = spots.get(spotIds[i]);
+            leaving[i] = tickets.getBySpot(spotIds[i]);
         }
-        
-        // Fallback to legacy type checking if needed
-        String vehicleType = v.getClass().getSimpleName().toLowerCase();
-        String spotType = s.getClass().getSimpleName().toLowerCase();
-        
-        if (vehicleType.contains("motorcycle") && spotType.contains("motorcycle")) return true;
-        if ((vehicleType.contains("truck") || vehicleType.contains("van")) && spotType.contains("large")) return true;
-        if (vehicleType.contains("car") && (spotType.contains("compact") || spotType.contains("handicapped"))) return true;
-        
-        return false;
+        boolean[] freed = freeSpots.freeAll(toFree);
+        List<SpotEvent> events = new ArrayList<>();
+        for (int i = 0; i < spotIds.length; i++) {
+            if (freed[i]) {
+                if (leaving[i] != null) {
+                    tickets.vacate(leaving[i]);
+                    closeTicket(leaving[i]);
+                }
+                append(JournalEntry.freed(spotIds[i]));
+                events.add(SpotEvent.freed(toFree[i], leaving[i]));
+            }
+        }
+        awaitJournal();
+        eventManager.notifyBatch(events);
+        return freed;
     }
-    
+
+    // Journals one state change and waits for its group commit
+    private void record(JournalEntry entry) {
+        ParkingJournal j = journal;
+        if (j != null) j.appendDurably(entry);
+    }
+
+    // Batches append without waiting and then wait once for the whole batch
+    private void append(JournalEntry entry) {
+        ParkingJournal j = journal;
+        if (j != null) j.append(entry);
+    }
+
+    private void awaitJournal() {
+        ParkingJournal j = journal;
+        if (j != null) j.awaitDurable(j.getLastSeq());
+    }
+
+    /**
+     * Outcome of parking one vehicle of a batch
+     */
+    public static class ParkingResult {
+        private final Vehicle vehicle;
+        private final ParkingTicket ticket;
+        private final String error;
+
+        public ParkingResult(Vehicle vehicle, ParkingTicket ticket, String error) {
+            this.vehicle = vehicle;
+            this.ticket = ticket;
+            this.error = error;
+        }
+
+        public boolean isParked() { return ticket != null; }
+        public Vehicle getVehicle() { return vehicle; }
+        public ParkingTicket getTicket() { return ticket; }
+        public String getError() { return error; }
+    }
+
     /**
      * Custom exception for parking-related errors
      */
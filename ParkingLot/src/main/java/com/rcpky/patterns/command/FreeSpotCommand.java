@@ -2,7 +2,7 @@ package com.rcpky.patterns.command;
 
 import com.rcpky.patterns.ThreadSafeParkingLot;
 import com.rcpky.spots.ParkingSpot;
-import com.rcpky.vehicles.Vehicle;
+import com.rcpky.tickets.ParkingTicket;
 
 /**
  * Concrete command for freeing a parking spot
@@ -10,7 +10,7 @@ import com.rcpky.vehicles.Vehicle;
 public class FreeSpotCommand implements ParkingCommand {
     private final ThreadSafeParkingLot parkingLot;
     private final int spotId;
-    private Vehicle vehicle; // To store vehicle for undo operation
+    private ParkingTicket ticket; // To store the ticket for undo operation
     private boolean wasSpotOccupied;
 
     public FreeSpotCommand(ThreadSafeParkingLot parkingLot, int spotId) {
@@ -28,8 +28,8 @@ public class FreeSpotCommand implements ParkingCommand {
         
         wasSpotOccupied = !spot.isFree();
         if (wasSpotOccupied) {
-            // Save the vehicle for potential undo
-            vehicle = spot.getVehicle();
+            // Save the ticket for potential undo
+            ticket = parkingLot.findTicketBySpot(spotId);
             // Free the spot
             parkingLot.freeSlot(spotId);
             return true;
@@ -41,12 +41,9 @@ public class FreeSpotCommand implements ParkingCommand {
 
     @Override
     public boolean undo() {
-        // To undo freeing a spot, we need to re-assign the vehicle
-        if (wasSpotOccupied && vehicle != null) {
-            ParkingSpot spot = parkingLot.getSpot(spotId);
-            if (spot != null && spot.isFree()) {
-                return spot.assignVehicle(vehicle);
-            }
+        // To undo freeing a spot, the lot re-claims it for the same ticket
+        if (wasSpotOccupied && ticket != null) {
+            return parkingLot.reclaimSpot(ticket);
         }
         return false;
     }
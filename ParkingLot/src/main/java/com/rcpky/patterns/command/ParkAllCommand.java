@@ -0,0 +1,51 @@
+package com.rcpky.patterns.command;
+
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.patterns.ThreadSafeParkingLot.ParkingResult;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.List;
+
+/**
+ * Concrete command for parking a batch of vehicles in one go
+ */
+public class ParkAllCommand implements ParkingCommand {
+    private final ThreadSafeParkingLot parkingLot;
+    private final List<? extends Vehicle> vehicles;
+    private List<ParkingResult> results = List.of();
+
+    public ParkAllCommand(ThreadSafeParkingLot parkingLot, List<? extends Vehicle> vehicles) {
+        this.parkingLot = parkingLot;
+        this.vehicles = vehicles;
+    }
+
+    /**
+     * Succeeds if at least one vehicle was parked; check getResults for the others
+     */
+    @Override
+    public boolean execute() {
+        results = parkingLot.parkAll(vehicles);
+        return results.stream().anyMatch(ParkingResult::isParked);
+    }
+
+    /**
+     * Frees the spots the batch took that are still held on its tickets; a vehicle that has
+     * left, and whoever parked there since, is left alone. Undoes at most once per execute.
+     */
+    @Override
+    public boolean undo() {
+        int[] spotIds = results.stream()
+                .filter(ParkingResult::isParked)
+                .filter(r -> parkingLot.findTicketBySpot(r.getTicket().getSlotNo()) == r.getTicket())
+                .mapToInt(r -> r.getTicket().getSlotNo())
+                .toArray();
+        results = List.of();
+        if (spotIds.length == 0) return false;
+        parkingLot.freeAll(spotIds);
+        return true;
+    }
+
+    public List<ParkingResult> getResults() {
+        return results;
+    }
+}
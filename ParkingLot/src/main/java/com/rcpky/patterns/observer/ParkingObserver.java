@@ -1,7 +1,20 @@
 package com.rcpky.patterns.observer;
 
+import java.util.List;
+
 // Observer interface
 public interface ParkingObserver {
     void onSpotTaken(int spotId);
     void onSpotFreed(int spotId);
+
+    // Every event goes through here; override it to see the full payload instead of the spot id
+    default void onEvent(SpotEvent e) {
+        if (e.isTaken()) onSpotTaken(e.getSpotId());
+        else onSpotFreed(e.getSpotId());
+    }
+
+    // Called by asynchronous dispatch; events for the same spot arrive in the order they happened
+    default void onBatch(List<SpotEvent> events) {
+        for (SpotEvent e : events) onEvent(e);
+    }
 }
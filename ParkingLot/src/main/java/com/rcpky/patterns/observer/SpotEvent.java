@@ -0,0 +1,62 @@
+package com.rcpky.patterns.observer;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.spots.ParkingSpot;
+import com.rcpky.tickets.ParkingTicket;
+import lombok.Getter;
+
+/**
+ * A spot state change, delivered to observers one by one or in batches by asynchronous dispatch.
+ * Events from the lot carry the spot and vehicle type, the ticket and when it happened; a freed
+ * spot also tells when its vehicle arrived, so consumers can work out the stay without looking
+ * the ticket up. Events built from a bare spot id leave those fields null or 0.
+ */
+@Getter
+public class SpotEvent {
+    private final int spotId;
+    private final boolean taken;
+    private final ParkingSpotType spotType;
+    private final VehicleType vehicleType;
+    private final long ticketNo;
+    private final long timeMillis;
+    // Arrival of the vehicle involved, 0 if unknown
+    private final long entryMillis;
+
+    public SpotEvent(int spotId, boolean taken) {
+        this(spotId, taken, null, null, 0, System.currentTimeMillis(), 0);
+    }
+
+    public SpotEvent(int spotId, boolean taken, ParkingSpotType spotType, VehicleType vehicleType,
+                     long ticketNo, long timeMillis, long entryMillis) {
+        this.spotId = spotId;
+        this.taken = taken;
+        this.spotType = spotType;
+        this.vehicleType = vehicleType;
+        this.ticketNo = ticketNo;
+        this.timeMillis = timeMillis;
+        this.entryMillis = entryMillis;
+    }
+
+    public static SpotEvent taken(ParkingSpot s, ParkingTicket t) {
+        long entry = t.getEntryTime().getTime();
+        return new SpotEvent(s.getId(), true, s.getType(), VehicleType.of(t.getVehicle()), t.getTicketNo(), entry, entry);
+    }
+
+    /**
+     * The spot was freed now; the ticket may be null if the spot was taken without one.
+     */
+    public static SpotEvent freed(ParkingSpot s, ParkingTicket t) {
+        long now = System.currentTimeMillis();
+        if (t == null) return new SpotEvent(s.getId(), false, s.getType(), null, 0, now, 0);
+        return new SpotEvent(s.getId(), false, s.getType(), VehicleType.of(t.getVehicle()), t.getTicketNo(),
+                now, t.getEntryTime().getTime());
+    }
+
+    /**
+     * How long the vehicle stayed, for a freed spot whose arrival is known; otherwise -1.
+     */
+    public long getDwellMillis() {
+        return taken || entryMillis == 0 ? -1 : timeMillis - entryMillis;
+    }
+}
@@ -0,0 +1,114 @@
+package com.rcpky.payments;
+
+import com.rcpky.enums.CircuitState;
+
+import java.time.Duration;
+
+/**
+ * Stops calling a failing payment gateway for a while instead of piling up timeouts.
+ * After failureThreshold consecutive failures the circuit opens and calls fail fast; once
+ * openDuration has passed a single trial call is let through, which closes the circuit on
+ * success and reopens it on failure. Each call reports its outcome with the Permit it was let
+ * through with, so a call that started before the circuit opened and answers late is not taken
+ * for the trial: only the trial's outcome moves the circuit out of OPEN or HALF_OPEN.
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+
+    // Guarded by this
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("Failure threshold must be at least 1");
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Lets a call go ahead now, or returns null if it may not. A caller that gets a permit must
+     * report the call's outcome with it, or hand it back with release if the call is never made.
+     */
+    public synchronized Permit tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return new Permit(false, timesOpened);
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) return null;
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = true;
+                return new Permit(true, timesOpened);
+            default:
+                if (trialInFlight) return null;
+                trialInFlight = true;
+                return new Permit(true, timesOpened);
+        }
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (permit.trial) {
+            trialInFlight = false;
+            state = CircuitState.CLOSED;
+            consecutiveFailures = 0;
+        } else if (isCurrent(permit)) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (permit.trial) {
+            trialInFlight = false;
+            open();
+        } else if (isCurrent(permit) && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Hands back a permit from tryAcquire for a call that was never made.
+     */
+    public synchronized void release(Permit permit) {
+        if (permit.trial) trialInFlight = false;
+    }
+
+    // A regular call counts only while the circuit is still closed since the call was let through
+    private boolean isCurrent(Permit permit) {
+        return state == CircuitState.CLOSED && permit.timesOpened == timesOpened;
+    }
+
+    private void open() {
+        timesOpened++;
+        state = CircuitState.OPEN;
+        openedAt = System.nanoTime();
+        consecutiveFailures = 0;
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    /**
+     * Leave for one call from tryAcquire, remembering whether it is the half-open trial.
+     */
+    public static final class Permit {
+        private final boolean trial;
+        private final long timesOpened;
+
+        private Permit(boolean trial, long timesOpened) {
+            this.trial = trial;
+            this.timesOpened = timesOpened;
+        }
+
+        public boolean isTrial() {
+            return trial;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.rcpky.enums.PaymentStatus;
 import com.rcpky.tickets.ParkingTicket;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Concrete implementation of PaymentStrategy for credit card payments
@@ -13,18 +14,42 @@ public class CreditCardPayment extends Payment implements PaymentStrategy {
     private String name;
     private String cvv;
     private String expiryDate;
+    // Charges through the gateway pipeline when set, otherwise the local stub below
+    private final PaymentProcessor processor;
 
     public CreditCardPayment(String cardNumber, String name, String cvv, String expiryDate) {
+        this(cardNumber, name, cvv, expiryDate, null);
+    }
+
+    public CreditCardPayment(String cardNumber, String name, String cvv, String expiryDate, PaymentProcessor processor) {
         super(0.0); // Initialize with zero amount, will be set during processing
         this.cardNumber = cardNumber;
         this.name = name;
         this.cvv = cvv;
         this.expiryDate = expiryDate;
+        this.processor = processor;
         this.timestamp = new Date();
     }
 
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(ParkingTicket ticket, double amount) {
+        if (processor == null) return PaymentStrategy.super.processPaymentAsync(ticket, amount);
+        if (!validateCard()) return CompletableFuture.completedFuture(false);
+        this.amount = amount;
+        return processor.charge(ticket, this, cardNumber).handle((payment, e) -> {
+            if (e != null) {
+                System.out.println("Card payment of $" + amount + " failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                return false;
+            }
+            System.out.println("Card payment of $" + amount + " authorized for card ending with "
+                + cardNumber.substring(cardNumber.length() - 4));
+            return true;
+        });
+    }
+
     @Override
     public boolean processPayment(ParkingTicket ticket, double amount) {
+        if (processor != null) return processPaymentAsync(ticket, amount).join();
         // In a real implementation, this would connect to a payment gateway
         boolean paymentSuccessful = validateCard() && processTransaction(amount);
         
@@ -6,10 +6,15 @@ import java.util.Date;
 
 public abstract class Payment {
     protected double amount;
-    protected PaymentStatus status;
+    protected volatile PaymentStatus status;
     protected Date timestamp;
+    // Set by the gateway when a card payment is authorized, used to settle it
+    protected volatile String authorizationId;
 
     public Payment(double amt) { this.amount = amt; this.status = PaymentStatus.PENDING; this.timestamp = new Date(); }
     public abstract boolean initiateTransaction();
 
+    public double getAmount() { return amount; }
+    public PaymentStatus getStatus() { return status; }
+    public String getAuthorizationId() { return authorizationId; }
 }
@@ -0,0 +1,39 @@
+package com.rcpky.payments;
+
+import java.util.List;
+
+/**
+ * Card payment gateway. Calls block until the gateway answers, so callers run them off the
+ * gate threads (PaymentProcessor uses virtual threads).
+ */
+public interface PaymentGateway {
+    /**
+     * Authorizes a charge and returns the gateway's authorization id. Every attempt at the same
+     * charge passes the same idempotency key, so a retry of a call that did go through (but
+     * answered too late) returns the earlier authorization instead of charging the card again.
+     */
+    String authorize(String idempotencyKey, String cardNumber, double amount) throws GatewayException;
+
+    /**
+     * Settles previously authorized charges in one call.
+     */
+    void settle(List<String> authorizationIds) throws GatewayException;
+
+    /**
+     * Failure reported by the gateway; declined charges are not worth retrying.
+     */
+    class GatewayException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean retryable;
+
+        public GatewayException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.rcpky.payments;
+
+import com.rcpky.enums.PaymentStatus;
+import com.rcpky.payments.PaymentGateway.GatewayException;
+import com.rcpky.tickets.ParkingTicket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous card payment pipeline in front of a PaymentGateway.
+ * Every gateway call runs on its own virtual thread and is abandoned after the timeout;
+ * retryable failures (timeouts included) are retried with exponential backoff up to maxAttempts,
+ * all under one idempotency key per charge, and a circuit breaker fails payments fast while the
+ * gateway is down. Authorized payments are queued and settled in batches, either when a batch
+ * fills up or every settlement interval.
+ */
+public class PaymentProcessor implements AutoCloseable {
+    private final PaymentGateway gateway;
+    private final long timeoutMillis;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final CircuitBreaker breaker;
+    private final int settlementBatchSize;
+
+    private final ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService settler;
+    private final Queue<Payment> awaitingSettlement = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger awaitingCount = new AtomicInteger();
+    // Charges not yet authorized or failed; close() waits for them before the last settlement
+    private final Set<CompletableFuture<Payment>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong settledPayments = new AtomicLong();
+    private final AtomicLong settlementBatches = new AtomicLong();
+
+    public PaymentProcessor(PaymentGateway gateway, Duration timeout, int maxAttempts, Duration backoff,
+                            CircuitBreaker breaker, int settlementBatchSize, Duration settlementInterval) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("At least one attempt is needed");
+        this.gateway = gateway;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoff.toMillis();
+        this.breaker = breaker;
+        this.settlementBatchSize = settlementBatchSize;
+        this.settler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-settler");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = settlementInterval.toMillis();
+        settler.scheduleWithFixedDelay(this::settlePending, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Authorizes the payment's amount on the card. On success the payment is completed,
+     * attached to the ticket and queued for settlement; otherwise the future fails with the
+     * last GatewayException or a TimeoutException, or with an IllegalStateException once the
+     * processor is closed.
+     */
+    public CompletableFuture<Payment> charge(ParkingTicket ticket, Payment payment, String cardNumber) {
+        CompletableFuture<String> authorization = new CompletableFuture<>();
+        CompletableFuture<Payment> charged = authorization.handle((id, e) -> {
+            if (e != null) {
+                payment.status = PaymentStatus.FAILED;
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            payment.authorizationId = id;
+            payment.status = PaymentStatus.COMPLETED;
+            ticket.setPayment(payment);
+            awaitingSettlement.add(payment);
+            // A full batch is settled right away rather than at the next interval
+            if (awaitingCount.incrementAndGet() % settlementBatchSize == 0) {
+                try {
+                    settler.execute(this::settlePending);
+                } catch (RejectedExecutionException closing) {
+                    // close() settles whatever is still queued
+                }
+            }
+            return payment;
+        });
+        // Registered before checking closed, so close() either waits for this charge or it is refused here
+        inFlight.add(charged);
+        charged.whenComplete((p, e) -> inFlight.remove(charged));
+        if (closed) {
+            authorization.completeExceptionally(new IllegalStateException("Payment processor is closed"));
+        } else {
+            attempt(UUID.randomUUID().toString(), cardNumber, payment.getAmount(), 1, authorization);
+        }
+        return charged;
+    }
+
+    private void attempt(String key, String cardNumber, double amount, int attempt, CompletableFuture<String> result) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (permit == null) {
+            rejected.incrementAndGet();
+            result.completeExceptionally(new GatewayException("Payment gateway unavailable, circuit open", true));
+            return;
+        }
+        CompletableFuture<String> call = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = calls.submit(() -> {
+                try {
+                    call.complete(gateway.authorize(key, cardNumber, amount));
+                } catch (Throwable e) {
+                    call.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed while waiting to retry; the gateway was never called, so the breaker learns nothing
+            breaker.release(permit);
+            result.completeExceptionally(new IllegalStateException("Payment processor is closed"));
+            return;
+        }
+        call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((id, e) -> {
+            if (e == null) {
+                breaker.onSuccess(permit);
+                result.complete(id);
+                return;
+            }
+            if (e instanceof TimeoutException) {
+                timeouts.incrementAndGet();
+                task.cancel(true);
+            }
+            boolean retryable = !(e instanceof GatewayException) || ((GatewayException) e).isRetryable();
+            // A declined card still means the gateway is healthy
+            if (retryable) breaker.onFailure(permit);
+            else breaker.onSuccess(permit);
+            if (retryable && attempt < maxAttempts) {
+                retries.incrementAndGet();
+                long delay = backoffMillis << (attempt - 1);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(key, cardNumber, amount, attempt + 1, result));
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Settles queued payments batch by batch; a failed batch goes back to the queue for the next round.
+     */
+    private void settlePending() {
+        while (true) {
+            List<Payment> batch = new ArrayList<>(settlementBatchSize);
+            Payment p;
+            while (batch.size() < settlementBatchSize && (p = awaitingSettlement.poll()) != null) batch.add(p);
+            if (batch.isEmpty()) return;
+            List<String> ids = new ArrayList<>(batch.size());
+            for (Payment payment : batch) ids.add(payment.authorizationId);
+            try {
+                gateway.settle(ids);
+            } catch (GatewayException e) {
+                System.err.println("Settlement of " + batch.size() + " payments failed, will retry: " + e.getMessage());
+                awaitingSettlement.addAll(batch);
+                return;
+            }
+            for (Payment payment : batch) payment.status = PaymentStatus.SETTLED;
+            awaitingCount.addAndGet(-batch.size());
+            settledPayments.addAndGet(batch.size());
+            settlementBatches.incrementAndGet();
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() { return breaker; }
+    public long getRetries() { return retries.get(); }
+    public long getTimeouts() { return timeouts.get(); }
+    public long getRejected() { return rejected.get(); }
+    public long getSettledPayments() { return settledPayments.get(); }
+    public long getSettlementBatches() { return settlementBatches.get(); }
+    public int getAwaitingSettlement() { return awaitingCount.get(); }
+
+    /**
+     * Refuses new charges, waits up to a minute for those in flight, settles what is queued and
+     * stops the settlement and gateway call threads. If interrupted it stops them without waiting
+     * and leaves the interrupt set.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).get(1, TimeUnit.MINUTES);
+        } catch (ExecutionException e) {
+            // Failed charges are reported through their own futures
+        } catch (TimeoutException e) {
+            System.err.println(inFlight.size() + " payments still in flight at close, leaving them unsettled");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        calls.shutdown();
+        settler.execute(this::settlePending);
+        settler.shutdown();
+        try {
+            if (!settler.awaitTermination(1, TimeUnit.MINUTES)) settler.shutdownNow();
+            if (!calls.awaitTermination(1, TimeUnit.MINUTES)) calls.shutdownNow();
+        } catch (InterruptedException e) {
+            settler.shutdownNow();
+            calls.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
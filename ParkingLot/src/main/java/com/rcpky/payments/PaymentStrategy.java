@@ -2,9 +2,19 @@ package com.rcpky.payments;
 
 import com.rcpky.tickets.ParkingTicket;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Strategy Pattern: Interface for different payment methods
  */
 public interface PaymentStrategy {
     boolean processPayment(ParkingTicket ticket, double amount);
+
+    /**
+     * Processes the payment off the calling gate thread. By default the blocking
+     * processPayment runs on a virtual thread; strategies with a truly asynchronous path override this.
+     */
+    default CompletableFuture<Boolean> processPaymentAsync(ParkingTicket ticket, double amount) {
+        return CompletableFuture.supplyAsync(() -> processPayment(ticket, amount), Thread::startVirtualThread);
+    }
 }
@@ -0,0 +1,83 @@
+package com.rcpky.payments;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for a card gateway with configurable latency and failure behaviour.
+ * Each call sleeps for the base latency plus up to the same again of jitter; a share of calls
+ * instead hang for slowLatency (to exercise timeouts) or fail with a retryable error.
+ * Cards shorter than 16 digits are declined. Authorizations are remembered by idempotency key
+ * for the life of the gateway, so a repeated key gets the earlier authorization id back.
+ */
+public class SimulatedGateway implements PaymentGateway {
+    private final Duration latency;
+    private final Duration slowLatency;
+    private final double slowRate;
+    private final double failureRate;
+    private final AtomicLong authorizations = new AtomicLong();
+    private final AtomicLong settledCharges = new AtomicLong();
+    private final AtomicLong settlementCalls = new AtomicLong();
+    private final Map<String, String> authorizationsByKey = new ConcurrentHashMap<>();
+    private volatile boolean down;
+
+    public SimulatedGateway(Duration latency, Duration slowLatency, double slowRate, double failureRate) {
+        this.latency = latency;
+        this.slowLatency = slowLatency;
+        this.slowRate = slowRate;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String authorize(String idempotencyKey, String cardNumber, double amount) throws GatewayException {
+        pause();
+        if (down || ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new GatewayException("Gateway unavailable", true);
+        }
+        if (cardNumber == null || cardNumber.length() < 16) {
+            throw new GatewayException("Card declined", false);
+        }
+        return authorizationsByKey.computeIfAbsent(idempotencyKey, k -> {
+            authorizations.incrementAndGet();
+            return UUID.randomUUID().toString();
+        });
+    }
+
+    @Override
+    public void settle(List<String> authorizationIds) throws GatewayException {
+        pause();
+        if (down) throw new GatewayException("Gateway unavailable", true);
+        settlementCalls.incrementAndGet();
+        settledCharges.addAndGet(authorizationIds.size());
+    }
+
+    /**
+     * Makes every call fail, e.g. to watch the circuit breaker open.
+     */
+    public void setDown(boolean down) {
+        this.down = down;
+    }
+
+    public long getAuthorizations() { return authorizations.get(); }
+    public long getSettledCharges() { return settledCharges.get(); }
+    public long getSettlementCalls() { return settlementCalls.get(); }
+
+    private void pause() throws GatewayException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long millis = random.nextDouble() < slowRate
+                ? slowLatency.toMillis()
+                : latency.toMillis() + random.nextLong(latency.toMillis() + 1);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // The caller gave up on this call
+            Thread.currentThread().interrupt();
+            throw new GatewayException("Call abandoned", true);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.rcpky.reporting;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+import static com.rcpky.reporting.TicketHistory.CHUNK_BITS;
+import static com.rcpky.reporting.TicketHistory.CHUNK_SIZE;
+import static com.rcpky.reporting.TicketHistory.EPOCH_SECONDS;
+
+/**
+ * Aggregations over a TicketHistory, computed by fork-join scans of its columns.
+ * Each query splits the rows into ranges, every range is scanned in a tight loop over primitive
+ * arrays into a small partial result, and partial results are merged pairwise. Queries see the
+ * rows present when they start, so they can run while new tickets are being added.
+ */
+public class ReportingEngine {
+    private static final int MIN_ROWS_PER_TASK = 1 << 16;
+    private static final int SPOT_TYPES = ParkingSpotType.values().length;
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+
+    private final TicketHistory history;
+    private final ForkJoinPool pool;
+
+    public ReportingEngine(TicketHistory history) {
+        this(history, ForkJoinPool.commonPool());
+    }
+
+    public ReportingEngine(TicketHistory history, ForkJoinPool pool) {
+        this.history = history;
+        this.pool = pool;
+    }
+
+    /**
+     * Revenue of the tickets that exited in [fromMillis, toMillis), as result[hour][spot type ordinal]
+     * with hour 0 starting at fromMillis.
+     */
+    public double[][] revenueByHourAndType(long fromMillis, long toMillis) {
+        long fromSec = toSeconds(fromMillis);
+        long toSec = toSeconds(toMillis);
+        int hours = (int) ((toSec - fromSec + 3599) / 3600);
+        long[] cents = scan((lo, hi) -> {
+            long[] acc = new long[hours * SPOT_TYPES];
+            forEachChunk(lo, hi, (chunk, start, end) -> {
+                int[] entry = history.entrySeconds(chunk);
+                int[] stay = history.staySeconds(chunk);
+                int[] amount = history.amountCents(chunk);
+                byte[] type = history.spotTypes(chunk);
+                for (int i = start; i < end; i++) {
+                    long exit = (long) entry[i] + stay[i];
+                    if (exit < fromSec || exit >= toSec) continue;
+                    acc[(int) ((exit - fromSec) / 3600) * SPOT_TYPES + type[i]] += amount[i];
+                }
+            });
+            return acc;
+        }, ReportingEngine::sum);
+        double[][] revenue = new double[hours][SPOT_TYPES];
+        for (int h = 0; h < hours; h++) {
+            for (int t = 0; t < SPOT_TYPES; t++) revenue[h][t] = cents[h * SPOT_TYPES + t] / 100.0;
+        }
+        return revenue;
+    }
+
+    /**
+     * Average length of stay in minutes per vehicle type ordinal, over tickets that exited in
+     * [fromMillis, toMillis). Types without tickets report 0.
+     */
+    public double[] averageStayMinutesByVehicleType(long fromMillis, long toMillis) {
+        long[] totals = stayTotals(fromMillis, toMillis);
+        double[] average = new double[VEHICLE_TYPES];
+        for (int t = 0; t < VEHICLE_TYPES; t++) {
+            long count = totals[t * 2 + 1];
+            average[t] = count == 0 ? 0 : totals[t * 2] / 60.0 / count;
+        }
+        return average;
+    }
+
+    public double averageStayMinutes(long fromMillis, long toMillis) {
+        long[] totals = stayTotals(fromMillis, toMillis);
+        long seconds = 0, count = 0;
+        for (int t = 0; t < VEHICLE_TYPES; t++) {
+            seconds += totals[t * 2];
+            count += totals[t * 2 + 1];
+        }
+        return count == 0 ? 0 : seconds / 60.0 / count;
+    }
+
+    /**
+     * Highest number of vehicles parked at once during [fromMillis, toMillis), at minute
+     * resolution, counting the tickets in the history.
+     */
+    public OccupancyPeak peakOccupancy(long fromMillis, long toMillis) {
+        long fromSec = toSeconds(fromMillis);
+        long toSec = toSeconds(toMillis);
+        int minutes = (int) ((toSec - fromSec + 59) / 60);
+        // Each range builds a histogram of arrivals (+1) and departures (-1) per minute
+        int[] delta = scan((lo, hi) -> {
+            int[] acc = new int[minutes + 1];
+            forEachChunk(lo, hi, (chunk, start, end) -> {
+                int[] entry = history.entrySeconds(chunk);
+                int[] stay = history.staySeconds(chunk);
+                for (int i = start; i < end; i++) {
+                    long in = Math.max(entry[i], fromSec);
+                    long out = Math.min((long) entry[i] + stay[i], toSec);
+                    if (in >= out) continue;
+                    acc[(int) ((in - fromSec) / 60)]++;
+                    acc[(int) ((out - fromSec + 59) / 60)]--;
+                }
+            });
+            return acc;
+        }, ReportingEngine::sum);
+        int peak = 0, peakMinute = 0, occupied = 0;
+        for (int m = 0; m < minutes; m++) {
+            occupied += delta[m];
+            if (occupied > peak) {
+                peak = occupied;
+                peakMinute = m;
+            }
+        }
+        return new OccupancyPeak((fromSec + peakMinute * 60L + EPOCH_SECONDS) * 1000, peak);
+    }
+
+    // Per vehicle type: total stay seconds, then ticket count
+    private long[] stayTotals(long fromMillis, long toMillis) {
+        long fromSec = toSeconds(fromMillis);
+        long toSec = toSeconds(toMillis);
+        return scan((lo, hi) -> {
+            long[] acc = new long[VEHICLE_TYPES * 2];
+            forEachChunk(lo, hi, (chunk, start, end) -> {
+                int[] entry = history.entrySeconds(chunk);
+                int[] stay = history.staySeconds(chunk);
+                byte[] type = history.vehicleTypes(chunk);
+                for (int i = start; i < end; i++) {
+                    long exit = (long) entry[i] + stay[i];
+                    if (exit < fromSec || exit >= toSec) continue;
+                    acc[type[i] * 2] += stay[i];
+                    acc[type[i] * 2 + 1]++;
+                }
+            });
+            return acc;
+        }, ReportingEngine::sum);
+    }
+
+    private <R> R scan(RangeScanner<R> scanner, BinaryOperator<R> combiner) {
+        int rows = history.size();
+        int rowsPerTask = Math.max(MIN_ROWS_PER_TASK, rows / (pool.getParallelism() * 4));
+        return pool.invoke(new ScanTask<>(scanner, combiner, 0, rows, rowsPerTask));
+    }
+
+    private static void forEachChunk(int lo, int hi, ChunkScanner scanner) {
+        for (int row = lo; row < hi; ) {
+            int chunk = row >>> CHUNK_BITS;
+            int end = Math.min(hi, (chunk + 1) << CHUNK_BITS);
+            scanner.scan(chunk, row & (CHUNK_SIZE - 1), end - (chunk << CHUNK_BITS));
+            row = end;
+        }
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.floorDiv(millis, 1000) - EPOCH_SECONDS;
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) a[i] += b[i];
+        return a;
+    }
+
+    private static int[] sum(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) a[i] += b[i];
+        return a;
+    }
+
+    private interface RangeScanner<R> {
+        R scan(int lo, int hi);
+    }
+
+    private interface ChunkScanner {
+        void scan(int chunk, int start, int end);
+    }
+
+    private static final class ScanTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks only live for one query and are never serialized
+        private final transient RangeScanner<R> scanner;
+        private final transient BinaryOperator<R> combiner;
+        private final int lo, hi, rowsPerTask;
+
+        ScanTask(RangeScanner<R> scanner, BinaryOperator<R> combiner, int lo, int hi, int rowsPerTask) {
+            this.scanner = scanner;
+            this.combiner = combiner;
+            this.lo = lo;
+            this.hi = hi;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected R compute() {
+            if (hi - lo <= rowsPerTask) return scanner.scan(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            ScanTask<R> left = new ScanTask<>(scanner, combiner, lo, mid, rowsPerTask);
+            left.fork();
+            R right = new ScanTask<>(scanner, combiner, mid, hi, rowsPerTask).compute();
+            return combiner.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * Time of the first minute with the highest occupancy, and that occupancy
+     */
+    public static class OccupancyPeak {
+        private final long timeMillis;
+        private final int vehicles;
+
+        public OccupancyPeak(long timeMillis, int vehicles) {
+            this.timeMillis = timeMillis;
+            this.vehicles = vehicles;
+        }
+
+        public long getTimeMillis() { return timeMillis; }
+        public int getVehicles() { return vehicles; }
+    }
+}
@@ -0,0 +1,95 @@
+package com.rcpky.reporting;
+
+import com.rcpky.archive.ArchivedTicket;
+import com.rcpky.archive.TicketArchive;
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.tickets.TicketIdGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Append-only history of closed tickets stored column by column in primitive arrays.
+ * A row takes 14 bytes: entry time and length of stay in seconds, amount in cents, and spot
+ * and vehicle type ordinals, instead of a ParkingTicket with its Date, Vehicle and Payment objects.
+ * Columns are split into fixed-size chunks so appends never copy existing rows and scans can
+ * split work on chunk boundaries. One writer at a time; readers see every row below size().
+ */
+public class TicketHistory {
+    static final int CHUNK_BITS = 20;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final long EPOCH_SECONDS = TicketIdGenerator.EPOCH / 1000;
+
+    // Written before size is published, so readers that read size first see them
+    private int[][] entrySeconds = new int[16][];
+    private int[][] staySeconds = new int[16][];
+    private int[][] amountCents = new int[16][];
+    private byte[][] spotTypes = new byte[16][];
+    private byte[][] vehicleTypes = new byte[16][];
+    private volatile int size;
+
+    public synchronized void add(long entryMillis, long exitMillis, double amount,
+                                 ParkingSpotType spotType, VehicleType vehicleType) {
+        int row = size;
+        int chunk = row >>> CHUNK_BITS;
+        int i = row & (CHUNK_SIZE - 1);
+        if (i == 0) addChunk(chunk);
+        entrySeconds[chunk][i] = (int) (entryMillis / 1000 - EPOCH_SECONDS);
+        staySeconds[chunk][i] = (int) Math.max(0, (exitMillis - entryMillis) / 1000);
+        amountCents[chunk][i] = (int) Math.round(amount * 100);
+        spotTypes[chunk][i] = (byte) spotType.ordinal();
+        vehicleTypes[chunk][i] = (byte) vehicleType.ordinal();
+        size = row + 1;
+    }
+
+    /**
+     * Adds a closed ticket; the spot type comes from the caller since tickets only carry the spot id.
+     */
+    public void add(ParkingTicket t, ParkingSpotType spotType) {
+        if (t.getExitTime() == null) throw new IllegalArgumentException("Ticket " + t.getTicketNo() + " has not exited yet");
+        add(t.getEntryTime().getTime(), t.getExitTime().getTime(), t.getAmount(), spotType, VehicleType.of(t.getVehicle()));
+    }
+
+    public void add(ArchivedTicket t, ParkingSpotType spotType) {
+        add(t.getEntryMillis(), t.getExitMillis(), t.getAmount(), spotType, VehicleType.ofName(t.getVehicleType()));
+    }
+
+    /**
+     * Loads the archived tickets that exited in [fromMillis, toMillis) and returns how many were added.
+     */
+    public int addAll(TicketArchive archive, long fromMillis, long toMillis,
+                      IntFunction<ParkingSpotType> spotTypeOf) throws IOException {
+        int before = size;
+        archive.scan(fromMillis, toMillis, t -> add(t, spotTypeOf.apply(t.getSlotNo())));
+        return size - before;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int[] entrySeconds(int chunk) { return entrySeconds[chunk]; }
+    int[] staySeconds(int chunk) { return staySeconds[chunk]; }
+    int[] amountCents(int chunk) { return amountCents[chunk]; }
+    byte[] spotTypes(int chunk) { return spotTypes[chunk]; }
+    byte[] vehicleTypes(int chunk) { return vehicleTypes[chunk]; }
+
+    private void addChunk(int chunk) {
+        if (chunk == entrySeconds.length) {
+            int n = chunk * 2;
+            entrySeconds = Arrays.copyOf(entrySeconds, n);
+            staySeconds = Arrays.copyOf(staySeconds, n);
+            amountCents = Arrays.copyOf(amountCents, n);
+            spotTypes = Arrays.copyOf(spotTypes, n);
+            vehicleTypes = Arrays.copyOf(vehicleTypes, n);
+        }
+        entrySeconds[chunk] = new int[CHUNK_SIZE];
+        staySeconds[chunk] = new int[CHUNK_SIZE];
+        amountCents[chunk] = new int[CHUNK_SIZE];
+        spotTypes[chunk] = new byte[CHUNK_SIZE];
+        vehicleTypes[chunk] = new byte[CHUNK_SIZE];
+    }
+}
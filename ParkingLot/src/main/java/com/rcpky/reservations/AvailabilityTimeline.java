@@ -0,0 +1,138 @@
+package com.rcpky.reservations;
+
+import java.util.Arrays;
+
+/**
+ * How many spots of one type are reserved in every booking slot of the horizon, as a segment tree
+ * with range add and range max. Booking or cancelling a window adds to its slots and asking how
+ * many spots are free throughout a window takes the busiest slot in it, both in O(log slots)
+ * however many reservations there are.
+ * Slots are numbered from the epoch and live in a ring of horizon slots: as time moves on, slots
+ * that have passed are zeroed and come back as the far end of the horizon. Each node keeps the
+ * amount added to its whole range next to the max below it, so nothing has to be pushed down.
+ * Not thread-safe; ReservationBook guards each timeline with its type's lock.
+ */
+public class AvailabilityTimeline {
+    private final int capacity;
+    private final int slots;
+    private final int[] added;
+    private final int[] max;
+    private long currentSlot = Long.MIN_VALUE;
+
+    public AvailabilityTimeline(int capacity, int slots) {
+        if (slots < 1) throw new IllegalArgumentException("Timeline needs at least one slot");
+        this.capacity = capacity;
+        this.slots = slots;
+        this.added = new int[4 * slots];
+        this.max = new int[4 * slots];
+    }
+
+    public int getCapacity() { return capacity; }
+    public int getSlots() { return slots; }
+    public long getCurrentSlot() { return currentSlot; }
+
+    /**
+     * Moves the horizon to start at the given slot, clearing the slots that have passed.
+     */
+    public void advanceTo(long slot) {
+        if (currentSlot == Long.MIN_VALUE || slot - currentSlot >= slots) {
+            Arrays.fill(added, 0);
+            Arrays.fill(max, 0);
+        } else {
+            for (long s = currentSlot; s < slot; s++) clear(1, 0, slots, ringPos(s), 0);
+        }
+        if (slot > currentSlot) currentSlot = slot;
+    }
+
+    /**
+     * Whether the window [fromSlot, toSlot) lies within the current horizon.
+     */
+    public boolean covers(long fromSlot, long toSlot) {
+        return fromSlot >= currentSlot && fromSlot < toSlot && toSlot - currentSlot <= slots;
+    }
+
+    /**
+     * Spots reserved in the busiest slot of the window.
+     */
+    public int maxReserved(long fromSlot, long toSlot) {
+        checkCovered(fromSlot, toSlot);
+        int a = ringPos(fromSlot);
+        int end = a + (int) (toSlot - fromSlot);
+        if (end <= slots) return max(1, 0, slots, a, end);
+        return Math.max(max(1, 0, slots, a, slots), max(1, 0, slots, 0, end - slots));
+    }
+
+    /**
+     * Spots free in the busiest slot of the window, an upper bound on the spots free throughout it.
+     */
+    public int freeThroughout(long fromSlot, long toSlot) {
+        return capacity - maxReserved(fromSlot, toSlot);
+    }
+
+    public void reserve(long fromSlot, long toSlot) {
+        update(fromSlot, toSlot, 1);
+    }
+
+    public void release(long fromSlot, long toSlot) {
+        update(fromSlot, toSlot, -1);
+    }
+
+    // Slots that have already passed were cleared when the horizon moved past them
+    private void update(long fromSlot, long toSlot, int delta) {
+        fromSlot = Math.max(fromSlot, currentSlot);
+        if (fromSlot >= toSlot) return;
+        checkCovered(fromSlot, toSlot);
+        int a = ringPos(fromSlot);
+        int end = a + (int) (toSlot - fromSlot);
+        if (end <= slots) {
+            add(1, 0, slots, a, end, delta);
+        } else {
+            add(1, 0, slots, a, slots, delta);
+            add(1, 0, slots, 0, end - slots, delta);
+        }
+    }
+
+    private void checkCovered(long fromSlot, long toSlot) {
+        if (!covers(fromSlot, toSlot)) {
+            throw new IllegalArgumentException("Window [" + fromSlot + ", " + toSlot + ") is outside the booking horizon ["
+                    + currentSlot + ", " + (currentSlot + slots) + ")");
+        }
+    }
+
+    private int ringPos(long slot) {
+        return (int) Math.floorMod(slot, (long) slots);
+    }
+
+    private void add(int node, int lo, int hi, int from, int to, int delta) {
+        if (to <= lo || hi <= from) return;
+        if (from <= lo && hi <= to) {
+            added[node] += delta;
+            max[node] += delta;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        add(2 * node, lo, mid, from, to, delta);
+        add(2 * node + 1, mid, hi, from, to, delta);
+        max[node] = added[node] + Math.max(max[2 * node], max[2 * node + 1]);
+    }
+
+    private int max(int node, int lo, int hi, int from, int to) {
+        if (to <= lo || hi <= from) return Integer.MIN_VALUE;
+        if (from <= lo && hi <= to) return max[node];
+        int mid = (lo + hi) >>> 1;
+        return added[node] + Math.max(max(2 * node, lo, mid, from, to), max(2 * node + 1, mid, hi, from, to));
+    }
+
+    // Sets one slot back to zero reservations; "above" is what the ancestors add to it
+    private void clear(int node, int lo, int hi, int pos, int above) {
+        if (hi - lo == 1) {
+            added[node] = -above;
+            max[node] = -above;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (pos < mid) clear(2 * node, lo, mid, pos, above + added[node]);
+        else clear(2 * node + 1, mid, hi, pos, above + added[node]);
+        max[node] = added[node] + Math.max(max[2 * node], max[2 * node + 1]);
+    }
+}
@@ -0,0 +1,136 @@
+package com.rcpky.reservations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The free gaps between the reservations of every spot of one type, indexed so that a spot that is
+ * free throughout a window is found in O(log slots + log spots) rather than by trying spot after spot.
+ * A spot is free for [from, to) exactly when one of its gaps starts at or before from and ends at or
+ * after to. Gaps are kept by start slot: those starting at or before the current slot share one open
+ * set, later ones sit in a ring of horizon slots like AvailabilityTimeline's, and a segment tree over
+ * the ring holds the latest gap end of every slot. A search takes the latest start up to from whose
+ * gaps reach to, and there the gap that ends soonest, so long gaps are left for long stays.
+ * Bounds are slot numbers; a spot's first gap starts at Long.MIN_VALUE and its last ends at
+ * Long.MAX_VALUE. Not thread-safe; ReservationBook guards each index with its type's lock.
+ */
+class FreeGapIndex {
+    private static final Comparator<Gap> BY_END = Comparator.comparingLong((Gap g) -> g.end).thenComparingInt(g -> g.spotId);
+
+    private final int slots;
+    private final TreeSet<Gap> open = new TreeSet<>(BY_END);
+    // Gaps starting in each future slot of the ring, created when first needed
+    private final List<TreeSet<Gap>> starting;
+    private final long[] latestEnd;
+    private long currentSlot = Long.MIN_VALUE;
+
+    FreeGapIndex(int slots) {
+        this.slots = slots;
+        this.starting = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) starting.add(null);
+        this.latestEnd = new long[4 * slots];
+        Arrays.fill(latestEnd, Long.MIN_VALUE);
+    }
+
+    /**
+     * Moves the current slot forward; gaps that now start in the past join the open set.
+     */
+    void advanceTo(long slot) {
+        if (currentSlot != Long.MIN_VALUE) {
+            long last = Math.min(slot, currentSlot + slots);
+            for (long s = currentSlot + 1; s <= last; s++) {
+                int pos = ringPos(s);
+                TreeSet<Gap> gaps = starting.get(pos);
+                if (gaps == null || gaps.isEmpty()) continue;
+                open.addAll(gaps);
+                gaps.clear();
+                update(1, 0, slots, pos, Long.MIN_VALUE);
+            }
+        }
+        if (slot > currentSlot) currentSlot = slot;
+    }
+
+    void add(SpotSchedule schedule, long startSlot, long endSlot) {
+        Gap g = new Gap(schedule, endSlot);
+        if (startSlot <= currentSlot) {
+            open.add(g);
+            return;
+        }
+        int pos = ringPos(startSlot);
+        TreeSet<Gap> gaps = starting.get(pos);
+        if (gaps == null) starting.set(pos, gaps = new TreeSet<>(BY_END));
+        gaps.add(g);
+        update(1, 0, slots, pos, gaps.last().end);
+    }
+
+    void remove(SpotSchedule schedule, long startSlot, long endSlot) {
+        Gap g = new Gap(schedule, endSlot);
+        if (startSlot <= currentSlot) {
+            open.remove(g);
+            return;
+        }
+        int pos = ringPos(startSlot);
+        TreeSet<Gap> gaps = starting.get(pos);
+        if (gaps == null || !gaps.remove(g)) return;
+        update(1, 0, slots, pos, gaps.isEmpty() ? Long.MIN_VALUE : gaps.last().end);
+    }
+
+    /**
+     * A spot free throughout [fromSlot, toSlot), or null if there is none. The window must not
+     * start before the current slot.
+     */
+    SpotSchedule find(long fromSlot, long toSlot) {
+        Gap probe = new Gap(null, toSlot);
+        if (fromSlot > currentSlot) {
+            // Ring positions of the slots after the current one up to fromSlot, latest first
+            int a = ringPos(currentSlot + 1);
+            int b = ringPos(Math.min(fromSlot, currentSlot + slots));
+            int pos = a <= b ? rightmost(1, 0, slots, a, b + 1, toSlot) : rightmost(1, 0, slots, 0, b + 1, toSlot);
+            if (pos < 0 && a > b) pos = rightmost(1, 0, slots, a, slots, toSlot);
+            if (pos >= 0) return starting.get(pos).ceiling(probe).schedule;
+        }
+        Gap g = open.ceiling(probe);
+        return g == null ? null : g.schedule;
+    }
+
+    private int ringPos(long slot) {
+        return (int) Math.floorMod(slot, (long) slots);
+    }
+
+    private void update(int node, int lo, int hi, int pos, long end) {
+        if (hi - lo == 1) {
+            latestEnd[node] = end;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (pos < mid) update(2 * node, lo, mid, pos, end);
+        else update(2 * node + 1, mid, hi, pos, end);
+        latestEnd[node] = Math.max(latestEnd[2 * node], latestEnd[2 * node + 1]);
+    }
+
+    // Rightmost position in [from, to) holding a gap that ends at or after end, or -1
+    private int rightmost(int node, int lo, int hi, int from, int to, long end) {
+        if (to <= lo || hi <= from || latestEnd[node] < end) return -1;
+        if (hi - lo == 1) return lo;
+        int mid = (lo + hi) >>> 1;
+        int pos = rightmost(2 * node + 1, mid, hi, from, to, end);
+        return pos >= 0 ? pos : rightmost(2 * node, lo, mid, from, to, end);
+    }
+
+    private static final class Gap {
+        final SpotSchedule schedule;
+        final int spotId;
+        final long end;
+
+        // The start is implied by the set a gap is kept in
+        Gap(SpotSchedule schedule, long end) {
+            this.schedule = schedule;
+            // Probes sort before every real gap with the same end
+            this.spotId = schedule == null ? Integer.MIN_VALUE : schedule.getSpot().getId();
+            this.end = end;
+        }
+    }
+}
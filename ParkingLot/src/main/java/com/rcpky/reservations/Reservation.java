@@ -0,0 +1,37 @@
+package com.rcpky.reservations;
+
+import com.rcpky.enums.ParkingSpotType;
+import lombok.Getter;
+
+/**
+ * Advance booking of one spot for a time window, from startMillis (inclusive) to endMillis
+ * (exclusive). Windows are widened to whole booking slots when the reservation is made.
+ */
+@Getter
+public class Reservation {
+    private final long id;
+    private final int spotId;
+    private final ParkingSpotType spotType;
+    private final long startMillis;
+    private final long endMillis;
+    private final String licenseNo;
+
+    public Reservation(long id, int spotId, ParkingSpotType spotType, long startMillis, long endMillis, String licenseNo) {
+        this.id = id;
+        this.spotId = spotId;
+        this.spotType = spotType;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.licenseNo = licenseNo;
+    }
+
+    public boolean overlaps(long fromMillis, long toMillis) {
+        return startMillis < toMillis && fromMillis < endMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation " + id + ": spot " + spotId + " (" + spotType + ") for " + licenseNo
+                + " [" + startMillis + ", " + endMillis + ")";
+    }
+}
@@ -0,0 +1,238 @@
+package com.rcpky.reservations;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.spots.ParkingSpot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Advance bookings for the spots of a lot. Time is divided into booking slots (15 minutes, say)
+ * and bookings open up to a horizon ahead; requested windows are widened to whole slots.
+ * Each spot keeps its reservations in a SpotSchedule and each spot type keeps an
+ * AvailabilityTimeline, so "how many compact spots are free at every moment from 17:00 to 20:00"
+ * is one O(log slots) query, and a sold-out window is turned down just as fast.
+ * Booking then takes a spot from the type's FreeGapIndex of the gaps between reservations, in
+ * O(log slots + log spots): of the spots free throughout the window, one whose gap starts latest
+ * before it and ends soonest after it, so bookings pack tightly and long gaps stay open.
+ * A window can have spots free at every moment and still no single spot free throughout, in
+ * which case booking fails rather than moving existing reservations around.
+ * Bookings of different spot types never wait for each other. Reservations that have ended are
+ * dropped once per slot, on the first call of the slot for their type.
+ */
+public class ReservationBook {
+    private final long slotMillis;
+    private final int horizonSlots;
+    private final Clock clock;
+    private final Map<ParkingSpotType, TypeBook> types = new EnumMap<>(ParkingSpotType.class);
+    private final Map<Integer, TypeBook> typeOfSpot = new HashMap<>();
+    private final Map<Integer, SpotSchedule> schedules = new HashMap<>();
+    private final Map<Long, Reservation> byId = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public ReservationBook(Collection<ParkingSpot> spots, Duration slot, Duration horizon) {
+        this(spots, slot, horizon, Clock.systemUTC());
+    }
+
+    public ReservationBook(Collection<ParkingSpot> spots, Duration slot, Duration horizon, Clock clock) {
+        this.slotMillis = slot.toMillis();
+        if (slotMillis < 1) throw new IllegalArgumentException("Booking slots must be at least a millisecond");
+        long slots = horizon.toMillis() / slotMillis;
+        if (slots < 1 || slots > Integer.MAX_VALUE / 4) throw new IllegalArgumentException("Unsupported booking horizon: " + horizon);
+        this.horizonSlots = (int) slots;
+        this.clock = clock;
+
+        Map<ParkingSpotType, List<SpotSchedule>> byType = new EnumMap<>(ParkingSpotType.class);
+        for (ParkingSpot s : spots) {
+            SpotSchedule schedule = new SpotSchedule(s);
+            schedules.put(s.getId(), schedule);
+            byType.computeIfAbsent(s.getType(), t -> new ArrayList<>()).add(schedule);
+        }
+        for (Map.Entry<ParkingSpotType, List<SpotSchedule>> e : byType.entrySet()) {
+            TypeBook book = new TypeBook(e.getValue());
+            types.put(e.getKey(), book);
+            for (SpotSchedule s : e.getValue()) typeOfSpot.put(s.getSpot().getId(), book);
+        }
+    }
+
+    /**
+     * Fewest spots of the type free at any moment of the window. Different spots may be the free
+     * ones at different moments, so fewer spots than this may be free throughout the window.
+     */
+    public int freeBetween(ParkingSpotType type, long fromMillis, long toMillis) {
+        TypeBook book = types.get(type);
+        if (book == null) return 0;
+        long from = slotOf(fromMillis), to = slotAfter(toMillis);
+        synchronized (book) {
+            book.advance();
+            return book.timeline.freeThroughout(from, to);
+        }
+    }
+
+    /**
+     * Books a spot of the given type for the window, or returns null if none is free throughout it.
+     * Throws IllegalArgumentException for a window in the past or beyond the booking horizon.
+     */
+    public Reservation book(ParkingSpotType type, String licenseNo, long fromMillis, long toMillis) {
+        TypeBook book = types.get(type);
+        if (book == null) return null;
+        long from = slotOf(fromMillis), to = slotAfter(toMillis);
+        synchronized (book) {
+            book.advance();
+            if (book.timeline.freeThroughout(from, to) <= 0) return null;
+            SpotSchedule schedule = book.gaps.find(from, to);
+            return schedule == null ? null : book.add(schedule, licenseNo, from, to);
+        }
+    }
+
+    /**
+     * Books a particular spot for the window, or returns null if it is already reserved then.
+     */
+    public Reservation bookSpot(int spotId, String licenseNo, long fromMillis, long toMillis) {
+        TypeBook book = typeOfSpot.get(spotId);
+        if (book == null) throw new IllegalArgumentException("Unknown spot " + spotId);
+        long from = slotOf(fromMillis), to = slotAfter(toMillis);
+        synchronized (book) {
+            book.advance();
+            book.timeline.maxReserved(from, to); // rejects windows outside the horizon
+            SpotSchedule schedule = schedules.get(spotId);
+            if (!schedule.isFree(from * slotMillis, to * slotMillis)) return null;
+            return book.add(schedule, licenseNo, from, to);
+        }
+    }
+
+    public boolean cancel(long reservationId) {
+        Reservation r = byId.get(reservationId);
+        if (r == null) return false;
+        TypeBook book = typeOfSpot.get(r.getSpotId());
+        synchronized (book) {
+            if (!byId.remove(reservationId, r)) return false;
+            book.unlink(schedules.get(r.getSpotId()), r);
+            book.advance();
+            book.timeline.release(r.getStartMillis() / slotMillis, r.getEndMillis() / slotMillis);
+            return true;
+        }
+    }
+
+    public Reservation getReservation(long reservationId) {
+        return byId.get(reservationId);
+    }
+
+    /**
+     * Reservation holding the spot at the given moment, or null if it is not booked then.
+     */
+    public Reservation findReservation(int spotId, long atMillis) {
+        TypeBook book = typeOfSpot.get(spotId);
+        if (book == null) return null;
+        synchronized (book) {
+            return schedules.get(spotId).reservationAt(atMillis);
+        }
+    }
+
+    /**
+     * Whether the spot has no reservation overlapping the window; the window is not widened.
+     */
+    public boolean isSpotFree(int spotId, long fromMillis, long toMillis) {
+        TypeBook book = typeOfSpot.get(spotId);
+        if (book == null) return false;
+        synchronized (book) {
+            return schedules.get(spotId).isFree(fromMillis, toMillis);
+        }
+    }
+
+    public List<Reservation> getReservations(int spotId) {
+        TypeBook book = typeOfSpot.get(spotId);
+        if (book == null) return List.of();
+        synchronized (book) {
+            return schedules.get(spotId).getReservations();
+        }
+    }
+
+    public int getReservationCount() {
+        return byId.size();
+    }
+
+    public Duration getSlot() {
+        return Duration.ofMillis(slotMillis);
+    }
+
+    private long slotOf(long millis) {
+        return Math.floorDiv(millis, slotMillis);
+    }
+
+    // First slot boundary at or after the given time
+    private long slotAfter(long millis) {
+        return -Math.floorDiv(-millis, slotMillis);
+    }
+
+    /**
+     * Reservations and timeline of one spot type; everything in it is guarded by its monitor.
+     */
+    private final class TypeBook {
+        final List<SpotSchedule> spots;
+        final AvailabilityTimeline timeline;
+        final FreeGapIndex gaps;
+
+        TypeBook(List<SpotSchedule> spots) {
+            this.spots = spots;
+            this.timeline = new AvailabilityTimeline(spots.size(), horizonSlots);
+            this.gaps = new FreeGapIndex(horizonSlots);
+            for (SpotSchedule s : spots) gaps.add(s, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        void advance() {
+            long now = clock.millis();
+            long slot = slotOf(now);
+            if (slot <= timeline.getCurrentSlot()) return;
+            timeline.advanceTo(slot);
+            gaps.advanceTo(slot);
+            for (SpotSchedule s : spots) {
+                for (Reservation ended = s.first(); ended != null && ended.getEndMillis() <= now; ended = s.first()) {
+                    unlink(s, ended);
+                    byId.remove(ended.getId(), ended);
+                }
+            }
+        }
+
+        // The window must be free on the spot
+        Reservation add(SpotSchedule schedule, String licenseNo, long from, long to) {
+            ParkingSpot spot = schedule.getSpot();
+            Reservation r = new Reservation(nextId.getAndIncrement(), spot.getId(), spot.getType(),
+                    from * slotMillis, to * slotMillis, licenseNo);
+            // Split the gap the reservation lands in
+            long gapStart = toSlot(schedule.endBefore(r.getStartMillis()));
+            long gapEnd = toSlot(schedule.startFrom(r.getStartMillis()));
+            gaps.remove(schedule, gapStart, gapEnd);
+            if (gapStart < from) gaps.add(schedule, gapStart, from);
+            if (to < gapEnd) gaps.add(schedule, to, gapEnd);
+            schedule.add(r);
+            timeline.reserve(from, to);
+            byId.put(r.getId(), r);
+            return r;
+        }
+
+        // Takes a reservation off its spot and merges the gaps on either side of it
+        void unlink(SpotSchedule schedule, Reservation r) {
+            if (!schedule.remove(r)) return;
+            long from = r.getStartMillis() / slotMillis, to = r.getEndMillis() / slotMillis;
+            long gapStart = toSlot(schedule.endBefore(r.getStartMillis()));
+            long gapEnd = toSlot(schedule.startFrom(r.getStartMillis()));
+            if (gapStart < from) gaps.remove(schedule, gapStart, from);
+            if (to < gapEnd) gaps.remove(schedule, to, gapEnd);
+            gaps.add(schedule, gapStart, gapEnd);
+        }
+
+        // Reservation bounds are whole slots; the open ends of a spot's schedule stay as they are
+        private long toSlot(long millis) {
+            return millis == Long.MIN_VALUE || millis == Long.MAX_VALUE ? millis : millis / slotMillis;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.rcpky.reservations;
+
+import com.rcpky.spots.ParkingSpot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservations of one spot as a sorted set of non-overlapping intervals keyed by start time.
+ * Because the intervals never overlap, their ends are sorted too, so the only reservation that
+ * can overlap a window is the last one starting before the window ends: every check is one
+ * O(log n) lookup. Not thread-safe; ReservationBook guards it with its spot type's lock.
+ */
+public class SpotSchedule {
+    private final ParkingSpot spot;
+    private final TreeMap<Long, Reservation> byStart = new TreeMap<>();
+
+    public SpotSchedule(ParkingSpot spot) {
+        this.spot = spot;
+    }
+
+    public ParkingSpot getSpot() {
+        return spot;
+    }
+
+    public boolean isFree(long fromMillis, long toMillis) {
+        Map.Entry<Long, Reservation> last = byStart.lowerEntry(toMillis);
+        return last == null || last.getValue().getEndMillis() <= fromMillis;
+    }
+
+    /**
+     * Reservation covering the given moment, or null if the spot is not booked then.
+     */
+    public Reservation reservationAt(long millis) {
+        Map.Entry<Long, Reservation> last = byStart.floorEntry(millis);
+        return last != null && last.getValue().getEndMillis() > millis ? last.getValue() : null;
+    }
+
+    /**
+     * Adds the reservation if its window is still free.
+     */
+    public boolean add(Reservation r) {
+        if (!isFree(r.getStartMillis(), r.getEndMillis())) return false;
+        byStart.put(r.getStartMillis(), r);
+        return true;
+    }
+
+    public boolean remove(Reservation r) {
+        return byStart.remove(r.getStartMillis(), r);
+    }
+
+    /**
+     * End of the last reservation starting before the given time, or Long.MIN_VALUE if there is none;
+     * for a free moment, where the free gap around it begins.
+     */
+    public long endBefore(long millis) {
+        Map.Entry<Long, Reservation> last = byStart.lowerEntry(millis);
+        return last == null ? Long.MIN_VALUE : last.getValue().getEndMillis();
+    }
+
+    /**
+     * Start of the first reservation starting at or after the given time, or Long.MAX_VALUE if there
+     * is none; for a free moment, where the free gap around it ends.
+     */
+    public long startFrom(long millis) {
+        Long next = byStart.ceilingKey(millis);
+        return next == null ? Long.MAX_VALUE : next;
+    }
+
+    /**
+     * The earliest reservation, or null if there is none.
+     */
+    public Reservation first() {
+        Map.Entry<Long, Reservation> first = byStart.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
+    public List<Reservation> getReservations() {
+        return new ArrayList<>(byStart.values());
+    }
+
+    public int size() {
+        return byStart.size();
+    }
+}
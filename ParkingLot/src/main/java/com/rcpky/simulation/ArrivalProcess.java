@@ -0,0 +1,82 @@
+package com.rcpky.simulation;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * When vehicles arrive at the lot, as an arrival rate that may change over the run.
+ * Arrival times are drawn as a Poisson process; a varying rate is handled by thinning,
+ * i.e. drawing at the peak rate and keeping each arrival with probability rate / peak.
+ */
+public interface ArrivalProcess {
+    /**
+     * Arrivals per second across all entrances, at the given time since the start of the run.
+     */
+    double rateAt(long elapsedNanos);
+
+    /**
+     * Highest rate the process ever reaches.
+     */
+    double peakRate();
+
+    /**
+     * Time of the next arrival after the given one at a gate that takes the given share of
+     * all arrivals. Gates each drawing their share add up to the whole process.
+     */
+    default long nextArrival(long afterNanos, double share, SplittableRandom random) {
+        double peak = peakRate();
+        double nanosPerArrival = 1e9 / (peak * share);
+        long t = afterNanos;
+        do {
+            t += (long) (-Math.log(1 - random.nextDouble()) * nanosPerArrival);
+        } while (random.nextDouble() * peak > rateAt(t));
+        return t;
+    }
+
+    /**
+     * Arrivals at a steady average rate.
+     */
+    static ArrivalProcess poisson(double perSecond) {
+        if (perSecond <= 0) throw new IllegalArgumentException("Arrival rate must be positive");
+        return new ArrivalProcess() {
+            @Override
+            public double rateAt(long elapsedNanos) { return perSecond; }
+
+            @Override
+            public double peakRate() { return perSecond; }
+
+            @Override
+            public String toString() { return "poisson(" + perSecond + "/s)"; }
+        };
+    }
+
+    /**
+     * Arrivals at the base rate with a rush at the peak rate in the middle of every cycle,
+     * e.g. a 10 s cycle with a 2 s rush for a compressed morning peak.
+     */
+    static ArrivalProcess rushHour(double baseRate, double peakRate, Duration cycle, Duration rush) {
+        if (baseRate < 0 || peakRate <= 0 || peakRate < baseRate) {
+            throw new IllegalArgumentException("Rates must satisfy 0 <= base <= peak and peak > 0");
+        }
+        long cycleNanos = cycle.toNanos();
+        long rushNanos = rush.toNanos();
+        if (rushNanos <= 0 || rushNanos > cycleNanos) throw new IllegalArgumentException("Rush must fit in the cycle");
+        long rushStart = (cycleNanos - rushNanos) / 2;
+        return new ArrivalProcess() {
+            @Override
+            public double rateAt(long elapsedNanos) {
+                long inCycle = elapsedNanos % cycleNanos;
+                return inCycle >= rushStart && inCycle < rushStart + rushNanos ? peakRate : baseRate;
+            }
+
+            @Override
+            public double peakRate() { return peakRate; }
+
+            @Override
+            public String toString() {
+                return "rushHour(" + baseRate + "/s, " + peakRate + "/s for " + rush.toMillis()
+                        + " ms every " + cycle.toMillis() + " ms)";
+            }
+        };
+    }
+}
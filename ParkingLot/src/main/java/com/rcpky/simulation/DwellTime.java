@@ -0,0 +1,62 @@
+package com.rcpky.simulation;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * How long a parked vehicle stays before it heads for an exit.
+ */
+public interface DwellTime {
+    long sampleNanos(SplittableRandom random);
+
+    static DwellTime fixed(Duration stay) {
+        long nanos = stay.toNanos();
+        return new DwellTime() {
+            @Override
+            public long sampleNanos(SplittableRandom random) { return nanos; }
+
+            @Override
+            public String toString() { return "fixed(" + stay.toMillis() + " ms)"; }
+        };
+    }
+
+    /**
+     * Memoryless stays around the given mean; most are short, a few are long.
+     */
+    static DwellTime exponential(Duration mean) {
+        double meanNanos = mean.toNanos();
+        return new DwellTime() {
+            @Override
+            public long sampleNanos(SplittableRandom random) {
+                return (long) (-Math.log(1 - random.nextDouble()) * meanNanos);
+            }
+
+            @Override
+            public String toString() { return "exponential(mean " + mean.toMillis() + " ms)"; }
+        };
+    }
+
+    /**
+     * Stays clustered around the median with a long tail, which is how real parking stays
+     * tend to look; sigma is the spread of the log of the stay.
+     */
+    static DwellTime logNormal(Duration median, double sigma) {
+        double mu = Math.log(median.toNanos());
+        return new DwellTime() {
+            @Override
+            public long sampleNanos(SplittableRandom random) {
+                return (long) Math.exp(mu + sigma * gaussian(random));
+            }
+
+            @Override
+            public String toString() { return "logNormal(median " + median.toMillis() + " ms, sigma " + sigma + ")"; }
+        };
+    }
+
+    // Box-Muller; SplittableRandom has no nextGaussian
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+}
@@ -0,0 +1,29 @@
+package com.rcpky.simulation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Settings for one TrafficSimulator run. The defaults model a busy but unsaturated lot:
+ * 2,000 arrivals per second over 4 entrances and 4 exits, with exponential stays of 2 s.
+ */
+@Getter
+@Setter
+public class SimulationConfig {
+    private int entrances = 4;
+    private int exits = 4;
+    private Duration duration = Duration.ofSeconds(10);
+    private ArrivalProcess arrivals = ArrivalProcess.poisson(2_000);
+    private DwellTime dwellTime = DwellTime.exponential(Duration.ofSeconds(2));
+    private VehicleMix vehicleMix = VehicleMix.standard();
+    // Runs with the same seed see the same vehicles, arrival times and stays
+    private long seed = 42;
+
+    @Override
+    public String toString() {
+        return entrances + " entrances, " + exits + " exits, " + duration.toMillis() + " ms, arrivals "
+                + arrivals + ", stays " + dwellTime + ", mix " + vehicleMix;
+    }
+}
@@ -0,0 +1,125 @@
+package com.rcpky.simulation;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Results of one TrafficSimulator run. toString() is meant for people; csvHeader() and toCsv()
+ * give one line per run for comparing builds. Latencies are in microseconds; allocation is
+ * -1 when the JVM cannot measure it per thread.
+ */
+@Getter
+public class SimulationReport {
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+
+    private final SimulationConfig config;
+    private final long elapsedNanos;
+    private final long parked;
+    private final long rejected;
+    private final long departed;
+    private final int stillParked;
+    private final LatencyHistogram entryLatency;
+    private final LatencyHistogram exitLatency;
+    // Times a gate thread blocked on a monitor, and for how long
+    private final long blockedCount;
+    private final long blockedMillis;
+    // Times a gate thread parked on a java.util.concurrent lock or condition
+    private final long lockWaits;
+    private final long allocatedBytes;
+
+    SimulationReport(SimulationConfig config, long elapsedNanos, long parked, long rejected, long departed,
+                     int stillParked, LatencyHistogram entryLatency, LatencyHistogram exitLatency,
+                     long blockedCount, long blockedMillis, long lockWaits, long allocatedBytes) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.parked = parked;
+        this.rejected = rejected;
+        this.departed = departed;
+        this.stillParked = stillParked;
+        this.entryLatency = entryLatency;
+        this.exitLatency = exitLatency;
+        this.blockedCount = blockedCount;
+        this.blockedMillis = blockedMillis;
+        this.lockWaits = lockWaits;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public long getOperations() {
+        return parked + rejected + departed;
+    }
+
+    public double getThroughput() {
+        return getOperations() / seconds();
+    }
+
+    public double getAllocationRate() {
+        return allocatedBytes < 0 ? -1 : allocatedBytes / seconds();
+    }
+
+    public double getBytesPerOperation() {
+        long ops = getOperations();
+        return allocatedBytes < 0 || ops == 0 ? -1 : (double) allocatedBytes / ops;
+    }
+
+    public static String csvHeader() {
+        return "entrances,exits,seconds,parked,rejected,departed,ops_per_sec,"
+                + "entry_p50_us,entry_p90_us,entry_p99_us,entry_p999_us,entry_max_us,"
+                + "exit_p50_us,exit_p90_us,exit_p99_us,exit_p999_us,exit_max_us,"
+                + "blocked,blocked_ms,lock_waits,alloc_mb_per_sec,bytes_per_op";
+    }
+
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(config.getEntrances()).append(',').append(config.getExits()).append(',')
+                .append(format("%.3f", seconds())).append(',')
+                .append(parked).append(',').append(rejected).append(',').append(departed).append(',')
+                .append(format("%.0f", getThroughput()));
+        appendPercentiles(sb, entryLatency);
+        appendPercentiles(sb, exitLatency);
+        sb.append(',').append(blockedCount).append(',').append(blockedMillis).append(',').append(lockWaits)
+                .append(',').append(format("%.1f", getAllocationRate() / (1 << 20)))
+                .append(',').append(format("%.0f", getBytesPerOperation()));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Simulation: ").append(config).append('\n');
+        sb.append(format("Ran %.2f s: %,d parked, %,d turned away (lot full), %,d left, %,d still parked at the end%n",
+                seconds(), parked, rejected, departed, stillParked));
+        sb.append(format("Throughput: %,.0f gate operations/s%n", getThroughput()));
+        sb.append(format("%-16s %10s %10s %10s %10s %10s%n", "Latency (us)", "p50", "p90", "p99", "p99.9", "max"));
+        appendRow(sb, "Entrance", entryLatency);
+        appendRow(sb, "Exit", exitLatency);
+        sb.append(format("Contention: %,d monitor blocks (%,d ms), %,d lock waits%n", blockedCount, blockedMillis, lockWaits));
+        if (allocatedBytes < 0) {
+            sb.append("Allocation: not measurable on this JVM\n");
+        } else {
+            sb.append(format("Allocation: %,.1f MB/s, %,.0f bytes per gate operation%n",
+                    getAllocationRate() / (1 << 20), getBytesPerOperation()));
+        }
+        return sb.toString();
+    }
+
+    private double seconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    private static void appendPercentiles(StringBuilder sb, LatencyHistogram h) {
+        for (double p : PERCENTILES) sb.append(',').append(h.percentile(p) / 1_000);
+        sb.append(',').append(h.getMax() / 1_000);
+    }
+
+    private static void appendRow(StringBuilder sb, String label, LatencyHistogram h) {
+        sb.append(format("%-16s", label));
+        for (double p : PERCENTILES) sb.append(format(" %10.1f", h.percentile(p) / 1e3));
+        sb.append(format(" %10.1f%n", h.getMax() / 1e3));
+    }
+
+    // Fixed locale so the CSV parses the same everywhere
+    private static String format(String pattern, Object... args) {
+        return String.format(Locale.ROOT, pattern, args);
+    }
+}
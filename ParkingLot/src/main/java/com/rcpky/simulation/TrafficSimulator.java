@@ -0,0 +1,259 @@
+package com.rcpky.simulation;
+
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.patterns.ThreadSafeParkingLot.ParkingException;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Vehicle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a ThreadSafeParkingLot with concurrent entrance and exit gates, one thread each.
+ * Entrances are open-loop: every arrival has a scheduled time and its latency runs from that
+ * time to the ticket, so a gate that falls behind shows up as queueing instead of slowing the
+ * arrivals down; it also includes the gate thread's own wake-up delay, tens of microseconds on
+ * most systems. A parked vehicle leaves through a random exit once its stay is over, and exit
+ * latency runs from the end of the stay to the freed spot.
+ * Each gate also reads its own monitor blocking, lock waits and allocated bytes from the
+ * ThreadMXBean, so the report covers the lot's work on the gate threads and nothing else.
+ * Vehicles still parked when the run ends stay put, so observers see the lot as it was at the end;
+ * sendAwayRemaining() then frees their spots to leave the lot as it was before the run.
+ */
+public class TrafficSimulator {
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    // Longest an exit sleeps before checking for newly parked vehicles
+    private static final long EXIT_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ThreadSafeParkingLot lot;
+    private final SimulationConfig config;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private ExitGate[] exits = new ExitGate[0];
+
+    public TrafficSimulator(ThreadSafeParkingLot lot, SimulationConfig config) {
+        if (config.getEntrances() < 1 || config.getExits() < 1) {
+            throw new IllegalArgumentException("Need at least one entrance and one exit");
+        }
+        this.lot = lot;
+        this.config = config;
+    }
+
+    public SimulationReport run() throws InterruptedException {
+        if (threads.isThreadContentionMonitoringSupported()) threads.setThreadContentionMonitoringEnabled(true);
+        SplittableRandom seeds = new SplittableRandom(config.getSeed());
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long end = start + config.getDuration().toNanos();
+
+        exits = new ExitGate[config.getExits()];
+        for (int i = 0; i < exits.length; i++) exits[i] = new ExitGate(end);
+        EntranceGate[] entrances = new EntranceGate[config.getEntrances()];
+        for (int i = 0; i < entrances.length; i++) entrances[i] = new EntranceGate(i, start, end, exits, seeds.split());
+
+        Thread[] gates = new Thread[entrances.length + exits.length];
+        for (int i = 0; i < entrances.length; i++) gates[i] = new Thread(entrances[i], "entrance-" + i);
+        for (int i = 0; i < exits.length; i++) gates[entrances.length + i] = new Thread(exits[i], "exit-" + i);
+        for (Thread g : gates) g.start();
+        for (Thread g : gates) g.join();
+        long elapsed = System.nanoTime() - start;
+
+        int stillParked = 0;
+        for (ExitGate exit : exits) stillParked += exit.remaining();
+
+        LatencyHistogram entryLatency = new LatencyHistogram();
+        LatencyHistogram exitLatency = new LatencyHistogram();
+        long parked = 0, rejected = 0, departed = 0;
+        Gate[] all = new Gate[gates.length];
+        System.arraycopy(entrances, 0, all, 0, entrances.length);
+        System.arraycopy(exits, 0, all, entrances.length, exits.length);
+        for (EntranceGate e : entrances) {
+            entryLatency.merge(e.latency);
+            parked += e.operations;
+            rejected += e.rejected;
+        }
+        for (ExitGate e : exits) {
+            exitLatency.merge(e.latency);
+            departed += e.operations;
+        }
+        long blockedCount = 0, blockedMillis = 0, lockWaits = 0, allocated = 0;
+        for (Gate g : all) {
+            blockedCount += g.blockedCount;
+            blockedMillis += g.blockedMillis;
+            lockWaits += g.lockWaits;
+            allocated = allocated < 0 || g.allocatedBytes < 0 ? -1 : allocated + g.allocatedBytes;
+        }
+        return new SimulationReport(config, elapsed, parked, rejected, departed, stillParked,
+                entryLatency, exitLatency, blockedCount, blockedMillis, lockWaits, allocated);
+    }
+
+    /**
+     * Frees the spots of the vehicles the last run left parked and returns how many there were.
+     */
+    public int sendAwayRemaining() {
+        int count = 0;
+        for (ExitGate exit : exits) count += exit.sendAway();
+        return count;
+    }
+
+    /**
+     * A gate thread and what it measured about itself.
+     */
+    private abstract class Gate implements Runnable {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long operations;
+        long blockedCount;
+        long blockedMillis;
+        long lockWaits;
+        long allocatedBytes;
+        private long idleParks;
+
+        @Override
+        @SuppressWarnings("deprecation") // getId() rather than threadId(), which needs JDK 19
+        public void run() {
+            long id = Thread.currentThread().getId();
+            ThreadInfo before = threads.getThreadInfo(id);
+            long allocatedBefore = allocatedBytes();
+            try {
+                work();
+            } finally {
+                ThreadInfo after = threads.getThreadInfo(id);
+                long allocatedAfter = allocatedBytes();
+                allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+                blockedCount = after.getBlockedCount() - before.getBlockedCount();
+                blockedMillis = after.getBlockedTime() < 0 ? 0 : after.getBlockedTime() - before.getBlockedTime();
+                // Parking while idle counts as waiting too; what remains was spent waiting on locks
+                lockWaits = Math.max(0, after.getWaitedCount() - before.getWaitedCount() - idleParks);
+            }
+        }
+
+        abstract void work();
+
+        void idleUntil(long deadline) {
+            long wait;
+            while ((wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                idleParks++;
+            }
+        }
+
+        private long allocatedBytes() {
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+                if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+                    return t.getCurrentThreadAllocatedBytes();
+                }
+            }
+            return -1;
+        }
+    }
+
+    private class EntranceGate extends Gate {
+        private final String platePrefix;
+        private final long start;
+        private final long runNanos;
+        private final ExitGate[] exits;
+        private final SplittableRandom random;
+        private final double share;
+        long rejected;
+
+        EntranceGate(int index, long start, long end, ExitGate[] exits, SplittableRandom random) {
+            this.platePrefix = "SIM-" + index + "-";
+            this.start = start;
+            this.runNanos = end - start;
+            this.exits = exits;
+            this.random = random;
+            this.share = 1.0 / config.getEntrances();
+        }
+
+        @Override
+        void work() {
+            ArrivalProcess arrivals = config.getArrivals();
+            long arrivalNo = 0;
+            for (long t = arrivals.nextArrival(0, share, random); t < runNanos; t = arrivals.nextArrival(t, share, random)) {
+                long arrival = start + t;
+                idleUntil(arrival);
+                Vehicle v = config.getVehicleMix().create(platePrefix + arrivalNo++, random);
+                try {
+                    ParkingTicket ticket = lot.parkVehicle(v);
+                    long now = System.nanoTime();
+                    latency.record(now - arrival);
+                    operations++;
+                    long due = now + config.getDwellTime().sampleNanos(random);
+                    exits[random.nextInt(exits.length)].depart(ticket.getSlotNo(), due);
+                } catch (ParkingException e) {
+                    rejected++;
+                }
+            }
+        }
+    }
+
+    private class ExitGate extends Gate {
+        private final long end;
+        // Filled by the entrances; only this gate's thread touches the pending queue
+        private final Queue<Departure> incoming = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<Departure> pending = new PriorityQueue<>(Comparator.comparingLong(d -> d.due));
+
+        ExitGate(long end) {
+            this.end = end;
+        }
+
+        void depart(int spotId, long due) {
+            incoming.add(new Departure(spotId, due));
+        }
+
+        @Override
+        void work() {
+            while (true) {
+                takeIncoming();
+                long now = System.nanoTime();
+                if (now >= end) return;
+                Departure next = pending.peek();
+                if (next == null || next.due > now) {
+                    long wake = Math.min(end, now + EXIT_POLL_NANOS);
+                    idleUntil(next == null ? wake : Math.min(wake, next.due));
+                    continue;
+                }
+                pending.poll();
+                lot.freeSlot(next.spotId);
+                latency.record(System.nanoTime() - next.due);
+                operations++;
+            }
+        }
+
+        int remaining() {
+            takeIncoming();
+            return pending.size();
+        }
+
+        /**
+         * Frees the spots of vehicles that had not left when the run ended; not measured.
+         */
+        int sendAway() {
+            takeIncoming();
+            int count = pending.size();
+            for (Departure d; (d = pending.poll()) != null; ) lot.freeSlot(d.spotId);
+            return count;
+        }
+
+        private void takeIncoming() {
+            for (Departure d; (d = incoming.poll()) != null; ) pending.add(d);
+        }
+    }
+
+    private static final class Departure {
+        final int spotId;
+        final long due;
+
+        Departure(int spotId, long due) {
+            this.spotId = spotId;
+            this.due = due;
+        }
+    }
+}
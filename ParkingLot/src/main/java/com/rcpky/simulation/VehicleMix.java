@@ -0,0 +1,62 @@
+package com.rcpky.simulation;
+
+import com.rcpky.enums.VehicleType;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Share of each vehicle type among arriving vehicles. Weights need not add up to one.
+ */
+public class VehicleMix {
+    private final VehicleType[] types;
+    private final double[] cumulative;
+    private final Map<VehicleType, Double> weights;
+
+    public VehicleMix(Map<VehicleType, Double> weights) {
+        this.weights = new EnumMap<>(weights);
+        this.types = new VehicleType[this.weights.size()];
+        this.cumulative = new double[this.weights.size()];
+        double total = 0;
+        int i = 0;
+        for (Map.Entry<VehicleType, Double> e : this.weights.entrySet()) {
+            if (e.getValue() < 0) throw new IllegalArgumentException("Negative weight for " + e.getKey());
+            total += e.getValue();
+            types[i] = e.getKey();
+            cumulative[i++] = total;
+        }
+        if (total <= 0) throw new IllegalArgumentException("Vehicle mix needs at least one positive weight");
+        for (int j = 0; j < cumulative.length; j++) cumulative[j] /= total;
+    }
+
+    /**
+     * 70% cars and 10% each of motorcycles, vans and trucks.
+     */
+    public static VehicleMix standard() {
+        Map<VehicleType, Double> weights = new EnumMap<>(VehicleType.class);
+        weights.put(VehicleType.CAR, 0.7);
+        weights.put(VehicleType.MOTORCYCLE, 0.1);
+        weights.put(VehicleType.VAN, 0.1);
+        weights.put(VehicleType.TRUCK, 0.1);
+        return new VehicleMix(weights);
+    }
+
+    public VehicleType nextType(SplittableRandom random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (r < cumulative[i]) return types[i];
+        }
+        return types[types.length - 1];
+    }
+
+    public Vehicle create(String licenseNo, SplittableRandom random) {
+        return nextType(random).create(licenseNo);
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
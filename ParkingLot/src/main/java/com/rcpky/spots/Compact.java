@@ -1,10 +1,12 @@
 package com.rcpky.spots;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.vehicles.Car;
 import com.rcpky.vehicles.Vehicle;
 
 public class Compact extends ParkingSpot implements VehicleAccommodator {
     public Compact(int id) { super(id); }
+    public Compact(int id, double x, double y) { super(id, x, y); }
     
     @Override
     public boolean assignVehicle(Vehicle v) {
@@ -19,4 +21,9 @@ public class Compact extends ParkingSpot implements VehicleAccommodator {
     public boolean canAccommodateVehicle(Vehicle vehicle) {
         return vehicle instanceof Car;
     }
+
+    @Override
+    public ParkingSpotType getType() {
+        return ParkingSpotType.COMPACT;
+    }
 }
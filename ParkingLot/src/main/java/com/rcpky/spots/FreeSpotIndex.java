@@ -0,0 +1,204 @@
+package com.rcpky.spots;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Motorcycle;
+import com.rcpky.vehicles.Truck;
+import com.rcpky.vehicles.Van;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Free list of parking spots per ParkingSpotType.
+ * Parking pops a free spot of a type the vehicle fits and freeing pushes it back,
+ * so both are O(1) however many spots the lot has. The lists are lock-free queues:
+ * polling a spot hands it to exactly one caller, so concurrent gates never claim the
+ * same spot, and the occupied/free transition itself is guarded by the spot's own monitor.
+ * Every transition also updates the per-type SpotAvailability counters.
+ */
+public class FreeSpotIndex {
+    private static final List<ParkingSpotType> CAR_TYPES = List.of(ParkingSpotType.COMPACT, ParkingSpotType.HANDICAPPED);
+    private static final List<ParkingSpotType> LARGE_TYPES = List.of(ParkingSpotType.LARGE);
+    private static final List<ParkingSpotType> MOTORCYCLE_TYPES = List.of(ParkingSpotType.MOTORCYCLE);
+
+    private final Map<ParkingSpotType, Queue<ParkingSpot>> freeSpots = new EnumMap<>(ParkingSpotType.class);
+    private final SpotAvailability availability = new SpotAvailability();
+
+    public FreeSpotIndex() {
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            freeSpots.put(type, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Spot types a vehicle may park in, in order of preference.
+     * Cars try compact spots first so handicapped spots stay free as long as possible.
+     */
+    public static List<ParkingSpotType> fittingTypes(Vehicle v) {
+        if (v instanceof Motorcycle) return MOTORCYCLE_TYPES;
+        if (v instanceof Truck || v instanceof Van) return LARGE_TYPES;
+        if (v instanceof Car) return CAR_TYPES;
+        return List.of();
+    }
+
+    public SpotAvailability getAvailability() {
+        return availability;
+    }
+
+    public void add(ParkingSpot s) {
+        if (s.isFree()) {
+            freeSpots.get(s.getType()).offer(s);
+            availability.spotFreed(s.getType());
+        }
+    }
+
+    /**
+     * Re-indexes spots from their current state, e.g. after recovery assigned vehicles to them
+     * directly. Not safe while gates are parking.
+     */
+    public void rebuild(Collection<ParkingSpot> spots) {
+        for (Queue<ParkingSpot> free : freeSpots.values()) free.clear();
+        availability.reset();
+        for (ParkingSpot s : spots) add(s);
+    }
+
+    /**
+     * Drops a spot from the index; linear in the spots of its type, only used when a spot is replaced.
+     */
+    public void remove(ParkingSpot s) {
+        if (freeSpots.get(s.getType()).remove(s)) availability.spotTaken(s.getType());
+    }
+
+    /**
+     * Assigns the vehicle to the first free spot it fits in, or returns null if there is none.
+     */
+    public ParkingSpot allocate(Vehicle v) {
+        for (ParkingSpotType type : fittingTypes(v)) {
+            ParkingSpot s = allocate(v, type);
+            if (s != null) return s;
+        }
+        return null;
+    }
+
+    /**
+     * Assigns the vehicle to a free spot of the given type, or returns null if there is none.
+     */
+    public ParkingSpot allocate(Vehicle v, ParkingSpotType type) {
+        ParkingSpot s = poll(v, type);
+        if (s != null) availability.spotTaken(type);
+        return s;
+    }
+
+    /**
+     * Assigns the vehicle to this particular spot if it is free, e.g. to put a vehicle back where
+     * it was. Linear in the free spots of its type, like remove.
+     */
+    public boolean claim(ParkingSpot s, Vehicle v) {
+        Queue<ParkingSpot> free = freeSpots.get(s.getType());
+        // Off the list first, so no gate can poll it while it is being assigned
+        if (!free.remove(s)) return false;
+        synchronized (s) {
+            if (!s.isFree()) {
+                // Taken without going through the index, as in poll
+                availability.spotTaken(s.getType());
+                return false;
+            }
+            if (s.assignVehicle(v)) {
+                availability.spotTaken(s.getType());
+                return true;
+            }
+        }
+        free.offer(s);
+        return false;
+    }
+
+    /**
+     * Allocates spots for a whole batch in one pass, in order; the result holds null for each
+     * vehicle that found no spot. A type found empty is skipped for the rest of the batch and the
+     * counters are updated once per type instead of once per vehicle.
+     */
+    public ParkingSpot[] allocateAll(List<? extends Vehicle> vehicles) {
+        ParkingSpot[] allocated = new ParkingSpot[vehicles.size()];
+        int[] taken = new int[ParkingSpotType.values().length];
+        EnumSet<ParkingSpotType> exhausted = EnumSet.noneOf(ParkingSpotType.class);
+        for (int i = 0; i < allocated.length; i++) {
+            Vehicle v = vehicles.get(i);
+            for (ParkingSpotType type : fittingTypes(v)) {
+                if (exhausted.contains(type)) continue;
+                ParkingSpot s = poll(v, type);
+                if (s == null) {
+                    exhausted.add(type);
+                    continue;
+                }
+                allocated[i] = s;
+                taken[type.ordinal()]++;
+                break;
+            }
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (taken[type.ordinal()] > 0) availability.spotsTaken(type, taken[type.ordinal()]);
+        }
+        return allocated;
+    }
+
+    /**
+     * Removes the spot's vehicle and returns the spot to its free list.
+     * Returns false if the spot was already free, e.g. when two gates free it at once.
+     */
+    public boolean free(ParkingSpot s) {
+        if (!release(s)) return false;
+        availability.spotFreed(s.getType());
+        return true;
+    }
+
+    /**
+     * Frees a batch of spots, updating the counters once per type; null entries are skipped.
+     * The result tells for each spot whether this call freed it.
+     */
+    public boolean[] freeAll(ParkingSpot[] spots) {
+        boolean[] freed = new boolean[spots.length];
+        int[] released = new int[ParkingSpotType.values().length];
+        for (int i = 0; i < spots.length; i++) {
+            if (spots[i] == null || !release(spots[i])) continue;
+            freed[i] = true;
+            released[spots[i].getType().ordinal()]++;
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (released[type.ordinal()] > 0) availability.spotsFreed(type, released[type.ordinal()]);
+        }
+        return freed;
+    }
+
+    private ParkingSpot poll(Vehicle v, ParkingSpotType type) {
+        Queue<ParkingSpot> free = freeSpots.get(type);
+        ParkingSpot s;
+        while ((s = free.poll()) != null) {
+            synchronized (s) {
+                if (!s.isFree()) {
+                    // Taken without going through the index: drop it here, it is re-added when freed
+                    availability.spotTaken(type);
+                    continue;
+                }
+                if (s.assignVehicle(v)) return s;
+            }
+            free.offer(s);
+            break;
+        }
+        return null;
+    }
+
+    private boolean release(ParkingSpot s) {
+        synchronized (s) {
+            if (!s.removeVehicle()) return false;
+        }
+        freeSpots.get(s.getType()).offer(s);
+        return true;
+    }
+}
@@ -1,11 +1,13 @@
 package com.rcpky.spots;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.vehicles.Car;
 import com.rcpky.vehicles.Vehicle;
 
 public class Handicapped extends ParkingSpot implements VehicleAccommodator {
 
     public Handicapped(int id) { super(id); }
+    public Handicapped(int id, double x, double y) { super(id, x, y); }
     
     @Override
     public boolean assignVehicle(Vehicle v) {
@@ -20,4 +22,9 @@ public class Handicapped extends ParkingSpot implements VehicleAccommodator {
     public boolean canAccommodateVehicle(Vehicle vehicle) {
         return vehicle instanceof Car;
     }
+
+    @Override
+    public ParkingSpotType getType() {
+        return ParkingSpotType.HANDICAPPED;
+    }
 }
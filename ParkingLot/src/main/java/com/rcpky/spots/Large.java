@@ -1,11 +1,13 @@
 package com.rcpky.spots;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.vehicles.Truck;
 import com.rcpky.vehicles.Van;
 import com.rcpky.vehicles.Vehicle;
 
 public class Large extends ParkingSpot implements VehicleAccommodator {
     public Large(int id) { super(id); }
+    public Large(int id, double x, double y) { super(id, x, y); }
     
     @Override
     public boolean assignVehicle(Vehicle v) {
@@ -20,4 +22,9 @@ public class Large extends ParkingSpot implements VehicleAccommodator {
     public boolean canAccommodateVehicle(Vehicle vehicle) {
         return vehicle instanceof Truck || vehicle instanceof Van;
     }
+
+    @Override
+    public ParkingSpotType getType() {
+        return ParkingSpotType.LARGE;
+    }
 }
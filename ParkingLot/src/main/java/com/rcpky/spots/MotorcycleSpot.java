@@ -1,10 +1,12 @@
 package com.rcpky.spots;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.vehicles.Motorcycle;
 import com.rcpky.vehicles.Vehicle;
 
 public class MotorcycleSpot extends ParkingSpot implements VehicleAccommodator {
     public MotorcycleSpot(int id) { super(id); }
+    public MotorcycleSpot(int id, double x, double y) { super(id, x, y); }
     
     @Override
     public boolean assignVehicle(Vehicle v) {
@@ -19,4 +21,9 @@ public class MotorcycleSpot extends ParkingSpot implements VehicleAccommodator {
     public boolean canAccommodateVehicle(Vehicle vehicle) {
         return vehicle instanceof Motorcycle;
     }
+
+    @Override
+    public ParkingSpotType getType() {
+        return ParkingSpotType.MOTORCYCLE;
+    }
 }
@@ -0,0 +1,147 @@
+package com.rcpky.spots;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.vehicles.Vehicle;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Free spots per ParkingSpotType, ordered by walking distance from each registered entrance.
+ * Parking at an entrance takes the head of that entrance's ordered set, the nearest free spot of
+ * the type, in O(log n). The spot then leaves every entrance's set and freeing puts it back into
+ * all of them, so entrances never hand out a spot another entrance took. Distances use the spots'
+ * x/y coordinates, fixed when the spot is created. Without an entrance spots are handed
+ * out in id order. Each spot type has its own lock.
+ */
+public class NearestSpotIndex {
+    private static final Comparator<ParkingSpot> BY_ID = Comparator.comparingInt(ParkingSpot::getId);
+
+    private final Map<ParkingSpotType, TypeIndex> byType = new EnumMap<>(ParkingSpotType.class);
+    private final SpotAvailability availability = new SpotAvailability();
+
+    public NearestSpotIndex() {
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            byType.put(type, new TypeIndex());
+        }
+    }
+
+    public SpotAvailability getAvailability() {
+        return availability;
+    }
+
+    /**
+     * Registers an entrance; its ordering covers every spot currently free.
+     */
+    public void addEntrance(int entranceId, double x, double y) {
+        Comparator<ParkingSpot> nearest = Comparator
+                .comparingDouble((ParkingSpot s) -> Math.abs(s.getX() - x) + Math.abs(s.getY() - y))
+                .thenComparing(BY_ID);
+        for (TypeIndex index : byType.values()) {
+            synchronized (index) {
+                NavigableSet<ParkingSpot> ordered = new TreeSet<>(nearest);
+                ordered.addAll(index.byId);
+                index.byEntrance.put(entranceId, ordered);
+            }
+        }
+    }
+
+    public void add(ParkingSpot s) {
+        if (!s.isFree()) return;
+        TypeIndex index = byType.get(s.getType());
+        synchronized (index) {
+            if (!index.link(s)) return;
+        }
+        availability.spotFreed(s.getType());
+    }
+
+    public void remove(ParkingSpot s) {
+        TypeIndex index = byType.get(s.getType());
+        synchronized (index) {
+            if (!index.unlink(s)) return;
+        }
+        availability.spotTaken(s.getType());
+    }
+
+    /**
+     * Assigns the vehicle to the lowest-numbered free spot it fits in, or returns null if there is none.
+     */
+    public ParkingSpot allocate(Vehicle v) {
+        return allocate(v, null);
+    }
+
+    /**
+     * Assigns the vehicle to the free spot nearest to the entrance among the types it fits,
+     * in their order of preference, or returns null if there is none. Unknown entrances get id order.
+     */
+    public ParkingSpot allocate(Vehicle v, Integer entranceId) {
+        for (ParkingSpotType type : FreeSpotIndex.fittingTypes(v)) {
+            TypeIndex index = byType.get(type);
+            synchronized (index) {
+                NavigableSet<ParkingSpot> ordered = entranceId == null ? null : index.byEntrance.get(entranceId);
+                ParkingSpot s = take(index, ordered == null ? index.byId : ordered, v, type);
+                if (s != null) return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the spot's vehicle and makes the spot available to every entrance again.
+     * Returns false if the spot was already free.
+     */
+    public boolean free(ParkingSpot s) {
+        synchronized (s) {
+            if (!s.removeVehicle()) return false;
+        }
+        TypeIndex index = byType.get(s.getType());
+        synchronized (index) {
+            // Still listed because it was taken outside the index, so it was never uncounted
+            if (!index.link(s)) return true;
+        }
+        availability.spotFreed(s.getType());
+        return true;
+    }
+
+    private ParkingSpot take(TypeIndex index, NavigableSet<ParkingSpot> ordered, Vehicle v, ParkingSpotType type) {
+        while (!ordered.isEmpty()) {
+            ParkingSpot s = ordered.first();
+            index.unlink(s);
+            synchronized (s) {
+                if (!s.isFree()) {
+                    // Taken without going through the index: drop it here, it is re-added when freed
+                    availability.spotTaken(type);
+                    continue;
+                }
+                if (s.assignVehicle(v)) {
+                    availability.spotTaken(type);
+                    return s;
+                }
+            }
+            index.link(s);
+            return null;
+        }
+        return null;
+    }
+
+    private static class TypeIndex {
+        final NavigableSet<ParkingSpot> byId = new TreeSet<>(BY_ID);
+        final Map<Integer, NavigableSet<ParkingSpot>> byEntrance = new HashMap<>();
+
+        boolean link(ParkingSpot s) {
+            if (!byId.add(s)) return false;
+            for (NavigableSet<ParkingSpot> ordered : byEntrance.values()) ordered.add(s);
+            return true;
+        }
+
+        boolean unlink(ParkingSpot s) {
+            if (!byId.remove(s)) return false;
+            for (NavigableSet<ParkingSpot> ordered : byEntrance.values()) ordered.remove(s);
+            return true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.rcpky.spots;
 
+import com.rcpky.enums.ParkingSpotType;
 import com.rcpky.vehicles.Vehicle;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,10 +11,19 @@ public abstract class ParkingSpot {
     protected int id;
     protected boolean isFree = true;
     protected Vehicle vehicle;
+    // Position on the level, used to pick the spot nearest to an entrance; fixed because the
+    // nearest-spot index orders spots by it
+    protected final double x, y;
 
-    public ParkingSpot(int id) { this.id = id; }
+    public ParkingSpot(int id) { this(id, 0, 0); }
+    public ParkingSpot(int id, double x, double y) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+    }
     public boolean isFree() { return isFree; }
     public abstract boolean assignVehicle(Vehicle v);
+    public abstract ParkingSpotType getType();
     public boolean removeVehicle() {
         if (!isFree && vehicle != null) {
             System.out.println("Slot " + id + " freed (was " + vehicle.getLicenseNo() + ")");
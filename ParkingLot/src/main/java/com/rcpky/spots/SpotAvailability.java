@@ -0,0 +1,49 @@
+package com.rcpky.spots;
+
+import com.rcpky.enums.ParkingSpotType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Free-spot counters per ParkingSpotType, kept up to date on every park and free.
+ * Reading a count is O(types) at most, so display boards never have to rescan the spots.
+ */
+public class SpotAvailability {
+    private final LongAdder[] free = new LongAdder[ParkingSpotType.values().length];
+
+    public SpotAvailability() {
+        for (int i = 0; i < free.length; i++) free[i] = new LongAdder();
+    }
+
+    void spotFreed(ParkingSpotType type) {
+        free[type.ordinal()].increment();
+    }
+
+    void spotTaken(ParkingSpotType type) {
+        free[type.ordinal()].decrement();
+    }
+
+    void spotsFreed(ParkingSpotType type, int count) {
+        free[type.ordinal()].add(count);
+    }
+
+    void spotsTaken(ParkingSpotType type, int count) {
+        free[type.ordinal()].add(-count);
+    }
+
+    void reset() {
+        for (LongAdder counter : free) counter.reset();
+    }
+
+    public long freeCount(ParkingSpotType type) {
+        return free[type.ordinal()].sum();
+    }
+
+    public Map<ParkingSpotType, Long> snapshot() {
+        Map<ParkingSpotType, Long> counts = new EnumMap<>(ParkingSpotType.class);
+        for (ParkingSpotType type : ParkingSpotType.values()) counts.put(type, freeCount(type));
+        return counts;
+    }
+}
@@ -0,0 +1,93 @@
+package com.rcpky.tariff;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+
+/**
+ * Tariff rules flattened into lookup tables, so every fee is O(1) whatever the length of the stay.
+ * For each vehicle type and spot type there is a cumulative array holding the cost of parking
+ * from midnight to every minute of the day. A stay within one day costs the difference of two
+ * entries, capped; a longer stay costs the capped rest of its first day, a precomputed capped
+ * full day for each day in between, and the capped start of its last day. Days are local
+ * days in the lot's time zone, using the offset in force when the stay began.
+ * Instances are immutable and safe to share between gates.
+ */
+public class CompiledTariff {
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final int ROW = MINUTES_PER_DAY + 1;
+    private static final int SPOT_TYPES = ParkingSpotType.values().length;
+
+    private final ZoneRules zone;
+    private final double[] cumulative;
+    private final int[] graceMinutes;
+    private final int[] unitMinutes;
+    private final double[] dailyCap;
+    private final double[] fullDay;
+
+    CompiledTariff(TariffRule[] rules, ZoneId zone) {
+        this.zone = zone.getRules();
+        this.cumulative = new double[rules.length * ROW];
+        this.graceMinutes = new int[rules.length];
+        this.unitMinutes = new int[rules.length];
+        this.dailyCap = new double[rules.length];
+        this.fullDay = new double[rules.length];
+        for (int k = 0; k < rules.length; k++) {
+            TariffRule rule = rules[k];
+            int base = k * ROW;
+            for (int m = 0; m < MINUTES_PER_DAY; m++) {
+                cumulative[base + m + 1] = cumulative[base + m] + rule.ratePerHourAt(m) / 60;
+            }
+            graceMinutes[k] = rule.getGraceMinutes();
+            unitMinutes[k] = rule.getBillingUnitMinutes();
+            dailyCap[k] = rule.getDailyCap();
+            fullDay[k] = Math.min(dailyCap[k], cumulative[base + MINUTES_PER_DAY]);
+        }
+    }
+
+    public double fee(VehicleType vehicleType, ParkingSpotType spotType, long entryMillis, long exitMillis) {
+        return fee(vehicleType.ordinal() * SPOT_TYPES + spotType.ordinal(), entryMillis, exitMillis);
+    }
+
+    /**
+     * Prices a batch of stays, e.g. an exit queue, in one pass over primitive arrays holding
+     * entry and exit times and vehicle and spot type ordinals.
+     */
+    public double[] feeAll(long[] entryMillis, long[] exitMillis, byte[] vehicleTypes, byte[] spotTypes) {
+        double[] fees = new double[entryMillis.length];
+        for (int i = 0; i < fees.length; i++) {
+            fees[i] = fee(vehicleTypes[i] * SPOT_TYPES + spotTypes[i], entryMillis[i], exitMillis[i]);
+        }
+        return fees;
+    }
+
+    private double fee(int k, long entryMillis, long exitMillis) {
+        // Every started minute counts
+        long stayMinutes = Math.max(0, (exitMillis - entryMillis + 59_999) / 60_000);
+        if (stayMinutes <= graceMinutes[k]) return 0;
+        long billed = (stayMinutes + unitMinutes[k] - 1) / unitMinutes[k] * unitMinutes[k];
+
+        long offsetMillis = zone.getOffset(Instant.ofEpochMilli(entryMillis)).getTotalSeconds() * 1000L;
+        long start = Math.floorDiv(entryMillis + offsetMillis, 60_000);
+        long end = start + billed;
+        long startDay = Math.floorDiv(start, MINUTES_PER_DAY);
+        long endDay = Math.floorDiv(end, MINUTES_PER_DAY);
+        int from = (int) (start - startDay * MINUTES_PER_DAY);
+        int to = (int) (end - endDay * MINUTES_PER_DAY);
+        int base = k * ROW;
+        double cap = dailyCap[k];
+
+        double fee;
+        if (startDay == endDay) {
+            fee = Math.min(cap, cumulative[base + to] - cumulative[base + from]);
+        } else {
+            fee = Math.min(cap, cumulative[base + MINUTES_PER_DAY] - cumulative[base + from])
+                    + (endDay - startDay - 1) * fullDay[k]
+                    + Math.min(cap, cumulative[base + to]);
+        }
+        return Math.round(fee * 100) / 100.0;
+    }
+}
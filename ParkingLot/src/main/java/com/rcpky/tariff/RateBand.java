@@ -0,0 +1,34 @@
+package com.rcpky.tariff;
+
+/**
+ * Hourly rate that applies between two times of day, in minutes after midnight.
+ * A band whose end is before its start wraps past midnight, e.g. 19:00 to 07:00.
+ */
+public class RateBand {
+    private final int startMinute;
+    private final int endMinute;
+    private final double ratePerHour;
+
+    public RateBand(int startMinute, int endMinute, double ratePerHour) {
+        if (startMinute < 0 || startMinute >= 1440 || endMinute < 0 || endMinute > 1440 || startMinute == endMinute) {
+            throw new IllegalArgumentException("Invalid rate band " + startMinute + "-" + endMinute);
+        }
+        if (ratePerHour < 0) throw new IllegalArgumentException("Negative rate " + ratePerHour);
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.ratePerHour = ratePerHour;
+    }
+
+    public static RateBand between(int startHour, int endHour, double ratePerHour) {
+        return new RateBand(startHour * 60, endHour * 60, ratePerHour);
+    }
+
+    public int getStartMinute() { return startMinute; }
+    public int getEndMinute() { return endMinute; }
+    public double getRatePerHour() { return ratePerHour; }
+
+    boolean covers(int minuteOfDay) {
+        if (startMinute < endMinute) return minuteOfDay >= startMinute && minuteOfDay < endMinute;
+        return minuteOfDay >= startMinute || minuteOfDay < endMinute;
+    }
+}
@@ -0,0 +1,66 @@
+package com.rcpky.tariff;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set of tariff rules as configured by the operator. Rules are only interpreted once, by
+ * compile(), which resolves the rule for every vehicle type and spot type and turns it into
+ * lookup tables; fees are then computed by CompiledTariff without looking at the rules again.
+ */
+public class Tariff {
+    private final List<TariffRule> rules = new ArrayList<>();
+
+    public Tariff addRule(TariffRule rule) {
+        rules.add(rule);
+        return this;
+    }
+
+    public List<TariffRule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    public CompiledTariff compile() {
+        return compile(ZoneId.systemDefault());
+    }
+
+    /**
+     * Compiles the rules for a lot in the given time zone, which decides where days and bands start.
+     */
+    public CompiledTariff compile(ZoneId zone) {
+        VehicleType[] vehicleTypes = VehicleType.values();
+        ParkingSpotType[] spotTypes = ParkingSpotType.values();
+        TariffRule[] resolved = new TariffRule[vehicleTypes.length * spotTypes.length];
+        for (VehicleType v : vehicleTypes) {
+            for (ParkingSpotType s : spotTypes) {
+                TariffRule best = null;
+                for (TariffRule rule : rules) {
+                    // On equal specificity the rule added last wins
+                    if (rule.matches(v, s) && (best == null || rule.specificity() >= best.specificity())) best = rule;
+                }
+                if (best == null) throw new IllegalStateException("No tariff rule for " + v + " in a " + s + " spot");
+                resolved[v.ordinal() * spotTypes.length + s.ordinal()] = best;
+            }
+        }
+        return new CompiledTariff(resolved, zone);
+    }
+
+    /**
+     * Default pricing: day rates from 08:00 to 20:00, 10 free minutes, billing per started
+     * quarter hour and a daily cap, with cheaper motorcycles and handicapped spots and dearer
+     * large spots and trucks.
+     */
+    public static Tariff standard() {
+        return new Tariff()
+                .addRule(new TariffRule(null, null, 2.5, 10, 15, 30, RateBand.between(8, 20, 3.5)))
+                .addRule(new TariffRule(null, ParkingSpotType.LARGE, 4, 10, 15, 45, RateBand.between(8, 20, 6)))
+                .addRule(new TariffRule(VehicleType.TRUCK, null, 5, 10, 15, 60, RateBand.between(8, 20, 7)))
+                .addRule(new TariffRule(VehicleType.MOTORCYCLE, null, 1, 10, 15, 12, RateBand.between(8, 20, 1.5)))
+                .addRule(new TariffRule(null, ParkingSpotType.HANDICAPPED, 1.5, 30, 15, 15));
+    }
+}
@@ -0,0 +1,64 @@
+package com.rcpky.tariff;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+
+import java.util.List;
+
+/**
+ * Pricing for one vehicle type in one spot type; a null type matches every type.
+ * Stays up to the grace period are free. Otherwise the stay is rounded up to whole billing
+ * units and each minute is charged at the rate of the band covering that time of day, or the
+ * base rate outside every band. Each calendar day of the stay costs at most the daily cap.
+ */
+public class TariffRule {
+    private final VehicleType vehicleType;
+    private final ParkingSpotType spotType;
+    private final double baseRatePerHour;
+    private final int graceMinutes;
+    private final int billingUnitMinutes;
+    private final double dailyCap;
+    private final List<RateBand> bands;
+
+    public TariffRule(VehicleType vehicleType, ParkingSpotType spotType, double baseRatePerHour, int graceMinutes,
+                      int billingUnitMinutes, double dailyCap, RateBand... bands) {
+        if (graceMinutes < 0) throw new IllegalArgumentException("Negative grace period " + graceMinutes);
+        if (billingUnitMinutes < 1) throw new IllegalArgumentException("Billing unit must be at least a minute");
+        if (baseRatePerHour < 0 || dailyCap < 0) throw new IllegalArgumentException("Rates and caps must not be negative");
+        this.vehicleType = vehicleType;
+        this.spotType = spotType;
+        this.baseRatePerHour = baseRatePerHour;
+        this.graceMinutes = graceMinutes;
+        this.billingUnitMinutes = billingUnitMinutes;
+        this.dailyCap = dailyCap;
+        this.bands = List.of(bands);
+    }
+
+    public VehicleType getVehicleType() { return vehicleType; }
+    public ParkingSpotType getSpotType() { return spotType; }
+    public double getBaseRatePerHour() { return baseRatePerHour; }
+    public int getGraceMinutes() { return graceMinutes; }
+    public int getBillingUnitMinutes() { return billingUnitMinutes; }
+    public double getDailyCap() { return dailyCap; }
+    public List<RateBand> getBands() { return bands; }
+
+    boolean matches(VehicleType v, ParkingSpotType s) {
+        return (vehicleType == null || vehicleType == v) && (spotType == null || spotType == s);
+    }
+
+    // Exact rules beat rules with one wildcard, which beat the catch-all
+    int specificity() {
+        return (vehicleType == null ? 0 : 2) + (spotType == null ? 0 : 1);
+    }
+
+    /**
+     * Hourly rate for a minute of the day; later bands override earlier ones.
+     */
+    double ratePerHourAt(int minuteOfDay) {
+        double rate = baseRatePerHour;
+        for (RateBand band : bands) {
+            if (band.covers(minuteOfDay)) rate = band.getRatePerHour();
+        }
+        return rate;
+    }
+}
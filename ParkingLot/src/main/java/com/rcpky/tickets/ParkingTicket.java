@@ -9,9 +9,8 @@ import java.util.Date;
 
 @Setter
 @Getter
-public class ParkingTicket {
-    private static int ticketSeed = 1000;
-    private int ticketNo;
+public final class ParkingTicket {
+    private long ticketNo;
     private int slotNo;
     private Vehicle vehicle;
     private Date entryTime, exitTime;
@@ -20,7 +19,14 @@ public class ParkingTicket {
     private Payment payment;
 
     public ParkingTicket(int slotNo, Vehicle v) {
-        this.ticketNo = ticketSeed++;
+        this(TicketIdGenerator.getDefault(), slotNo, v);
+    }
+
+    /**
+     * Issues a ticket numbered by the given gate's generator.
+     */
+    public ParkingTicket(TicketIdGenerator ids, int slotNo, Vehicle v) {
+        this.ticketNo = ids.nextId();
         this.slotNo = slotNo;
         this.vehicle = v;
         this.entryTime = new Date();
@@ -29,7 +35,15 @@ public class ParkingTicket {
         System.out.println("Ticket issued: " + ticketNo);
     }
 
-
-
-
+    /**
+     * Restores a ticket issued before a restart. Callers advance their generator past the restored number.
+     */
+    public ParkingTicket(long ticketNo, int slotNo, Vehicle v, Date entryTime) {
+        this.ticketNo = ticketNo;
+        this.slotNo = slotNo;
+        this.vehicle = v;
+        this.entryTime = entryTime;
+        this.status = TicketStatus.ISSUED;
+        v.assignTicket(this);
+    }
 }
@@ -0,0 +1,79 @@
+package com.rcpky.tickets;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free generator of unique, time-ordered ticket IDs.
+ * Each ID packs 41 bits of milliseconds since EPOCH, 10 bits of node (gate or server) id and a
+ * 12-bit per-millisecond sequence, so gates with distinct node ids never need to coordinate.
+ * The last timestamp and sequence live in one AtomicLong updated by CAS; when a millisecond's
+ * sequence is used up, or the wall clock steps back, the generator borrows the next millisecond
+ * instead of blocking, which keeps IDs strictly increasing per node.
+ */
+public class TicketIdGenerator {
+    public static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // The highest node id is reserved for callers that do not identify a gate
+    private static final TicketIdGenerator DEFAULT = new TicketIdGenerator();
+
+    private final int nodeId;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TicketIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId >= MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + (MAX_NODE - 1) + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    private TicketIdGenerator() {
+        this.nodeId = MAX_NODE;
+    }
+
+    /**
+     * Generator for callers that do not identify a gate.
+     */
+    public static TicketIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long prev, next;
+        do {
+            prev = last.get();
+            // A new millisecond starts at sequence 0; otherwise continue after the last ID
+            next = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+        return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                | ((long) nodeId << SEQUENCE_BITS)
+                | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Makes sure this generator only hands out IDs above one issued before a restart.
+     * IDs from other nodes are ignored since they can never collide with this node's.
+     */
+    public void advancePast(long id) {
+        if (nodeOf(id) != nodeId) return;
+        long state = (timestampOf(id) - EPOCH) << SEQUENCE_BITS | (id & SEQUENCE_MASK);
+        last.accumulateAndGet(state, Math::max);
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
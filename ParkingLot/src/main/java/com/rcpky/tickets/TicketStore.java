@@ -0,0 +1,68 @@
+package com.rcpky.tickets;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent ticket registry indexed by ticket ID, license plate and spot ID, so exit
+ * validation and "where is my car" lookups are a single hash lookup under load.
+ * The plate and spot indices only cover vehicles still parked; the ID index keeps every
+ * ticket until it is removed. Secondary entries are removed only while they still point at
+ * the same ticket, so a newer ticket for the same plate or spot is never unlinked by mistake.
+ */
+public class TicketStore {
+    private final Map<Long, ParkingTicket> byId = new ConcurrentHashMap<>();
+    private final Map<String, ParkingTicket> byPlate = new ConcurrentHashMap<>();
+    private final Map<Integer, ParkingTicket> bySpot = new ConcurrentHashMap<>();
+
+    public void add(ParkingTicket t) {
+        byId.put(t.getTicketNo(), t);
+        byPlate.put(t.getVehicle().getLicenseNo(), t);
+        bySpot.put(t.getSlotNo(), t);
+    }
+
+    public ParkingTicket getByTicketNo(long ticketNo) {
+        return byId.get(ticketNo);
+    }
+
+    public ParkingTicket getByPlate(String licenseNo) {
+        return byPlate.get(licenseNo);
+    }
+
+    public ParkingTicket getBySpot(int spotId) {
+        return bySpot.get(spotId);
+    }
+
+    /**
+     * Unlinks the ticket of a vehicle that has left from the plate and spot indices; it stays
+     * reachable by ID for payment. Read the spot's ticket before freeing the spot and pass it
+     * here afterwards, so a car parked in the spot meanwhile keeps its entry.
+     */
+    public void vacate(ParkingTicket t) {
+        bySpot.remove(t.getSlotNo(), t);
+        byPlate.remove(t.getVehicle().getLicenseNo(), t);
+    }
+
+    public ParkingTicket remove(long ticketNo) {
+        ParkingTicket t = byId.remove(ticketNo);
+        if (t != null) {
+            byPlate.remove(t.getVehicle().getLicenseNo(), t);
+            bySpot.remove(t.getSlotNo(), t);
+        }
+        return t;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public int parkedCount() {
+        return bySpot.size();
+    }
+
+    public Collection<ParkingTicket> getAll() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+}
@@ -0,0 +1,163 @@
+package com.rcpky;
+
+import com.rcpky.enums.CircuitState;
+import com.rcpky.payments.CircuitBreaker;
+import com.rcpky.payments.CircuitBreaker.Permit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(30);
+
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(3, OPEN_DURATION);
+    }
+
+    private void failCalls(int calls) {
+        for (int i = 0; i < calls; i++) breaker.onFailure(breaker.tryAcquire());
+    }
+
+    private static void waitOutOpenPeriod() throws InterruptedException {
+        Thread.sleep(OPEN_DURATION.toMillis() + 10);
+    }
+
+    @Test
+    @DisplayName("Should open after consecutive failures and fail calls fast while open")
+    void opensAfterThreshold() {
+        // Act
+        failCalls(2);
+        breaker.onSuccess(breaker.tryAcquire());
+        failCalls(2);
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, breaker.getState(), "A success should reset the failure count");
+
+        // Act
+        failCalls(1);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(1, breaker.getTimesOpened());
+        assertNull(breaker.tryAcquire(), "Calls should fail fast while the circuit is open");
+    }
+
+    @Test
+    @DisplayName("Should let a single trial through once open, closing on its success")
+    void trialSuccessCloses() throws InterruptedException {
+        // Arrange
+        failCalls(3);
+        waitOutOpenPeriod();
+
+        // Act
+        Permit trial = breaker.tryAcquire();
+
+        // Assert
+        assertNotNull(trial);
+        assertTrue(trial.isTrial());
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire(), "Only one trial should be in flight");
+
+        // Act
+        breaker.onSuccess(trial);
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        Permit next = breaker.tryAcquire();
+        assertNotNull(next);
+        assertFalse(next.isTrial());
+    }
+
+    @Test
+    @DisplayName("Should reopen when the trial fails")
+    void trialFailureReopens() throws InterruptedException {
+        // Arrange
+        failCalls(3);
+        waitOutOpenPeriod();
+
+        // Act
+        breaker.onFailure(breaker.tryAcquire());
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTimesOpened());
+        assertNull(breaker.tryAcquire(), "A new open period should start");
+    }
+
+    @Test
+    @DisplayName("Should not close on a late answer from a call made before the circuit opened")
+    void lateSuccessKeepsCircuitOpen() throws InterruptedException {
+        // Arrange - one call is still out when three others fail and open the circuit
+        Permit slow = breaker.tryAcquire();
+        Permit slowDecline = breaker.tryAcquire();
+        failCalls(3);
+
+        // Act
+        breaker.onSuccess(slow);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState(), "Only the half-open trial may close the circuit");
+
+        // Arrange
+        waitOutOpenPeriod();
+        Permit trial = breaker.tryAcquire();
+
+        // Act - the late call answers while the trial is still in flight
+        breaker.onSuccess(slowDecline);
+
+        // Assert
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire(), "The trial should still be the only call let through");
+
+        // Act
+        breaker.onFailure(trial);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should not count late failures from before the last open period")
+    void lateFailureFromEarlierPeriodIgnored() throws InterruptedException {
+        // Arrange - the circuit opens and closes again while two old calls are still out
+        Permit first = breaker.tryAcquire();
+        Permit second = breaker.tryAcquire();
+        failCalls(3);
+        waitOutOpenPeriod();
+        breaker.onSuccess(breaker.tryAcquire());
+
+        // Act
+        breaker.onFailure(first);
+        breaker.onFailure(second);
+        failCalls(2);
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, breaker.getState(), "Only failures since the circuit closed should count");
+        assertEquals(1, breaker.getTimesOpened());
+    }
+
+    @Test
+    @DisplayName("Should let another trial through once an unused trial permit is released")
+    void releasedTrialAllowsAnother() throws InterruptedException {
+        // Arrange
+        failCalls(3);
+        waitOutOpenPeriod();
+        Permit trial = breaker.tryAcquire();
+
+        // Act
+        breaker.release(trial);
+
+        // Assert
+        Permit next = breaker.tryAcquire();
+        assertNotNull(next);
+        assertTrue(next.isTrial());
+    }
+}
@@ -0,0 +1,230 @@
+package com.rcpky;
+
+import com.rcpky.enums.BackpressurePolicy;
+import com.rcpky.patterns.ParkingEventManager;
+import com.rcpky.patterns.observer.ParkingObserver;
+import com.rcpky.patterns.observer.SpotEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingEventManagerTest {
+
+    private ParkingEventManager events;
+    private RecordingObserver observer;
+
+    @BeforeEach
+    void setUp() {
+        events = new ParkingEventManager();
+        observer = new RecordingObserver();
+        events.subscribe(observer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        observer.release.countDown();
+        events.close();
+    }
+
+    // The ticket number identifies each event
+    private static SpotEvent event(int spotId, boolean taken, long id) {
+        return new SpotEvent(spotId, taken, null, null, id, System.currentTimeMillis(), 0);
+    }
+
+    // Publishes one event and waits until the consumer is stuck delivering it
+    private void stallConsumer() throws InterruptedException {
+        events.notify(event(1, true, 1));
+        assertTrue(observer.stalled.await(10, TimeUnit.SECONDS), "The consumer should pick up the first event");
+    }
+
+    @Test
+    @DisplayName("Should discard and count events that find the buffer full under DROP")
+    void dropDiscardsWhenFull() throws InterruptedException {
+        // Arrange - one consumer with room for two events
+        events.enableAsyncDispatch(2, 1, BackpressurePolicy.DROP);
+        stallConsumer();
+
+        // Act
+        for (long id = 2; id <= 5; id++) events.notify(event((int) id, true, id));
+        long dropped = events.getDroppedEvents();
+        observer.release.countDown();
+        events.close();
+
+        // Assert - counters are read before close() returns to synchronous dispatch
+        assertEquals(2, dropped);
+        assertEquals(List.of(1L, 2L, 3L), observer.delivered(), "Events that fit should still be delivered");
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest pending event per spot under COALESCE")
+    void coalesceKeepsLatest() throws InterruptedException {
+        // Arrange
+        events.enableAsyncDispatch(16, 1, BackpressurePolicy.COALESCE);
+        stallConsumer();
+
+        // Act
+        events.notify(event(2, true, 2));
+        events.notify(event(3, true, 3));
+        events.notify(event(2, false, 4));
+        events.notify(event(2, true, 5));
+        long coalesced = events.getCoalescedEvents();
+        observer.release.countDown();
+        events.close();
+
+        // Assert
+        assertEquals(2, coalesced);
+        assertEquals(List.of(1L, 5L, 3L), observer.delivered(), "Spot 2 should be delivered once, with its latest state");
+    }
+
+    @Test
+    @DisplayName("Should make a publisher wait for room under BLOCK")
+    void blockWaitsForRoom() throws InterruptedException {
+        // Arrange
+        events.enableAsyncDispatch(2, 1, BackpressurePolicy.BLOCK);
+        stallConsumer();
+        events.notify(event(2, true, 2));
+        events.notify(event(3, true, 3));
+        Thread publisher = new Thread(() -> events.notify(event(4, true, 4)));
+
+        // Act
+        publisher.start();
+        publisher.join(200);
+
+        // Assert
+        assertTrue(publisher.isAlive(), "The publisher should wait while the buffer is full");
+
+        // Act
+        observer.release.countDown();
+        publisher.join(10_000);
+        long dropped = events.getDroppedEvents();
+        events.close();
+
+        // Assert
+        assertFalse(publisher.isAlive());
+        assertEquals(List.of(1L, 2L, 3L, 4L), observer.delivered());
+        assertEquals(0, dropped);
+    }
+
+    @Test
+    @DisplayName("Should hand a blocked event back to its publisher when close() gives up waiting")
+    void blockedPublisherDeliversAfterCloseTimeout() throws InterruptedException {
+        // Arrange - the consumer is stuck, so a blocked publisher outlasts close()'s ten second wait
+        events.enableAsyncDispatch(2, 1, BackpressurePolicy.BLOCK);
+        stallConsumer();
+        events.notify(event(2, true, 2));
+        events.notify(event(3, true, 3));
+        Thread publisher = new Thread(() -> events.notify(event(4, true, 4)));
+        Thread closer = new Thread(events::close);
+        publisher.start();
+        publisher.join(100);
+
+        // Act
+        closer.start();
+        publisher.join(30_000);
+        observer.release.countDown();
+        closer.join(30_000);
+
+        // Assert
+        assertFalse(publisher.isAlive(), "The publisher should stop waiting once the dispatcher stops");
+        assertFalse(closer.isAlive());
+        assertEquals(List.of(4L, 1L, 2L, 3L), observer.delivered(), "The blocked event should be delivered by its publisher");
+    }
+
+    @Test
+    @DisplayName("Should deliver every event exactly once when publishers race close()")
+    void everyEventDeliveredOnce() throws InterruptedException {
+        // Arrange
+        CountingObserver counting = new CountingObserver();
+        events.unsubscribe(observer);
+        events.subscribe(counting);
+        events.enableAsyncDispatch(64, 2, BackpressurePolicy.BLOCK);
+        int publishers = 4, perPublisher = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            int publisher = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perPublisher; i++) {
+                    long id = (long) publisher * perPublisher + i;
+                    events.notify(event((int) (id % 97), i % 2 == 0, id));
+                }
+            }));
+        }
+
+        // Act
+        for (Thread t : threads) t.start();
+        Thread.sleep(5);
+        events.close();
+        for (Thread t : threads) t.join(30_000);
+
+        // Assert
+        assertEquals(publishers * perPublisher, counting.counts.size(), "Every event should be delivered");
+        for (Map.Entry<Long, AtomicInteger> e : counting.counts.entrySet()) {
+            assertEquals(1, e.getValue().get(), "Event " + e.getKey() + " should be delivered once");
+        }
+    }
+
+    /**
+     * Records delivered event ids in order; the first asynchronous batch waits until released.
+     */
+    static class RecordingObserver implements ParkingObserver {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final List<Long> delivered = new ArrayList<>();
+
+        @Override
+        public void onSpotTaken(int spotId) {
+        }
+
+        @Override
+        public void onSpotFreed(int spotId) {
+        }
+
+        @Override
+        public synchronized void onEvent(SpotEvent e) {
+            delivered.add(e.getTicketNo());
+        }
+
+        @Override
+        public void onBatch(List<SpotEvent> batch) {
+            stalled.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (SpotEvent e : batch) onEvent(e);
+        }
+
+        synchronized List<Long> delivered() {
+            return new ArrayList<>(delivered);
+        }
+    }
+
+    static class CountingObserver implements ParkingObserver {
+        final Map<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        @Override
+        public void onSpotTaken(int spotId) {
+        }
+
+        @Override
+        public void onSpotFreed(int spotId) {
+        }
+
+        @Override
+        public void onEvent(SpotEvent e) {
+            counts.computeIfAbsent(e.getTicketNo(), k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+}
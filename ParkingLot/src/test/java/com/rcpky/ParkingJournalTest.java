@@ -0,0 +1,224 @@
+package com.rcpky;
+
+import com.rcpky.journal.JournalEntry;
+import com.rcpky.journal.ParkingJournal;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Truck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingJournalTest {
+
+    // Frame header, fixed body and a seven-character plate such as "CAR-001"
+    private static final int RECORD_BYTES = 8 + 32 + 7;
+
+    private Path dir;
+    private final List<ParkingJournal> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ParkingJournal journal : opened) journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.deleteIfExists(p);
+        }
+    }
+
+    private ParkingJournal open(int segmentBytes, Duration groupCommitInterval) throws IOException {
+        ParkingJournal journal = new ParkingJournal(dir, segmentBytes, groupCommitInterval, 1000);
+        opened.add(journal);
+        return journal;
+    }
+
+    private static JournalEntry parked(int spotId) {
+        return JournalEntry.parked(spotId, 1000 + spotId, new Car(String.format("CAR-%03d", spotId)), 1_700_000_000_000L);
+    }
+
+    private static Map<Integer, String> platesBySpot(ParkingJournal journal) {
+        Map<Integer, String> plates = new TreeMap<>();
+        for (JournalEntry e : journal.getRecoveredEntries()) plates.put(e.getSpotId(), e.getLicenseNo());
+        return plates;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("journal-")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover the open tickets with their vehicles after a restart")
+    void recoversOpenTickets() throws IOException {
+        // Arrange
+        ParkingJournal journal = open(4096, Duration.ofMillis(5));
+        journal.appendDurably(parked(1));
+        journal.appendDurably(JournalEntry.parked(2, 1002, new Truck("TRK-002"), 1_700_000_000_000L));
+        journal.appendDurably(parked(3));
+        journal.appendDurably(JournalEntry.freed(1));
+        journal.close();
+
+        // Act
+        ParkingJournal reopened = open(4096, Duration.ofMillis(5));
+
+        // Assert
+        assertEquals(4, reopened.getLastSeq(), "Sequence numbers should continue after the last entry");
+        assertEquals(Map.of(2, "TRK-002", 3, "CAR-003"), platesBySpot(reopened), "Freed spot should not be restored");
+        for (JournalEntry e : reopened.getRecoveredEntries()) {
+            assertEquals(1000 + e.getSpotId(), e.getTicketNo(), "Ticket number should survive the restart");
+            assertEquals(1_700_000_000_000L, e.getTimeMillis(), "Entry time should survive the restart");
+        }
+        assertTrue(reopened.getRecoveredEntries().stream().anyMatch(e -> e.toVehicle() instanceof Truck),
+                "Vehicle type should survive the restart");
+    }
+
+    @Test
+    @DisplayName("Should stop replay at a torn record and never write over it")
+    void tornTail() throws IOException {
+        // Arrange
+        ParkingJournal journal = open(4096, Duration.ofMillis(5));
+        for (int spot = 1; spot <= 3; spot++) journal.appendDurably(parked(spot));
+        journal.close();
+        Path segment = segments().get(0);
+        // Act - flip a byte in the body of the third record, as a write cut short by a crash would leave it
+        try (FileChannel channel = FileChannel.open(segment, READ, WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long offset = 2 * RECORD_BYTES + 8 + 12;
+            channel.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 0xFF)).position(0);
+            channel.write(b, offset);
+        }
+        ParkingJournal recovered = open(4096, Duration.ofMillis(5));
+        recovered.appendDurably(parked(4));
+        recovered.close();
+        ParkingJournal reopened = open(4096, Duration.ofMillis(5));
+
+        // Assert
+        assertEquals(Map.of(1, "CAR-001", 2, "CAR-002"), platesBySpot(recovered), "Replay should stop before the torn record");
+        assertEquals(Map.of(1, "CAR-001", 2, "CAR-002", 4, "CAR-004"), platesBySpot(reopened),
+                "Entries appended after recovery should follow the last intact one");
+        assertEquals(3, reopened.getLastSeq(), "Torn record's sequence number should be reused");
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and replay all of them")
+    void segmentRollover() throws IOException {
+        // Arrange - room for two records per segment, since each also reserves an end marker
+        ParkingJournal journal = open(2 * RECORD_BYTES + 4, Duration.ofMillis(5));
+
+        // Act
+        for (int spot = 1; spot <= 7; spot++) journal.append(parked(spot));
+        journal.append(JournalEntry.freed(2));
+        journal.append(JournalEntry.freed(6));
+        journal.awaitDurable(journal.getLastSeq());
+        journal.close();
+        ParkingJournal reopened = open(2 * RECORD_BYTES + 4, Duration.ofMillis(5));
+
+        // Assert
+        assertTrue(segments().size() >= 4, "Seven parks should span several segments");
+        assertEquals(Map.of(1, "CAR-001", 3, "CAR-003", 4, "CAR-004", 5, "CAR-005", 7, "CAR-007"),
+                platesBySpot(reopened), "Every segment should be replayed in order");
+        assertEquals(9, reopened.getLastSeq());
+    }
+
+    @Test
+    @DisplayName("Should recover from a snapshot plus the entries after it")
+    void snapshotRecovery() throws IOException {
+        // Arrange
+        ParkingJournal journal = open(2 * RECORD_BYTES + 4, Duration.ofMillis(5));
+        for (int spot = 1; spot <= 5; spot++) journal.append(parked(spot));
+        journal.append(JournalEntry.freed(1));
+
+        // Act
+        journal.snapshot();
+        journal.append(parked(8));
+        journal.append(JournalEntry.freed(3));
+        journal.awaitDurable(journal.getLastSeq());
+        journal.close();
+        ParkingJournal reopened = open(2 * RECORD_BYTES + 4, Duration.ofMillis(5));
+
+        // Assert
+        assertEquals(6, reopened.getRecoveredFromSnapshot(), "Recovery should start from the snapshot");
+        assertEquals(Map.of(2, "CAR-002", 4, "CAR-004", 5, "CAR-005", 8, "CAR-008"), platesBySpot(reopened));
+        assertEquals(8, reopened.getLastSeq());
+    }
+
+    @Test
+    @DisplayName("Should make appends durable only by group commit, sharing one commit between waiters")
+    void groupCommit() throws Exception {
+        // Arrange - an hour between timed commits, so only waiting gates trigger one
+        ParkingJournal journal = open(1 << 20, Duration.ofHours(1));
+        journal.append(parked(1));
+        assertEquals(0, journal.getDurableSeq(), "Plain append should not wait for a commit");
+
+        // Act
+        ExecutorService gates = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        for (int spot = 2; spot <= 201; spot++) {
+            int s = spot;
+            appends.add(CompletableFuture.supplyAsync(() -> journal.appendDurably(parked(s)), gates));
+        }
+        CompletableFuture.allOf(appends.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        gates.shutdown();
+
+        // Assert
+        for (CompletableFuture<Long> a : appends) {
+            assertTrue(journal.getDurableSeq() >= a.get(), "Every durable append should be covered by a commit");
+        }
+        assertEquals(201, journal.getLastSeq());
+        assertEquals(201, journal.getDurableSeq(), "Waiting for the last entry should also cover the earlier plain append");
+    }
+
+    @Test
+    @DisplayName("Should fail a durable append whose wait is interrupted instead of reporting it committed")
+    void interruptedDurableAppend() throws IOException {
+        // Arrange
+        ParkingJournal journal = open(1 << 20, Duration.ofHours(1));
+
+        // Act
+        Thread.currentThread().interrupt();
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> journal.appendDurably(parked(1)));
+
+        // Assert
+        assertTrue(Thread.interrupted(), "Interrupt status should be kept for the caller");
+        assertTrue(e.getMessage().contains("Interrupted"), e.getMessage());
+        journal.awaitDurable(journal.getLastSeq());
+        assertEquals(1, journal.getDurableSeq(), "The entry itself should still reach disk with the next commit");
+    }
+
+    @Test
+    @DisplayName("Should reject a group commit interval below a microsecond")
+    void rejectsSubMicrosecondInterval() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> open(4096, Duration.ofNanos(999)));
+        assertThrows(IllegalArgumentException.class, () -> open(4096, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> open(4096, Duration.ofMillis(-1)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.rcpky;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.enums.VehicleType;
+import com.rcpky.models.ParkingRate;
+import com.rcpky.spots.Large;
+import com.rcpky.tariff.CompiledTariff;
+import com.rcpky.tariff.RateBand;
+import com.rcpky.tariff.Tariff;
+import com.rcpky.tariff.TariffRule;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Truck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingRateTest {
+
+    private static final long MINUTE = 60_000;
+    // A Monday, midnight UTC
+    private static final long MIDNIGHT = Instant.parse("2024-03-04T00:00:00Z").toEpochMilli();
+
+    private CompiledTariff standard;
+
+    @BeforeEach
+    void setUp() {
+        standard = Tariff.standard().compile(ZoneOffset.UTC);
+    }
+
+    // The fixed ladder ParkingRate charged before tariffs: 4 for the first started hour,
+    // 3.5 for the second and third and 2.5 for every one after that
+    private static double oldLadder(double hours) {
+        int hrs = (int) Math.ceil(hours);
+        double fee = 0;
+        if (hrs >= 1) fee += 4;
+        if (hrs >= 2) fee += 3.5;
+        if (hrs >= 3) fee += 3.5;
+        if (hrs > 3) fee += (hrs - 3) * 2.5;
+        return fee;
+    }
+
+    private double carFee(long entry, long stayMillis) {
+        return standard.fee(VehicleType.CAR, ParkingSpotType.COMPACT, entry, entry + stayMillis);
+    }
+
+    @Test
+    @DisplayName("Should reproduce the old ladder with hourly billing and stepped bands")
+    void reproducesOldLadder() {
+        // Arrange - from midnight, bands stepping down after the first and third hour rebuild the ladder
+        CompiledTariff ladder = new Tariff()
+                .addRule(new TariffRule(null, null, 2.5, 0, 60, 1000,
+                        RateBand.between(0, 1, 4), RateBand.between(1, 3, 3.5)))
+                .compile(ZoneOffset.UTC);
+
+        // Act & Assert - every minute of the day, including each hour boundary and the minute after it
+        for (long minutes = 0; minutes < 1440; minutes++) {
+            double fee = ladder.fee(VehicleType.CAR, ParkingSpotType.COMPACT, MIDNIGHT, MIDNIGHT + minutes * MINUTE);
+            assertEquals(oldLadder(minutes / 60.0), fee, 1e-9, "Stay of " + minutes + " minutes");
+        }
+    }
+
+    @Test
+    @DisplayName("Should bill started quarter hours where the old ladder billed started hours")
+    void billingUnitBoundaries() {
+        // Arrange
+        long nine = MIDNIGHT + 9 * 60 * MINUTE;
+
+        // Act & Assert - daytime car rate 3.5 per hour after 10 free minutes
+        assertEquals(0.0, carFee(nine, 10 * MINUTE), "Grace period should be free up to its last minute");
+        assertEquals(0.88, carFee(nine, 10 * MINUTE + 1), "A started minute past the grace bills a whole quarter");
+        assertEquals(3.5, carFee(nine, 60 * MINUTE), 1e-9);
+        assertEquals(4.38, carFee(nine, 61 * MINUTE), 1e-9, "One minute over an hour adds a quarter");
+        assertEquals(oldLadder(61 / 60.0), 7.5, "The old ladder charged a whole second hour for it");
+        assertEquals(10.5, carFee(nine, 3 * 60 * MINUTE), 1e-9);
+        assertEquals(oldLadder(3), 11.0, "Three hours used to cost 11");
+    }
+
+    @Test
+    @DisplayName("Should switch rates at band edges and midnight and cap each day")
+    void bandAndDayBoundaries() {
+        // Act & Assert
+        assertEquals(6.0, carFee(MIDNIGHT + 19 * 60 * MINUTE, 120 * MINUTE), 1e-9, "One day hour and one night hour");
+        assertEquals(10.0, carFee(MIDNIGHT + 22 * 60 * MINUTE, 240 * MINUTE), 1e-9, "Night rate on both sides of midnight");
+        assertEquals(30.0, carFee(MIDNIGHT + 8 * 60 * MINUTE, 12 * 60 * MINUTE), 1e-9, "Daytime should stop at the daily cap");
+        assertEquals(90.0, carFee(MIDNIGHT, 3 * 1440 * MINUTE), 1e-9, "Each whole day should cost the cap");
+        assertEquals(30.0 + 30.0 + 23.5, carFee(MIDNIGHT + 8 * 60 * MINUTE, 2 * 1440 * MINUTE + 60 * MINUTE), 1e-9,
+                "Two capped days, then eight night hours and one day hour of the third");
+    }
+
+    @Test
+    @DisplayName("Should price trucks, large spots and a batch the same way as single fees")
+    void ruleSelectionAndBatch() {
+        // Arrange
+        ParkingRate rate = new ParkingRate(standard);
+        long entry = MIDNIGHT + 9 * 60 * MINUTE;
+        long exit = entry + 2 * 60 * MINUTE;
+        ParkingTicket car = new ParkingTicket(7001L, 1, new Car("BAT-1"), new Date(entry));
+        ParkingTicket truck = new ParkingTicket(7002L, 2, new Truck("BAT-2"), new Date(entry));
+
+        // Act
+        double[] batch = rate.calculateAll(List.of(car, truck), id -> id == 2 ? new Large(2) : null, exit);
+
+        // Assert
+        assertEquals(7.0, rate.calculate(car, null, exit), 1e-9, "Missing spot should be priced as compact");
+        assertEquals(14.0, rate.calculate(truck, new Large(2), exit), 1e-9, "Truck rule should beat the large spot rule");
+        assertArrayEquals(new double[]{7.0, 14.0}, batch, 1e-9);
+    }
+}
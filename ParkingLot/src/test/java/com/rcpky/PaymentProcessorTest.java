@@ -0,0 +1,265 @@
+package com.rcpky;
+
+import com.rcpky.enums.CircuitState;
+import com.rcpky.enums.PaymentStatus;
+import com.rcpky.payments.CircuitBreaker;
+import com.rcpky.payments.CreditCard;
+import com.rcpky.payments.Payment;
+import com.rcpky.payments.PaymentGateway.GatewayException;
+import com.rcpky.payments.PaymentProcessor;
+import com.rcpky.payments.SimulatedGateway;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentProcessorTest {
+
+    private static final String CARD = "4111111111111111";
+
+    private final List<PaymentProcessor> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (PaymentProcessor processor : opened) processor.close();
+    }
+
+    private PaymentProcessor open(ScriptedGateway gateway, int maxAttempts, CircuitBreaker breaker, int batchSize) {
+        PaymentProcessor processor = new PaymentProcessor(gateway, Duration.ofMillis(200), maxAttempts, Duration.ofMillis(5),
+                breaker, batchSize, Duration.ofHours(1));
+        opened.add(processor);
+        return processor;
+    }
+
+    private static ParkingTicket ticket(int n) {
+        return new ParkingTicket(n, n, new Car("KA-" + n), new Date());
+    }
+
+    private static Throwable failureOf(CompletableFuture<Payment> charge) throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> charge.get(10, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    @DisplayName("Should retry transient gateway failures and authorize the charge once")
+    void retriesTransientFailures() throws Exception {
+        // Arrange
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        gateway.failures.set(2);
+        PaymentProcessor processor = open(gateway, 3, new CircuitBreaker(10, Duration.ofSeconds(1)), 100);
+        ParkingTicket ticket = ticket(1);
+        Payment payment = new CreditCard(12.5);
+
+        // Act
+        Payment charged = processor.charge(ticket, payment, CARD).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertSame(payment, charged);
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertNotNull(payment.getAuthorizationId());
+        assertSame(payment, ticket.getPayment(), "Authorized payment should be attached to the ticket");
+        assertEquals(3, gateway.calls.get());
+        assertEquals(2, processor.getRetries());
+        assertEquals(1, gateway.getAuthorizations());
+    }
+
+    @Test
+    @DisplayName("Should fail with the last error once every attempt has failed")
+    void givesUpAfterMaxAttempts() throws Exception {
+        // Arrange
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        gateway.failures.set(5);
+        PaymentProcessor processor = open(gateway, 3, new CircuitBreaker(10, Duration.ofSeconds(1)), 100);
+        Payment payment = new CreditCard(12.5);
+
+        // Act
+        Throwable cause = failureOf(processor.charge(ticket(1), payment, CARD));
+
+        // Assert
+        assertTrue(cause instanceof GatewayException, String.valueOf(cause));
+        assertEquals(3, gateway.calls.get());
+        assertEquals(PaymentStatus.FAILED, payment.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not retry a declined card")
+    void declineIsNotRetried() throws Exception {
+        // Arrange
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        PaymentProcessor processor = open(gateway, 3, new CircuitBreaker(10, Duration.ofSeconds(1)), 100);
+        Payment payment = new CreditCard(12.5);
+
+        // Act
+        Throwable cause = failureOf(processor.charge(ticket(1), payment, "4111"));
+
+        // Assert
+        assertTrue(cause instanceof GatewayException, String.valueOf(cause));
+        assertFalse(((GatewayException) cause).isRetryable());
+        assertEquals(1, gateway.calls.get());
+        assertEquals(0, processor.getRetries());
+        assertEquals(PaymentStatus.FAILED, payment.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should retry a timed-out call under the same idempotency key so the card is charged once")
+    void timeoutRetryIsIdempotent() throws Exception {
+        // Arrange - the first call authorizes but answers only after the timeout
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        gateway.lateAnswers.set(1);
+        PaymentProcessor processor = open(gateway, 3, new CircuitBreaker(10, Duration.ofSeconds(1)), 100);
+
+        // Act
+        Payment charged = processor.charge(ticket(1), new CreditCard(12.5), CARD).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, processor.getTimeouts());
+        assertEquals(1, processor.getRetries());
+        assertEquals(2, gateway.calls.get());
+        assertEquals(1, gateway.getAuthorizations(), "The retry should get the first authorization back");
+        assertEquals(PaymentStatus.COMPLETED, charged.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should fail charges fast without calling the gateway while the circuit is open")
+    void openCircuitFailsFast() throws Exception {
+        // Arrange
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        gateway.setDown(true);
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1));
+        PaymentProcessor processor = open(gateway, 1, breaker, 100);
+        failureOf(processor.charge(ticket(1), new CreditCard(1), CARD));
+        failureOf(processor.charge(ticket(2), new CreditCard(1), CARD));
+
+        // Act
+        Throwable cause = failureOf(processor.charge(ticket(3), new CreditCard(1), CARD));
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertTrue(((GatewayException) cause).isRetryable());
+        assertEquals(1, processor.getRejected());
+        assertEquals(2, gateway.calls.get(), "The open circuit should keep calls away from the gateway");
+    }
+
+    @Test
+    @DisplayName("Should keep the circuit open when a charge started before it opened is declined late")
+    void lateDeclineKeepsCircuitOpen() throws Exception {
+        // Arrange - a slow declined charge is still out when fast failures open the circuit
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ofMillis(100));
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1));
+        PaymentProcessor processor = open(gateway, 1, breaker, 100);
+        CompletableFuture<Payment> declined = processor.charge(ticket(1), new CreditCard(1), "4111");
+        while (gateway.calls.get() == 0) Thread.onSpinWait();
+        gateway.failures.set(2);
+        gateway.fast.set(2);
+        failureOf(processor.charge(ticket(2), new CreditCard(1), CARD));
+        failureOf(processor.charge(ticket(3), new CreditCard(1), CARD));
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        // Act
+        failureOf(declined);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, breaker.getState(), "A healthy answer from before the circuit opened should not close it");
+    }
+
+    @Test
+    @DisplayName("Should settle authorized payments in full batches")
+    void settlesInBatches() throws Exception {
+        // Arrange
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ZERO);
+        PaymentProcessor processor = open(gateway, 1, new CircuitBreaker(10, Duration.ofSeconds(1)), 2);
+        List<Payment> payments = new ArrayList<>();
+
+        // Act - the settlement interval is an hour, so only full batches trigger a settlement
+        for (int batch = 1; batch <= 2; batch++) {
+            for (int i = 0; i < 2; i++) payments.add(processor.charge(ticket(i), new CreditCard(1), CARD).get(10, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (processor.getSettlementBatches() < batch && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        }
+
+        // Assert
+        assertEquals(4, processor.getSettledPayments());
+        assertEquals(2, processor.getSettlementBatches(), "Each full batch should be settled in one call");
+        assertEquals(2, gateway.getSettlementCalls());
+        assertEquals(0, processor.getAwaitingSettlement());
+        for (Payment p : payments) assertEquals(PaymentStatus.SETTLED, p.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should finish and settle charges in flight on close, then refuse new ones")
+    void closeWaitsForInFlight() throws Exception {
+        // Arrange - batches never fill and the interval never passes, so only close() settles
+        ScriptedGateway gateway = new ScriptedGateway(Duration.ofMillis(50));
+        PaymentProcessor processor = open(gateway, 3, new CircuitBreaker(10, Duration.ofSeconds(1)), 100);
+        gateway.failures.set(1);
+        List<CompletableFuture<Payment>> charges = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) charges.add(processor.charge(ticket(i), new CreditCard(i), CARD));
+
+        // Act
+        processor.close();
+
+        // Assert
+        for (CompletableFuture<Payment> charge : charges) {
+            assertTrue(charge.isDone(), "close() should wait for charges in flight");
+            assertEquals(PaymentStatus.SETTLED, charge.get().getStatus(), "close() should settle what it waited for");
+        }
+        assertEquals(5, gateway.getSettledCharges());
+        Throwable cause = failureOf(processor.charge(ticket(6), new CreditCard(1), CARD));
+        assertTrue(cause instanceof IllegalStateException, String.valueOf(cause));
+    }
+
+    /**
+     * SimulatedGateway with a fixed latency and no random failures; the next calls can be made to
+     * fail, to skip the latency, or to authorize and then answer after the processor's timeout.
+     */
+    static class ScriptedGateway extends SimulatedGateway {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger fast = new AtomicInteger();
+        final AtomicInteger lateAnswers = new AtomicInteger();
+        private final long latencyMillis;
+
+        ScriptedGateway(Duration latency) {
+            super(Duration.ZERO, Duration.ZERO, 0, 0);
+            this.latencyMillis = latency.toMillis();
+        }
+
+        @Override
+        public String authorize(String idempotencyKey, String cardNumber, double amount) throws GatewayException {
+            boolean slow = fast.getAndDecrement() <= 0;
+            calls.incrementAndGet();
+            if (slow && latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GatewayException("Call abandoned", true);
+                }
+            }
+            if (failures.getAndDecrement() > 0) throw new GatewayException("Gateway unavailable", true);
+            String id = super.authorize(idempotencyKey, cardNumber, amount);
+            if (lateAnswers.getAndDecrement() > 0) {
+                // Ignores the interrupt from the timed-out caller, as a call already on the wire would
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(400);
+                while (System.nanoTime() < until) {
+                    LockSupport.parkNanos(until - System.nanoTime());
+                    Thread.interrupted();
+                }
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.rcpky;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.reservations.Reservation;
+import com.rcpky.reservations.ReservationBook;
+import com.rcpky.spots.Compact;
+import com.rcpky.spots.Large;
+import com.rcpky.spots.ParkingSpot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks ReservationBook, and the timeline and gap index behind it, against a plain list of
+ * reservations scanned on every question.
+ */
+public class ReservationBookTest {
+
+    private static final long SLOT = Duration.ofMinutes(15).toMillis();
+    // A day of 96 slots, so a long run wraps the rings many times
+    private static final Duration HORIZON = Duration.ofDays(1);
+    private static final int HORIZON_SLOTS = 96;
+    private static final List<ParkingSpotType> TYPES = List.of(ParkingSpotType.COMPACT, ParkingSpotType.LARGE);
+
+    private MutableClock clock;
+    private List<ParkingSpot> spots;
+    private ReservationBook book;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-03-04T00:00:00Z").toEpochMilli() + 7 * 60_000);
+        spots = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) spots.add(new Compact(i));
+        for (int i = 7; i <= 10; i++) spots.add(new Large(i));
+        book = new ReservationBook(spots, Duration.ofMillis(SLOT), HORIZON, clock);
+    }
+
+    private static long floorSlot(long millis) {
+        return Math.floorDiv(millis, SLOT) * SLOT;
+    }
+
+    private static long ceilSlot(long millis) {
+        return -Math.floorDiv(-millis, SLOT) * SLOT;
+    }
+
+    // The naive answers: every live reservation is checked, one by one
+    private static boolean naiveFree(Map<Long, Reservation> live, int spotId, long from, long to) {
+        for (Reservation r : live.values()) {
+            if (r.getSpotId() == spotId && r.overlaps(from, to)) return false;
+        }
+        return true;
+    }
+
+    private int naiveFreeCount(Map<Long, Reservation> live, ParkingSpotType type, long from, long to) {
+        int free = 0;
+        for (ParkingSpot s : spots) {
+            if (s.getType() == type && naiveFree(live, s.getId(), from, to)) free++;
+        }
+        return free;
+    }
+
+    // Fewest spots free in any one slot of a slot-aligned window
+    private int naiveFewestFree(Map<Long, Reservation> live, ParkingSpotType type, long from, long to) {
+        int fewest = Integer.MAX_VALUE;
+        for (long slot = from; slot < to; slot += SLOT) fewest = Math.min(fewest, naiveFreeCount(live, type, slot, slot + SLOT));
+        return fewest;
+    }
+
+    @Test
+    @DisplayName("Should answer like a full scan through random bookings, cancellations and clock jumps")
+    void matchesNaiveScan() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(49);
+        Map<Long, Reservation> live = new HashMap<>();
+
+        for (int op = 0; op < 120_000; op++) {
+            long now = clock.millis();
+            live.values().removeIf(r -> r.getEndMillis() <= now);
+            // A window inside the horizon, usually not on slot boundaries
+            long horizonEnd = (now / SLOT + HORIZON_SLOTS) * SLOT;
+            long length = (1 + random.nextInt(12)) * SLOT - random.nextInt((int) SLOT);
+            long from = now + random.nextLong(Math.max(1, horizonEnd - now - length));
+            long to = Math.min(from + length, horizonEnd);
+            long wideFrom = floorSlot(from), wideTo = ceilSlot(to);
+            ParkingSpotType type = TYPES.get(random.nextInt(TYPES.size()));
+            String context = "op " + op + " at " + now + " window [" + from + ", " + to + ")";
+
+            // Act & Assert
+            int choice = random.nextInt(100);
+            if (choice < 40) {
+                Reservation r = book.book(type, "PL-" + op, from, to);
+                boolean anyFree = naiveFreeCount(live, type, wideFrom, wideTo) > 0;
+                assertEquals(anyFree, r != null, context + ": a " + type + " spot free throughout should be booked");
+                if (r != null) {
+                    assertEquals(type, r.getSpotType(), context);
+                    assertEquals(wideFrom, r.getStartMillis(), context + ": start should be widened to the slot");
+                    assertEquals(wideTo, r.getEndMillis(), context + ": end should be widened to the slot");
+                    assertTrue(naiveFree(live, r.getSpotId(), wideFrom, wideTo), context + ": spot " + r.getSpotId() + " was taken");
+                    live.put(r.getId(), r);
+                }
+            } else if (choice < 55) {
+                ParkingSpot spot = spots.get(random.nextInt(spots.size()));
+                Reservation r = book.bookSpot(spot.getId(), "PL-" + op, from, to);
+                assertEquals(naiveFree(live, spot.getId(), wideFrom, wideTo), r != null, context + ": booking spot " + spot.getId());
+                if (r != null) live.put(r.getId(), r);
+            } else if (choice < 75) {
+                if (live.isEmpty()) continue;
+                List<Long> ids = new ArrayList<>(live.keySet());
+                long id = ids.get(random.nextInt(ids.size()));
+                assertTrue(book.cancel(id), context + ": live reservation " + id + " should cancel");
+                assertFalse(book.cancel(id), context + ": a reservation cancels once");
+                live.remove(id);
+            } else if (choice < 90) {
+                int fewest = naiveFewestFree(live, type, wideFrom, wideTo);
+                assertEquals(fewest, book.freeBetween(type, from, to), context + ": " + type + " free count");
+                assertTrue(naiveFreeCount(live, type, wideFrom, wideTo) <= fewest, context + ": spots free throughout are free at every moment");
+            } else if (choice < 95) {
+                ParkingSpot spot = spots.get(random.nextInt(spots.size()));
+                long at = from + random.nextLong(to - from);
+                Reservation expected = null;
+                for (Reservation r : live.values()) {
+                    if (r.getSpotId() == spot.getId() && r.overlaps(at, at + 1)) expected = r;
+                }
+                assertEquals(expected, book.findReservation(spot.getId(), at), context + ": holder of spot " + spot.getId());
+                assertEquals(naiveFree(live, spot.getId(), from, to), book.isSpotFree(spot.getId(), from, to), context);
+            } else {
+                // Within a slot, onto the next slots, or past the whole horizon
+                int jump = random.nextInt(20);
+                if (jump < 12) clock.advance(random.nextLong(SLOT));
+                else if (jump < 19) clock.advance((1 + random.nextInt(8)) * SLOT);
+                else clock.advance(HORIZON.toMillis() + random.nextLong(3 * HORIZON.toMillis()));
+            }
+        }
+
+        // Assert - once every type has caught up with the clock, only live reservations are kept
+        for (ParkingSpotType type : TYPES) book.freeBetween(type, clock.millis(), clock.millis() + SLOT);
+        long now = clock.millis();
+        live.values().removeIf(r -> r.getEndMillis() <= now);
+        assertEquals(live.size(), book.getReservationCount(), "Ended reservations should be dropped");
+    }
+
+    @Test
+    @DisplayName("Should book across the end of the ring once the horizon has moved")
+    void bookingAcrossRingWrap() {
+        // Arrange - midnight UTC is ring position 0, so from noon the window 46 to 50 slots ahead
+        // runs off the end of the ring and continues at its start
+        clock.advance(HORIZON_SLOTS / 2 * SLOT);
+        long start = floorSlot(clock.millis());
+        long from = start + 46 * SLOT;
+        long to = start + 50 * SLOT;
+
+        // Act
+        Reservation first = book.bookSpot(1, "WRAP-1", from, to);
+        Reservation second = book.book(ParkingSpotType.COMPACT, "WRAP-2", from + SLOT, to);
+
+        // Assert
+        assertNotNull(first, "Spot 1 should be free at the far end of the horizon");
+        assertNotNull(second);
+        assertNotEquals(1, second.getSpotId(), "Spot 1 is taken across the wrap");
+        assertEquals(4, book.freeBetween(ParkingSpotType.COMPACT, from + SLOT, to));
+        assertThrows(IllegalArgumentException.class, () -> book.bookSpot(2, "FAR", from, start + (HORIZON_SLOTS + 1) * SLOT),
+                "Windows beyond the horizon should be rejected");
+        assertTrue(book.cancel(first.getId()));
+        assertEquals(5, book.freeBetween(ParkingSpotType.COMPACT, from + SLOT, to), "Cancelling should free the wrapped slots");
+    }
+
+    @Test
+    @DisplayName("Should pack a booking into the tightest gap and keep long gaps open")
+    void packsIntoTightestGap() {
+        // Arrange - spot 1 has a two-slot gap at the window, every other compact spot is free all day
+        long start = ceilSlot(clock.millis());
+        book.bookSpot(1, "BEFORE", start, start + 4 * SLOT);
+        book.bookSpot(1, "AFTER", start + 6 * SLOT, start + 10 * SLOT);
+
+        // Act
+        Reservation r = book.book(ParkingSpotType.COMPACT, "FITS", start + 4 * SLOT, start + 6 * SLOT);
+
+        // Assert
+        assertNotNull(r);
+        assertEquals(1, r.getSpotId(), "The gap that fits exactly should be used first");
+        assertEquals(5, book.freeBetween(ParkingSpotType.COMPACT, start, start + 10 * SLOT));
+    }
+
+    static class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.rcpky;
+
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.SpotFactory;
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.patterns.command.FreeSpotCommand;
+import com.rcpky.patterns.command.ParkAllCommand;
+import com.rcpky.spots.Compact;
+import com.rcpky.spots.FreeSpotIndex;
+import com.rcpky.spots.Handicapped;
+import com.rcpky.spots.NearestSpotIndex;
+import com.rcpky.spots.ParkingSpot;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Truck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Free-spot counters must match the spots' real state however parks, frees and re-claims interleave.
+ */
+public class SpotCountersTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+
+    private PrintStream out;
+    private List<ParkingSpot> spots;
+
+    @BeforeEach
+    void setUp() {
+        // Spots log every assignment; keep that I/O (and its lock) out of the races
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        spots = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) spots.add(i % 4 == 0 ? new Handicapped(i) : new Compact(i));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(out);
+    }
+
+    private static long freeSpots(List<ParkingSpot> spots, ParkingSpotType type) {
+        return spots.stream().filter(s -> s.getType() == type && s.isFree()).count();
+    }
+
+    private static void race(Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            int id = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS; i++) worker.step(id, i, random);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        if (!failures.isEmpty()) fail("Worker failed: " + failures.get(0));
+    }
+
+    interface Worker {
+        void step(int thread, int i, SplittableRandom random);
+    }
+
+    @Test
+    @DisplayName("Should keep FreeSpotIndex counters exact under concurrent park, free and claim")
+    void freeSpotIndexCounters() throws InterruptedException {
+        // Arrange
+        FreeSpotIndex index = new FreeSpotIndex();
+        for (ParkingSpot s : spots) index.add(s);
+
+        // Act - claim is how an undone free puts a vehicle back in its old spot
+        race((thread, i, random) -> {
+            Car car = new Car("T" + thread + "-" + i);
+            int op = random.nextInt(3);
+            if (op == 0) index.allocate(car);
+            else if (op == 1) index.free(spots.get(random.nextInt(spots.size())));
+            else index.claim(spots.get(random.nextInt(spots.size())), car);
+        });
+
+        // Assert
+        for (ParkingSpotType type : List.of(ParkingSpotType.COMPACT, ParkingSpotType.HANDICAPPED)) {
+            assertEquals(freeSpots(spots, type), index.getAvailability().freeCount(type), type + " counter after the race");
+        }
+        for (ParkingSpot s : spots) index.free(s);
+        assertEquals(48, index.getAvailability().freeCount(ParkingSpotType.COMPACT), "Every compact spot should be free again");
+        assertEquals(16, index.getAvailability().freeCount(ParkingSpotType.HANDICAPPED));
+        ParkingSpot[] all = new ParkingSpot[64];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = index.allocate(new Car("ALL-" + i));
+            assertNotNull(all[i], "Each free spot should be handed out exactly once");
+        }
+        assertNull(index.allocate(new Car("ONE-TOO-MANY")), "No spot should be listed twice");
+    }
+
+    @Test
+    @DisplayName("Should keep NearestSpotIndex counters exact when spots are taken outside the index")
+    void nearestSpotIndexCounters() throws InterruptedException {
+        // Arrange
+        NearestSpotIndex index = new NearestSpotIndex();
+        index.addEntrance(1, 0, 0);
+        index.addEntrance(2, 64, 0);
+        for (ParkingSpot s : spots) index.add(s);
+
+        // Act - recovery assigns vehicles to spots directly, without the index knowing
+        race((thread, i, random) -> {
+            Car car = new Car("T" + thread + "-" + i);
+            ParkingSpot s = spots.get(random.nextInt(spots.size()));
+            int op = random.nextInt(4);
+            if (op == 0) index.allocate(car, random.nextBoolean() ? 1 : 2);
+            else if (op == 1) index.allocate(car);
+            else if (op == 2) index.free(s);
+            else {
+                synchronized (s) {
+                    s.assignVehicle(car);
+                }
+            }
+        });
+        for (ParkingSpot s : spots) index.free(s);
+
+        // Assert
+        assertEquals(48, index.getAvailability().freeCount(ParkingSpotType.COMPACT), "Compact counter after freeing every spot");
+        assertEquals(16, index.getAvailability().freeCount(ParkingSpotType.HANDICAPPED), "Handicapped counter after freeing every spot");
+        for (int i = 0; i < 64; i++) assertNotNull(index.allocate(new Car("ALL-" + i), 1));
+        assertNull(index.allocate(new Car("ONE-TOO-MANY"), 2), "No spot should be listed twice");
+    }
+
+    @Test
+    @DisplayName("Should keep the lot's free count right when a free is undone while gates park")
+    void undoFreeWhileParking() throws Exception {
+        // Arrange - the lot is a singleton, so work on spots of its own and compare deltas
+        ThreadSafeParkingLot lot = ThreadSafeParkingLot.getInstance();
+        long before = lot.getFreeCount(ParkingSpotType.LARGE);
+        List<ParkingSpot> large = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ParkingSpot s = SpotFactory.createSpot(ParkingSpotType.LARGE);
+            lot.addSpot(s);
+            large.add(s);
+        }
+        for (int i = 0; i < 4; i++) lot.parkVehicle(new Truck("UNDO-" + i));
+        assertEquals(before, lot.getFreeCount(ParkingSpotType.LARGE), "New spots should all be taken");
+
+        // Act - each round frees a spot, then an undo and a gate race for it
+        AtomicInteger undone = new AtomicInteger();
+        AtomicInteger gateParked = new AtomicInteger();
+        for (int round = 0; round < 200; round++) {
+            int spotId = large.get(round % large.size()).getId();
+            FreeSpotCommand free = new FreeSpotCommand(lot, spotId);
+            assertTrue(free.execute(), "Spot " + spotId + " should be occupied");
+            assertEquals(before + 1, lot.getFreeCount(ParkingSpotType.LARGE), "Freeing should count the spot");
+            CountDownLatch go = new CountDownLatch(1);
+            Thread gate = new Thread(() -> {
+                try {
+                    go.await();
+                    lot.parkVehicle(new Truck("GATE-" + spotId));
+                    gateParked.incrementAndGet();
+                } catch (Exception e) {
+                    // Lost the race to the undo
+                }
+            });
+            gate.start();
+            go.countDown();
+            if (free.undo()) undone.incrementAndGet();
+            gate.join();
+
+            // Assert
+            assertEquals(before, lot.getFreeCount(ParkingSpotType.LARGE), "Round " + round + " should end with the spot taken once");
+            assertFalse(lot.getSpot(spotId).isFree());
+            assertNotNull(lot.findTicketBySpot(spotId), "Winner's ticket should be registered");
+        }
+        assertEquals(200, undone.get() + gateParked.get(), "Exactly one of undo and gate should win each round");
+
+        for (ParkingSpot s : large) lot.freeSlot(s.getId());
+        assertEquals(before + 4, lot.getFreeCount(ParkingSpotType.LARGE), "All test spots should be free again");
+    }
+
+    @Test
+    @DisplayName("Should undo a batch only on spots its tickets still hold, and only once")
+    void undoBatchLeavesNewOccupants() {
+        // Arrange - the lot is a singleton, so work on spots of its own
+        ThreadSafeParkingLot lot = ThreadSafeParkingLot.getInstance();
+        for (int i = 0; i < 2; i++) lot.addSpot(SpotFactory.createSpot(ParkingSpotType.LARGE));
+        ParkAllCommand batch = new ParkAllCommand(lot, List.of(new Truck("BATCH-1"), new Truck("BATCH-2")));
+        assertTrue(batch.execute());
+        int left = batch.getResults().get(0).getTicket().getSlotNo();
+        int stayed = batch.getResults().get(1).getTicket().getSlotNo();
+        // The first truck leaves and another takes its spot
+        lot.freeSlot(left);
+        ParkingTicket newcomer = new ParkingTicket(left, new Truck("NEWCOMER"));
+        assertTrue(lot.reclaimSpot(newcomer));
+
+        // Act
+        boolean undone = batch.undo();
+
+        // Assert
+        assertTrue(undone);
+        assertTrue(lot.getSpot(stayed).isFree(), "The truck still parked from the batch should be removed");
+        assertSame(newcomer, lot.findTicketBySpot(left), "The newcomer should keep the spot");
+        assertFalse(batch.undo(), "A second undo should have nothing left to free");
+        assertSame(newcomer, lot.findTicketBySpot(left));
+
+        lot.freeSlot(left);
+    }
+}
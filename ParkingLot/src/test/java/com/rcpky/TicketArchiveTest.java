@@ -0,0 +1,196 @@
+package com.rcpky;
+
+import com.rcpky.archive.ArchivedTicket;
+import com.rcpky.archive.TicketArchive;
+import com.rcpky.enums.ParkingSpotType;
+import com.rcpky.patterns.SpotFactory;
+import com.rcpky.patterns.ThreadSafeParkingLot;
+import com.rcpky.spots.ParkingSpot;
+import com.rcpky.tickets.ParkingTicket;
+import com.rcpky.vehicles.Car;
+import com.rcpky.vehicles.Truck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TicketArchiveTest {
+
+    // Long enough that every ticket of a test lands in the same partition
+    private static final Duration PARTITION = Duration.ofDays(365);
+
+    private Path dir;
+    private final List<TicketArchive> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("archive-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (TicketArchive archive : opened) archive.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) Files.deleteIfExists(p);
+        }
+    }
+
+    private TicketArchive open() throws IOException {
+        TicketArchive archive = new TicketArchive(dir, PARTITION);
+        opened.add(archive);
+        return archive;
+    }
+
+    private static ParkingTicket paidTicket(int slotNo) {
+        ParkingTicket t = new ParkingTicket(slotNo, new Car("ARC-" + slotNo));
+        t.setExitTime(new Date());
+        t.setAmount(2.5 * slotNo);
+        return t;
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(suffix)).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reopen the open partition after a crash and cut off a torn record")
+    void reopenAfterTornRecord() throws IOException {
+        // Arrange
+        TicketArchive archive = open();
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (int slot = 1; slot <= 3; slot++) {
+            ParkingTicket t = paidTicket(slot);
+            archive.archive(t);
+            tickets.add(t);
+        }
+        archive.flush();
+        // A crash in the middle of the next append leaves a length prefix without its record
+        try (FileChannel channel = FileChannel.open(files(".open").get(0), APPEND)) {
+            channel.write(ByteBuffer.allocate(9).putInt(0, 200));
+        }
+
+        // Act - the first archive is never closed, as after a crash
+        TicketArchive recovered = open();
+        ParkingTicket later = paidTicket(4);
+        recovered.archive(later);
+        tickets.add(later);
+        recovered.close();
+        TicketArchive reopened = open();
+
+        // Assert
+        assertEquals(4, reopened.getOpenTicketCount(), "Torn record should be dropped and later tickets kept");
+        for (ParkingTicket t : tickets) {
+            ArchivedTicket found = reopened.find(t.getTicketNo());
+            assertNotNull(found, "Ticket " + t.getTicketNo() + " should survive the crash");
+            assertEquals(t.getSlotNo(), found.getSlotNo());
+            assertEquals(t.getAmount(), found.getAmount(), 0.0);
+            assertEquals(t.getVehicle().getLicenseNo(), found.getLicenseNo());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop at a record whose length survived a crash but whose body did not")
+    void reopenAfterZeroedRecord() throws IOException {
+        // Arrange
+        TicketArchive archive = open();
+        for (int slot = 1; slot <= 3; slot++) archive.archive(paidTicket(slot));
+        archive.flush();
+        // The frame header of the next record reached disk, its body is still zeros
+        try (FileChannel channel = FileChannel.open(files(".open").get(0), APPEND)) {
+            channel.write(ByteBuffer.allocate(8 + 60).putInt(0, 60));
+        }
+
+        // Act
+        TicketArchive recovered = open();
+        recovered.archive(paidTicket(4));
+        recovered.close();
+        TicketArchive reopened = open();
+
+        // Assert
+        assertEquals(4, reopened.getOpenTicketCount(), "Zeroed record should not be read back as a ticket");
+        assertNull(reopened.find(0), "No ticket should be made up from the zeroed body");
+    }
+
+    @Test
+    @DisplayName("Should drop the open file of a partition sealed just before a crash")
+    void reopenAfterCrashDuringSeal() throws IOException {
+        // Arrange
+        TicketArchive archive = open();
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (int slot = 1; slot <= 5; slot++) {
+            ParkingTicket t = paidTicket(slot);
+            archive.archive(t);
+            tickets.add(t);
+        }
+        archive.flush();
+        Path openFile = files(".open").get(0);
+        byte[] beforeSeal = Files.readAllBytes(openFile);
+
+        // Act - seal, then put the open file back as if the crash came before it was deleted
+        archive.rollover(System.currentTimeMillis() + 2 * PARTITION.toMillis());
+        archive.close();
+        Files.write(openFile, beforeSeal);
+        TicketArchive reopened = open();
+
+        // Assert
+        assertFalse(Files.exists(openFile), "Leftover open file of a sealed partition should be deleted");
+        assertEquals(1, reopened.getSealedSegmentCount());
+        assertEquals(0, reopened.getOpenTicketCount(), "Sealed tickets should not be loaded twice");
+        for (ParkingTicket t : tickets) {
+            assertNotNull(reopened.find(t.getTicketNo()), "Ticket " + t.getTicketNo() + " should be found in the segment");
+        }
+        assertEquals(5, reopened.findByExitTime(0, Long.MAX_VALUE).size(), "Each ticket should be archived once");
+    }
+
+    @Test
+    @DisplayName("Should move the tickets of freed spots from the lot to the archive")
+    void lotArchivesFreedTickets() throws Exception {
+        // Arrange - the lot is a singleton, so work on spots of its own; sweeps are triggered by hand
+        ThreadSafeParkingLot lot = ThreadSafeParkingLot.getInstance();
+        TicketArchive archive = open();
+        lot.enableArchiving(archive, Duration.ofHours(1));
+        List<ParkingTicket> parked = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ParkingSpot s = SpotFactory.createSpot(ParkingSpotType.LARGE);
+            lot.addSpot(s);
+            parked.add(lot.parkVehicle(new Truck("ARCH-" + i)));
+        }
+        lot.archivePaidTickets();
+        int before = lot.getTicketCount();
+
+        // Act
+        lot.freeSlot(parked.get(0).getSlotNo());
+        lot.freeAll(new int[]{parked.get(1).getSlotNo()});
+        int moved = lot.archivePaidTickets();
+
+        // Assert
+        assertEquals(2, moved, "Both freed tickets should be archived");
+        assertEquals(before - 2, lot.getTicketCount(), "Archived tickets should leave the ticket store");
+        for (ParkingTicket t : parked.subList(0, 2)) {
+            assertNull(lot.getTicket(t.getTicketNo()));
+            ArchivedTicket found = lot.findArchivedTicket(t.getTicketNo());
+            assertNotNull(found, "Ticket " + t.getTicketNo() + " should be in the archive");
+            assertEquals(t.getExitTime().getTime(), found.getExitMillis(), "Freeing should stamp the exit time");
+        }
+        assertSame(parked.get(2), lot.getTicket(parked.get(2).getTicketNo()), "Open tickets should stay in memory");
+        lot.freeSlot(parked.get(2).getSlotNo());
+    }
+}